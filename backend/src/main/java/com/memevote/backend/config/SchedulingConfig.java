@@ -0,0 +1,12 @@
+package com.memevote.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (counter reconciliation and similar maintenance tasks)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
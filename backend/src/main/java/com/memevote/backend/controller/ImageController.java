@@ -1,36 +1,124 @@
 package com.memevote.backend.controller;
 
-import com.memevote.backend.model.ImageData;
+import com.memevote.backend.model.VariantStatus;
+import com.memevote.backend.repository.projection.ImageMetadata;
 import com.memevote.backend.service.ImageStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/uploads")
 public class ImageController {
 
+    // File names are random UUIDs and an image never changes, so clients and CDNs may keep it for good
+    // (CacheControl has no immutable directive in this Spring version)
+    private static final String IMMUTABLE =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+    // The original stands in for a variant that is still being generated, so it is only cached briefly
+    private static final String PROVISIONAL = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic().getHeaderValue();
+
     @Autowired
     private ImageStorageService imageStorageService;
 
     @GetMapping("/{fileName}")
-    public ResponseEntity<?> getImage(@PathVariable String fileName) {
-        Optional<ImageData> imageDataOptional = imageStorageService.getImage(fileName);
-        
-        if (imageDataOptional.isPresent()) {
-            ImageData imageData = imageDataOptional.get();
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(imageData.getType()))
-                    .body(imageData.getData());
+    public ResponseEntity<?> getImage(@PathVariable String fileName,
+                                      @RequestParam(name = "w", required = false) Integer width,
+                                      WebRequest webRequest) throws IOException {
+        boolean resized = width != null && width > 0;
+        Optional<ImageMetadata> metadataOptional = resized
+                ? imageStorageService.getImageMetadata(fileName, width)
+                : imageStorageService.getImageMetadata(fileName);
+
+        if (metadataOptional.isPresent()) {
+            ImageMetadata metadata = metadataOptional.get();
+            // Variants are saved together with the READY status, so a pending image is served as the original
+            String cacheControl = resized && !variantsSettled(metadata) ? PROVISIONAL : IMMUTABLE;
+            // Sets ETag and Last-Modified; a matching conditional GET is answered before the bytes are opened
+            if (webRequest.checkNotModified(etag(metadata), lastModified(metadata))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                        .build();
+            }
+
+            // Streamed from the blob store in small chunks rather than loaded onto the heap. Spring MVC
+            // answers a Range header on a resource body with 206 (multipart/byteranges for several ranges)
+            // or 416, copying only the requested regions from the resource's stream.
+            Optional<Resource> content = imageStorageService.openImage(metadata);
+            if (content.isPresent()) {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .contentType(MediaType.parseMediaType(metadata.getType()));
+                if (!rangeApplies(webRequest.getHeader(HttpHeaders.IF_RANGE), metadata)) {
+                    // Not treated as a resource, so the Range header is ignored and the whole image is sent
+                    return response.contentLength(content.get().contentLength())
+                            .body(new InputStreamResource(content.get().getInputStream()));
+                }
+                return response.body(content.get());
+            }
         }
-        
+
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Image not found");
     }
+
+    private static boolean variantsSettled(ImageMetadata metadata) {
+        return metadata.getVariantStatus() != null && metadata.getVariantStatus() != VariantStatus.PENDING;
+    }
+
+    /**
+     * Whether a Range header may be honored: always without If-Range, otherwise only if it names the
+     * current ETag or Last-Modified date, so a client never stitches together parts of different images.
+     */
+    private static boolean rangeApplies(String ifRange, ImageMetadata metadata) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Weak validators never match
+            return ifRange.equals(etag(metadata));
+        }
+        long lastModified = lastModified(metadata);
+        try {
+            // HTTP dates have whole seconds
+            long ifRangeSeconds = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return lastModified >= 0 && lastModified / 1000 == ifRangeSeconds;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Strong ETag from the content hash; null for images stored before hashes were recorded.
+     */
+    private static String etag(ImageMetadata metadata) {
+        return metadata.getContentHash() != null ? "\"" + metadata.getContentHash() + "\"" : null;
+    }
+
+    private static long lastModified(ImageMetadata metadata) {
+        if (metadata.getCreatedAt() == null) {
+            return -1;
+        }
+        return metadata.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
@@ -1,8 +1,10 @@
 package com.memevote.backend.controller;
 
 import com.memevote.backend.dto.request.MemeRequest;
+import com.memevote.backend.dto.response.CursorPage;
 import com.memevote.backend.dto.response.MemeResponse;
 import com.memevote.backend.dto.response.MessageResponse;
+import com.memevote.backend.repository.specification.CategoryMatch;
 import com.memevote.backend.service.MemeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -77,24 +79,52 @@ public class MemeController {
         }
     }
 
-    @Operation(summary = "Get memes", description = "Retrieve a paginated list of memes with optional filtering")
+    @Operation(summary = "Get memes", description = "Retrieve a paginated list of memes with optional filtering. " +
+            "Passing the cursor parameter (empty for the first slice) switches to keyset pagination, " +
+            "which returns a next cursor instead of page totals and supports only sort=createdAt,desc " +
+            "(default) or sort=voteCount,desc.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successfully retrieved memes")
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved memes"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or categoryMatch, or a sort cursor pagination does not support")
     })
     @GetMapping
-    public ResponseEntity<Page<MemeResponse>> getMemes(
+    public ResponseEntity<?> getMemes(
             @Parameter(description = "Filter by categories")
             @RequestParam(required = false) Set<String> categories,
+            @Parameter(description = "Whether memes must be in any (default) or all of the given categories")
+            @RequestParam(defaultValue = "ANY") CategoryMatch categoryMatch,
             @Parameter(description = "Filter by username")
             @RequestParam(required = false) String username,
             @Parameter(description = "Filter by title")
             @RequestParam(required = false) String title,
+            @Parameter(description = "Keyset cursor returned as nextCursor by the previous slice; empty for the first slice")
+            @RequestParam(required = false) String cursor,
             @Parameter(description = "Pagination parameters")
             Pageable pageable) {
-        Page<MemeResponse> memes = memeService.getMemes(categories, username, title, pageable);
+        if (cursor != null) {
+            CursorPage<MemeResponse> slice = memeService.getMemeFeed(
+                    categories, categoryMatch, username, title, pageable.getSort(), cursor, pageable.getPageSize());
+            return ResponseEntity.ok(slice);
+        }
+        Page<MemeResponse> memes = memeService.getMemes(categories, categoryMatch, username, title, pageable);
         return ResponseEntity.ok(memes);
     }
 
+    @Operation(summary = "Get trending memes", description = "Memes with the most net votes over the last hours, " +
+            "most voted first. Counts come from vote rollups and trail live votes by up to one rollup flush interval.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved trending memes"),
+        @ApiResponse(responseCode = "400", description = "Window outside 1 hour to 1 year")
+    })
+    @GetMapping("/trending")
+    public ResponseEntity<List<MemeResponse>> getTrendingMemes(
+            @Parameter(description = "Length of the window in hours")
+            @RequestParam(defaultValue = "24") int hours,
+            @Parameter(description = "Number of memes to return, at most 100")
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(memeService.getTrendingMemes(hours, size));
+    }
+
     @Operation(summary = "Get meme by ID", description = "Retrieve a specific meme by its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved the meme",
@@ -1,6 +1,11 @@
 package com.memevote.backend.controller;
 
+import com.memevote.backend.dto.response.CursorPage;
 import com.memevote.backend.dto.response.MessageResponse;
+import com.memevote.backend.dto.response.VoteHistoryResponse;
+import com.memevote.backend.dto.response.VoterDto;
+import com.memevote.backend.model.RollupResolution;
+import com.memevote.backend.service.VoteRollupService;
 import com.memevote.backend.service.VoteService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,9 +18,37 @@ public class VoteController {
     @Autowired
     private VoteService voteService;
 
+    @Autowired
+    private VoteRollupService voteRollupService;
+
     @PostMapping
     public ResponseEntity<MessageResponse> toggleVote(@PathVariable Long memeId) {
         MessageResponse response = voteService.toggleVote(memeId);
         return ResponseEntity.ok(response);
     }
+
+    @PutMapping
+    public ResponseEntity<MessageResponse> addVote(@PathVariable Long memeId) {
+        return ResponseEntity.ok(voteService.setVote(memeId, true));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<MessageResponse> removeVote(@PathVariable Long memeId) {
+        return ResponseEntity.ok(voteService.setVote(memeId, false));
+    }
+
+    @GetMapping
+    public ResponseEntity<CursorPage<VoterDto>> getVoters(@PathVariable Long memeId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(voteService.getVoters(memeId, cursor, size));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<VoteHistoryResponse> getVoteHistory(
+            @PathVariable Long memeId,
+            @RequestParam(defaultValue = "HOUR") RollupResolution resolution,
+            @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(voteRollupService.history(memeId, resolution, VoteRollupService.window(hours)));
+    }
 }
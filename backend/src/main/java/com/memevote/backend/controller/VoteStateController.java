@@ -0,0 +1,24 @@
+package com.memevote.backend.controller;
+
+import com.memevote.backend.dto.request.VoteStateRequest;
+import com.memevote.backend.dto.response.VoteStateResponse;
+import com.memevote.backend.service.VoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/votes")
+public class VoteStateController {
+    @Autowired
+    private VoteService voteService;
+
+    @PostMapping("/state")
+    public ResponseEntity<List<VoteStateResponse>> getVoteStates(@Valid @RequestBody VoteStateRequest request) {
+        return ResponseEntity.ok(voteService.getVoteStates(request.getMemeIds()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.memevote.backend.dto.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class VoteStateRequest {
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull Long> memeIds;
+}
@@ -0,0 +1,15 @@
+package com.memevote.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VoteBucketDto {
+    private LocalDateTime bucketStart;
+    private Long votes;
+}
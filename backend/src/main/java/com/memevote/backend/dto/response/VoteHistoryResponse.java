@@ -0,0 +1,18 @@
+package com.memevote.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VoteHistoryResponse {
+    private Long memeId;
+    private String resolution;
+    // Net votes over the whole window, including votes not yet written to a bucket
+    private Long votes;
+    private List<VoteBucketDto> buckets;
+}
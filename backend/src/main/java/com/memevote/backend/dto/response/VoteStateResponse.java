@@ -0,0 +1,14 @@
+package com.memevote.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VoteStateResponse {
+    private Long memeId;
+    private Long voteCount;
+    private Boolean userVoted;
+}
@@ -0,0 +1,15 @@
+package com.memevote.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after an uploaded image was persisted.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ImageStoredEvent {
+    private final Long imageId;
+}
@@ -0,0 +1,19 @@
+package com.memevote.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a meme was persisted.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class MemeCreatedEvent {
+    private final Long memeId;
+    private final String title;
+    private final LocalDateTime createdAt;
+}
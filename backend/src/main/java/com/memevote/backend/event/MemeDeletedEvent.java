@@ -0,0 +1,15 @@
+package com.memevote.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after a meme was deleted.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class MemeDeletedEvent {
+    private final Long memeId;
+}
@@ -0,0 +1,16 @@
+package com.memevote.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after a meme's title or categories were changed by its owner.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class MemeUpdatedEvent {
+    private final Long memeId;
+    private final String title;
+}
@@ -0,0 +1,18 @@
+package com.memevote.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after a user's vote on a meme was added or removed.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class VoteChangedEvent {
+    private final Long memeId;
+    private final Long userId;
+    private final boolean voted;
+    private final Long voteCount;
+}
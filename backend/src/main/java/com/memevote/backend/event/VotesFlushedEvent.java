@@ -0,0 +1,15 @@
+package com.memevote.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after buffered votes were written to the database.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class VotesFlushedEvent {
+    private final int votes;
+}
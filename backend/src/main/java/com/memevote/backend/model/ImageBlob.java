@@ -0,0 +1,38 @@
+package com.memevote.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Bytes in the blob store, keyed by their SHA-256, with the number of {@link ImageData} and
+ * {@link ImageVariant} rows referencing them. Identical uploads share one blob; its bytes are freed
+ * once the count drops to zero.
+ */
+@Entity
+@Table(name = "image_blobs",
+       indexes = @Index(name = "idx_image_blobs_released_at", columnList = "released_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+    @Id
+    @Column(name = "blob_key", length = 64)
+    private String blobKey;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    // When the count last dropped to zero; null while referenced
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
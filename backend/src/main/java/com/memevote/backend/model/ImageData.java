@@ -5,19 +5,22 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import lombok.ToString;
 import lombok.EqualsAndHashCode;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
+/**
+ * An uploaded image's metadata. Bytes of images stored before the blob store are mapped separately by
+ * {@link ImagePayload}, so loading an image never reads them.
+ */
 @Entity
-@Table(name = "image_data")
+@Table(name = "image_data", indexes = @Index(name = "idx_image_data_blob_key", columnList = "blob_key"))
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = {"data"})
 @EqualsAndHashCode(of = {"id", "name", "type"})
 public class ImageData {
     
@@ -29,10 +32,35 @@ public class ImageData {
     
     private String type;
     
-    @Lob
-    @Column(name = "data", columnDefinition = "LONGBLOB")
-    private byte[] data;
+    // Key of the bytes in the BlobStore
+    @Column(name = "blob_key", length = 64)
+    private String blobKey;
     
+    // SHA-256 of the bytes, hex encoded
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "file_size")
     private Long fileSize;
+
+    // Pixel dimensions, recorded when variants are generated; null for formats that are not resized
+    private Integer width;
+
+    private Integer height;
+
+    // Whether this row is counted in the ImageBlob's ref_count; null for rows not yet backfilled
+    @Column(name = "blob_counted")
+    private Boolean blobCounted;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variant_status", length = 16)
+    private VariantStatus variantStatus;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,30 @@
+package com.memevote.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * The inline bytes of an {@link ImageData} row stored before the blob store, mapped onto the same
+ * {@code image_data} row so they are only read when asked for. Null once
+ * {@link com.memevote.backend.service.ImageBlobMigrationService} has moved them.
+ */
+@Entity
+@Table(name = "image_data")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePayload {
+
+    // Shares the ImageData row; never inserted or deleted through this entity
+    @Id
+    private Long id;
+
+    @Lob
+    @Column(name = "data", columnDefinition = "LONGBLOB")
+    private byte[] data;
+}
@@ -0,0 +1,61 @@
+package com.memevote.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A width-bounded rendition of an {@link ImageData}, stored in the blob store like the original.
+ */
+@Entity
+@Table(name = "image_variants",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"image_id", "width"})
+       },
+       indexes = @Index(name = "idx_image_variants_blob_key", columnList = "blob_key"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariant {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "image_id", nullable = false)
+    private Long imageId;
+
+    @Column(nullable = false)
+    private Integer width;
+
+    @Column(nullable = false)
+    private Integer height;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "blob_key", nullable = false, length = 64)
+    private String blobKey;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    // Whether this row is counted in the ImageBlob's ref_count; null for rows not yet backfilled
+    @Column(name = "blob_counted")
+    private Boolean blobCounted;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
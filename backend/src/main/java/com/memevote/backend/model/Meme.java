@@ -15,7 +15,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "memes")
+@Table(name = "memes",
+       indexes = {
+           @Index(name = "idx_memes_vote_count_id", columnList = "vote_count, id"),
+           @Index(name = "idx_memes_created_at_id", columnList = "created_at, id")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -55,8 +59,9 @@ public class Meme {
     )
     private Set<Category> categories = new HashSet<>();
 
-    @org.hibernate.annotations.Formula("(SELECT COUNT(*) FROM votes v WHERE v.meme_id = id)")
-    private Long voteCount;
+    // Denormalized count of rows in votes; maintained atomically by VoteService
+    @Column(name = "vote_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long voteCount = 0L;
 
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,35 @@
+package com.memevote.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * One stripe of a hot meme's vote counter. Votes on a hot meme add to a random shard instead of
+ * {@code memes.vote_count}; the meme's count is the stored total plus the deltas of its shards until
+ * compaction folds them into the total. Not mapped to {@link Meme} so shard rows never block deletes.
+ */
+@Entity
+@Table(name = "meme_vote_shards",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"meme_id", "shard"})
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemeVoteShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "meme_id", nullable = false)
+    private Long memeId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Long delta = 0L;
+}
@@ -0,0 +1,14 @@
+package com.memevote.backend.model;
+
+/**
+ * Progress of an image's resized variants; null for images stored before variants existed, which
+ * are picked up like {@link #PENDING} ones.
+ */
+public enum VariantStatus {
+    PENDING,
+    // Variants generated, or none needed because the original is narrow enough
+    READY,
+    // Format or size not supported for resizing; always served as the original
+    SKIPPED,
+    FAILED
+}
@@ -11,6 +11,10 @@ import java.time.LocalDateTime;
 @Table(name = "votes", 
        uniqueConstraints = {
            @UniqueConstraint(columnNames = {"user_id", "meme_id"})
+       },
+       indexes = {
+           // Newest-first voter lists per meme (preview and keyset pages)
+           @Index(name = "idx_votes_meme_id_id", columnList = "meme_id, id")
        })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,45 @@
+package com.memevote.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Net votes a meme received within one time bucket. Votes land in minute buckets, which are later
+ * downsampled into hour and then day buckets, so every vote is counted in exactly one row.
+ * Not mapped to {@link Meme}; rows of a deleted meme are removed on its {@code MemeDeletedEvent}.
+ */
+@Entity
+@Table(name = "vote_rollups",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"meme_id", "resolution", "bucket_start"})
+       },
+       indexes = {
+           // Windowed sums over all memes, and downsampling of old buckets
+           @Index(name = "idx_vote_rollups_resolution_bucket", columnList = "resolution, bucket_start")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "meme_id", nullable = false)
+    private Long memeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Votes added minus votes removed within the bucket
+    @Column(nullable = false)
+    private Long votes;
+}
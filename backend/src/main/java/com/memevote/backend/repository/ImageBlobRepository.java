@@ -0,0 +1,48 @@
+package com.memevote.backend.repository;
+
+import com.memevote.backend.model.ImageBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+    /**
+     * Counts a reference to the blob, creating it if absent. One statement, so on InnoDB it only locks
+     * the blob's row: updating a missing row first would take a gap lock that blocks every other
+     * insert of the same key until the caller commits. Returns MySQL's affected-row count, 1 if the
+     * blob was created and 2 if it existed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (blob_key, file_size, ref_count, released_at, created_at) " +
+                   "VALUES (:blobKey, :fileSize, 1, NULL, :now) " +
+                   "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, released_at = NULL",
+           nativeQuery = true)
+    int retain(String blobKey, Long fileSize, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1 WHERE b.blobKey = :blobKey AND b.refCount > 0")
+    int release(String blobKey);
+
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.releasedAt = :now WHERE b.blobKey = :blobKey AND b.refCount = 0")
+    int markReleased(String blobKey, LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ImageBlob b WHERE b.blobKey = :blobKey")
+    Optional<ImageBlob> lockByBlobKey(String blobKey);
+
+    /**
+     * Blobs unreferenced since before {@code before}, longest first.
+     */
+    @Query("SELECT b.blobKey FROM ImageBlob b WHERE b.refCount = 0 AND b.releasedAt < :before ORDER BY b.releasedAt")
+    List<String> findReleasedBefore(LocalDateTime before, Pageable pageable);
+}
@@ -1,12 +1,71 @@
 package com.memevote.backend.repository;
 
 import com.memevote.backend.model.ImageData;
+import com.memevote.backend.model.VariantStatus;
+import com.memevote.backend.repository.projection.BlobReference;
+import com.memevote.backend.repository.projection.ImageMetadata;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ImageDataRepository extends JpaRepository<ImageData, Long> {
     Optional<ImageData> findByName(String name);
+
+    /**
+     * The image, locked until the end of the transaction so it can be deleted.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM ImageData i WHERE i.name = :name")
+    Optional<ImageData> lockByName(String name);
+
+    Optional<ImageMetadata> findMetadataByName(String name);
+
+    Optional<ImageMetadata> findMetadataById(Long id);
+
+    boolean existsByBlobKeyAndBlobCountedIsNull(String blobKey);
+
+    /**
+     * Rows in the blob store not yet counted in {@code image_blobs}, after {@code afterId} in ID order.
+     */
+    @Query("SELECT i.id AS id, i.blobKey AS blobKey, i.fileSize AS fileSize FROM ImageData i " +
+           "WHERE i.id > :afterId AND i.blobKey IS NOT NULL AND i.blobCounted IS NULL ORDER BY i.id")
+    List<BlobReference> findUncountedBlobReferences(Long afterId, Pageable pageable);
+
+    /**
+     * Marks the row counted; returns 0 if it already was (or is gone).
+     */
+    @Modifying
+    @Query("UPDATE ImageData i SET i.blobCounted = true WHERE i.id = :id AND i.blobCounted IS NULL")
+    int markBlobCounted(Long id);
+
+    /**
+     * IDs of images in the blob store whose variants have not been generated yet, oldest first.
+     */
+    @Query("SELECT i.id FROM ImageData i WHERE i.blobKey IS NOT NULL " +
+           "AND (i.variantStatus IS NULL OR i.variantStatus = com.memevote.backend.model.VariantStatus.PENDING) " +
+           "ORDER BY i.id")
+    List<Long> findIdsAwaitingVariants(Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageData i SET i.variantStatus = :status WHERE i.id = :id")
+    int updateVariantStatus(Long id, VariantStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageData i SET i.width = :width, i.height = :height WHERE i.id = :id")
+    int updateDimensions(Long id, int width, int height);
+
+    @Modifying
+    @Query("DELETE FROM ImageData i WHERE i.name = :name")
+    int deleteByName(String name);
 }
@@ -0,0 +1,20 @@
+package com.memevote.backend.repository;
+
+import com.memevote.backend.model.ImagePayload;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImagePayloadRepository extends JpaRepository<ImagePayload, Long> {
+    /**
+     * IDs of images whose bytes are still stored inline, after {@code afterId} in ID order: those not
+     * copied to the blob store yet, and with {@code includeCopied} also those already copied.
+     */
+    @Query("SELECT p.id FROM ImagePayload p, ImageData i WHERE i.id = p.id AND p.id > :afterId " +
+           "AND p.data IS NOT NULL AND (i.blobKey IS NULL OR :includeCopied = true) ORDER BY p.id")
+    List<Long> findIdsWithInlineData(Long afterId, boolean includeCopied, Pageable pageable);
+}
@@ -0,0 +1,47 @@
+package com.memevote.backend.repository;
+
+import com.memevote.backend.model.ImageVariant;
+import com.memevote.backend.repository.projection.BlobReference;
+import com.memevote.backend.repository.projection.ImageMetadata;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+    /**
+     * Variants of the image at least {@code width} pixels wide, narrowest first; the pageable limits
+     * the result to the nearest one.
+     */
+    @Query("SELECT v.id AS id, i.name AS name, v.type AS type, v.fileSize AS fileSize, " +
+           "v.width AS width, v.height AS height, v.contentHash AS contentHash, v.blobKey AS blobKey, " +
+           "v.createdAt AS createdAt, i.variantStatus AS variantStatus " +
+           "FROM ImageVariant v, ImageData i WHERE v.imageId = i.id AND i.id = :imageId AND v.width >= :width " +
+           "ORDER BY v.width")
+    List<ImageMetadata> findAtLeast(Long imageId, int width, Pageable pageable);
+
+    List<ImageVariant> findByImageId(Long imageId);
+
+    boolean existsByBlobKeyAndBlobCountedIsNull(String blobKey);
+
+    /**
+     * Variants not yet counted in {@code image_blobs}, after {@code afterId} in ID order.
+     */
+    @Query("SELECT v.id AS id, v.blobKey AS blobKey, v.fileSize AS fileSize FROM ImageVariant v " +
+           "WHERE v.id > :afterId AND v.blobCounted IS NULL ORDER BY v.id")
+    List<BlobReference> findUncountedBlobReferences(Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ImageVariant v SET v.blobCounted = true WHERE v.id = :id AND v.blobCounted IS NULL")
+    int markBlobCounted(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageVariant v WHERE v.imageId = :imageId")
+    int deleteByImageId(Long imageId);
+}
@@ -1,34 +1,72 @@
 package com.memevote.backend.repository;
 
-import com.memevote.backend.model.Category;
 import com.memevote.backend.model.Meme;
-import com.memevote.backend.model.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.memevote.backend.repository.projection.MemeCategory;
+import com.memevote.backend.repository.projection.MemeRankingSeed;
+import com.memevote.backend.repository.projection.MemeTitle;
+import com.memevote.backend.repository.projection.MemeVoteCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 
 @Repository
-public interface MemeRepository extends JpaRepository<Meme, Long> {
-    Page<Meme> findByUser(User user, Pageable pageable);
-    
-    Page<Meme> findByCategoriesIn(Set<Category> categories, Pageable pageable);
-    
-    Page<Meme> findByTitleContainingIgnoreCase(String title, Pageable pageable);
-    
-    @Query("SELECT m FROM Meme m JOIN m.categories c WHERE c IN :categories AND m.user = :user")
-    Page<Meme> findByCategoriesInAndUser(Set<Category> categories, User user, Pageable pageable);
-    
-    @Query("SELECT m FROM Meme m JOIN m.categories c WHERE c IN :categories AND m.title LIKE %:title%")
-    Page<Meme> findByCategoriesInAndTitleContainingIgnoreCase(Set<Category> categories, String title, Pageable pageable);
-    
-    @Query("SELECT m FROM Meme m WHERE m.user = :user AND m.title LIKE %:title%")
-    Page<Meme> findByUserAndTitleContainingIgnoreCase(User user, String title, Pageable pageable);
-    
-    @Query("SELECT m FROM Meme m JOIN m.categories c WHERE c IN :categories AND m.user = :user AND m.title LIKE %:title%")
-    Page<Meme> findByCategoriesInAndUserAndTitleContainingIgnoreCase(Set<Category> categories, User user, String title, Pageable pageable);
+public interface MemeRepository extends JpaRepository<Meme, Long>, JpaSpecificationExecutor<Meme>, MemeRepositoryCustom {
+    @Transactional
+    @Modifying
+    @Query("UPDATE Meme m SET m.voteCount = m.voteCount + :delta WHERE m.id = :memeId")
+    int adjustVoteCount(Long memeId, long delta);
+
+    /**
+     * The meme's current vote count: the stored total plus the deltas of its counter shards.
+     */
+    @Query(value = "SELECT m.vote_count + COALESCE((SELECT SUM(s.delta) FROM meme_vote_shards s " +
+                   "WHERE s.meme_id = m.id), 0) FROM memes m WHERE m.id = :memeId",
+           nativeQuery = true)
+    Long findVoteCountById(Long memeId);
+
+    /**
+     * Current vote counts of the given memes, including their counter shard deltas like {@link #findVoteCountById}.
+     */
+    @Query(value = "SELECT m.id AS id, m.vote_count + COALESCE((SELECT SUM(s.delta) FROM meme_vote_shards s " +
+                   "WHERE s.meme_id = m.id), 0) AS voteCount FROM memes m WHERE m.id IN :memeIds",
+           nativeQuery = true)
+    List<MemeVoteCount> findVoteCountsByIds(Collection<Long> memeIds);
+
+    /**
+     * Locks the meme row until the end of the transaction; empty when the meme does not exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m.id FROM Meme m WHERE m.id = :memeId")
+    Optional<Long> lockById(Long memeId);
+
+    @Query("SELECT m.id AS id, m.createdAt AS createdAt, m.voteCount AS voteCount FROM Meme m")
+    List<MemeRankingSeed> findRankingSeeds();
+
+    @Query("SELECT m.id AS id, m.title AS title FROM Meme m")
+    List<MemeTitle> findAllTitles();
+
+    @Query("SELECT m.id AS memeId, c.id AS id, c.name AS name FROM Meme m JOIN m.categories c WHERE m.id IN :memeIds")
+    List<MemeCategory> findCategoriesByMemeIds(Collection<Long> memeIds);
+
+    @Query("SELECT MAX(m.id) FROM Meme m")
+    Long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE memes SET vote_count = (SELECT COUNT(*) FROM votes v WHERE v.meme_id = memes.id) " +
+                   "- COALESCE((SELECT SUM(s.delta) FROM meme_vote_shards s WHERE s.meme_id = memes.id), 0) " +
+                   "WHERE memes.id BETWEEN :fromId AND :toId " +
+                   "AND vote_count <> (SELECT COUNT(*) FROM votes v WHERE v.meme_id = memes.id) " +
+                   "- COALESCE((SELECT SUM(s.delta) FROM meme_vote_shards s WHERE s.meme_id = memes.id), 0)",
+           nativeQuery = true)
+    int reconcileVoteCounts(Long fromId, Long toId);
 }
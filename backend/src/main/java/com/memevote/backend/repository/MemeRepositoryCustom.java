@@ -0,0 +1,40 @@
+package com.memevote.backend.repository;
+
+import com.memevote.backend.model.Meme;
+import com.memevote.backend.repository.feed.FeedOrder;
+import com.memevote.backend.repository.projection.MemeRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MemeRepositoryCustom {
+    /**
+     * Returns a page of meme rows matching the specification (all memes when it is null). The count
+     * query is skipped when the page alone determines the total.
+     */
+    Page<MemeRow> findRows(Specification<Meme> specification, Pageable pageable);
+
+    /**
+     * Returns the rows of the given memes in no particular order, skipping ids that do not exist.
+     */
+    List<MemeRow> findRowsByIds(Collection<Long> ids);
+
+    /**
+     * Returns at most {@code limit} meme rows matching the specification, ordered by the feed
+     * ordering with the id as tie-breaker. No count query is issued.
+     */
+    List<MemeRow> findFeedSlice(Specification<Meme> specification, FeedOrder order, int limit);
+
+    /**
+     * Returns the subset of {@code candidateIds} whose memes match the specification.
+     */
+    List<Long> findMatchingIds(Specification<Meme> specification, Collection<Long> candidateIds);
+
+    /**
+     * Returns the ids of at most {@code limit} memes matching the specification, in no particular order.
+     */
+    List<Long> findMatchingIds(Specification<Meme> specification, int limit);
+}
@@ -0,0 +1,150 @@
+package com.memevote.backend.repository;
+
+import com.memevote.backend.model.Meme;
+import com.memevote.backend.model.User;
+import com.memevote.backend.repository.feed.FeedOrder;
+import com.memevote.backend.repository.projection.MemeRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class MemeRepositoryImpl implements MemeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<MemeRow> findRows(Specification<Meme> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MemeRow> query = cb.createQuery(MemeRow.class);
+        Root<Meme> root = query.from(Meme.class);
+        selectRow(query, root, cb);
+        applySpecification(specification, query, root, cb);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<MemeRow> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    public List<MemeRow> findRowsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MemeRow> query = cb.createQuery(MemeRow.class);
+        Root<Meme> root = query.from(Meme.class);
+        selectRow(query, root, cb);
+        query.where(root.get("id").in(ids));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<MemeRow> findFeedSlice(Specification<Meme> specification, FeedOrder order, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MemeRow> query = cb.createQuery(MemeRow.class);
+        Root<Meme> root = query.from(Meme.class);
+        selectRow(query, root, cb);
+        applySpecification(specification, query, root, cb);
+        query.orderBy(cb.desc(root.get(order.getProperty())), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> findMatchingIds(Specification<Meme> specification, Collection<Long> candidateIds) {
+        if (candidateIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Meme> root = query.from(Meme.class);
+
+        Predicate predicate = root.get("id").in(candidateIds);
+        if (specification != null) {
+            Predicate filter = specification.toPredicate(root, query, cb);
+            if (filter != null) {
+                predicate = cb.and(predicate, filter);
+            }
+        }
+        query.select(root.get("id")).where(predicate);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Long> findMatchingIds(Specification<Meme> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Meme> root = query.from(Meme.class);
+        applySpecification(specification, query, root, cb);
+        query.select(root.get("id"));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private long count(Specification<Meme> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Meme> root = query.from(Meme.class);
+        applySpecification(specification, query, root, cb);
+        query.select(cb.count(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Selects the list item columns into {@link MemeRow}; the owner is outer-joined because
+     * memes may have none.
+     */
+    private static void selectRow(CriteriaQuery<MemeRow> query, Root<Meme> root, CriteriaBuilder cb) {
+        Join<Meme, User> user = root.join("user", JoinType.LEFT);
+        query.select(cb.construct(MemeRow.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("url"),
+                root.get("createdAt"),
+                root.get("voteCount"),
+                user.get("id"),
+                user.get("username"),
+                user.get("email"),
+                user.get("profilePicture")));
+    }
+
+    private static void applySpecification(Specification<Meme> specification, CriteriaQuery<?> query,
+                                           Root<Meme> root, CriteriaBuilder cb) {
+        if (specification == null) {
+            return;
+        }
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
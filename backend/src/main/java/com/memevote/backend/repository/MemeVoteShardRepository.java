@@ -0,0 +1,50 @@
+package com.memevote.backend.repository;
+
+import com.memevote.backend.model.MemeVoteShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MemeVoteShardRepository extends JpaRepository<MemeVoteShard, Long> {
+    /**
+     * Creates the shard with a zero delta unless it exists; returns the number of rows inserted.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO meme_vote_shards (meme_id, shard, delta) SELECT :memeId, :shard, 0 FROM DUAL " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM meme_vote_shards WHERE meme_id = :memeId AND shard = :shard)",
+           nativeQuery = true)
+    int insertIfAbsent(Long memeId, int shard);
+
+    @Modifying
+    @Query("UPDATE MemeVoteShard s SET s.delta = s.delta + :delta WHERE s.memeId = :memeId AND s.shard = :shard")
+    int addToShard(Long memeId, int shard, long delta);
+
+    @Query("SELECT s.memeId FROM MemeVoteShard s WHERE s.delta <> 0 ORDER BY s.memeId")
+    List<Long> findUncompactedMemeIds();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MemeVoteShard s WHERE s.memeId = :memeId ORDER BY s.shard")
+    List<MemeVoteShard> lockByMemeId(Long memeId);
+
+    /**
+     * Subtracts the compacted amount, keeping any delta added since it was read.
+     */
+    @Modifying
+    @Query("UPDATE MemeVoteShard s SET s.delta = s.delta - :compacted WHERE s.id = :id")
+    int subtractCompacted(Long id, long compacted);
+
+    @Modifying
+    @Query("DELETE FROM MemeVoteShard s WHERE s.memeId IN :memeIds AND s.delta = 0")
+    int deleteEmptyShards(Collection<Long> memeIds);
+
+    @Modifying
+    @Query("DELETE FROM MemeVoteShard s WHERE s.memeId = :memeId")
+    int deleteByMemeId(Long memeId);
+}
@@ -3,10 +3,15 @@ package com.memevote.backend.repository;
 import com.memevote.backend.model.Meme;
 import com.memevote.backend.model.User;
 import com.memevote.backend.model.Vote;
+import com.memevote.backend.repository.projection.MemeVoter;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +24,42 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
 
     Boolean existsByUserAndMeme(User user, Meme meme);
 
-    @Query("SELECT v.user FROM Vote v WHERE v.meme.id = :memeId")
-    List<User> findVotersByMemeId(Long memeId);
+    /**
+     * Inserts the vote unless it already exists or the meme is gone; returns the number of rows inserted.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO votes (user_id, meme_id, created_at) SELECT :userId, :memeId, :createdAt FROM DUAL " +
+                   "WHERE EXISTS (SELECT 1 FROM memes WHERE id = :memeId) " +
+                   "AND NOT EXISTS (SELECT 1 FROM votes WHERE user_id = :userId AND meme_id = :memeId)",
+           nativeQuery = true)
+    int insertIfAbsent(Long userId, Long memeId, LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM Vote v WHERE v.user.id = :userId AND v.meme.id = :memeId")
+    int deleteByUserIdAndMemeId(Long userId, Long memeId);
+
+    @Query("SELECT v.meme.id FROM Vote v WHERE v.user.id = :userId")
+    List<Long> findMemeIdsByUserId(Long userId);
+
+    /**
+     * The {@code limit} most recent voters of each meme, ranked per meme in a single query.
+     */
+    @Query(value = "SELECT r.vote_id AS voteId, r.meme_id AS memeId, u.id AS id, u.username AS username, " +
+                   "u.profile_picture AS profilePicture " +
+                   "FROM (SELECT v.id AS vote_id, v.meme_id, v.user_id, " +
+                   "ROW_NUMBER() OVER (PARTITION BY v.meme_id ORDER BY v.id DESC) AS rn " +
+                   "FROM votes v WHERE v.meme_id IN (:memeIds)) r " +
+                   "JOIN users u ON u.id = r.user_id " +
+                   "WHERE r.rn <= :limit ORDER BY r.meme_id, r.rn",
+           nativeQuery = true)
+    List<MemeVoter> findRecentVoters(Collection<Long> memeIds, int limit);
+
+    /**
+     * Voters of a meme with a vote id below {@code beforeVoteId}, newest first; the page size
+     * comes from the pageable.
+     */
+    @Query("SELECT v.id AS voteId, v.meme.id AS memeId, u.id AS id, u.username AS username, " +
+           "u.profilePicture AS profilePicture " +
+           "FROM Vote v JOIN v.user u WHERE v.meme.id = :memeId AND v.id < :beforeVoteId ORDER BY v.id DESC")
+    List<MemeVoter> findVotersBefore(Long memeId, Long beforeVoteId, Pageable pageable);
 }
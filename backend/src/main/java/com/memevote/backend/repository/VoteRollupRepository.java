@@ -0,0 +1,59 @@
+package com.memevote.backend.repository;
+
+import com.memevote.backend.model.RollupResolution;
+import com.memevote.backend.model.VoteRollup;
+import com.memevote.backend.repository.projection.MemeVoteTotal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VoteRollupRepository extends JpaRepository<VoteRollup, Long> {
+    /**
+     * Net votes of the meme in {@code [from, to)}. Buckets are matched by their start, so the window
+     * is exact to the resolution of the buckets it covers: minutes for recent windows.
+     */
+    @Query("SELECT COALESCE(SUM(r.votes), 0) FROM VoteRollup r " +
+           "WHERE r.memeId = :memeId AND r.bucketStart >= :from AND r.bucketStart < :to")
+    Long sumVotes(Long memeId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Net votes per meme in {@code [from, to)}, most voted first; the pageable limits the result.
+     */
+    @Query("SELECT r.memeId AS memeId, SUM(r.votes) AS votes FROM VoteRollup r " +
+           "WHERE r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.memeId ORDER BY SUM(r.votes) DESC, r.memeId DESC")
+    List<MemeVoteTotal> findTopMemes(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    /**
+     * The meme's buckets of one resolution in {@code [from, to)}, oldest first, for charts.
+     */
+    @Query("SELECT r FROM VoteRollup r WHERE r.memeId = :memeId AND r.resolution = :resolution " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<VoteRollup> findSeries(Long memeId, RollupResolution resolution, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Buckets of a resolution that start before {@code before}, oldest first and locked for the
+     * caller's transaction; the pageable bounds a downsampling batch.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM VoteRollup r WHERE r.resolution = :resolution AND r.bucketStart < :before " +
+           "ORDER BY r.bucketStart, r.id")
+    List<VoteRollup> findOlderThan(RollupResolution resolution, LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM VoteRollup r WHERE r.id IN :ids")
+    int deleteByIds(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM VoteRollup r WHERE r.memeId = :memeId")
+    int deleteByMemeId(Long memeId);
+}
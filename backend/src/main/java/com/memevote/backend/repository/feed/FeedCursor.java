@@ -0,0 +1,79 @@
+package com.memevote.backend.repository.feed;
+
+import com.memevote.backend.repository.projection.MemeRow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last meme of a feed slice, encoded for clients as an opaque string.
+ * The cursor carries the ordering it was produced for together with the sort key
+ * ({@code created_at} or {@code vote_count}) and the meme id.
+ */
+public final class FeedCursor {
+    private static final String SEPARATOR = "|";
+
+    private final FeedOrder order;
+    private final LocalDateTime createdAt;
+    private final Long voteCount;
+    private final Long id;
+
+    private FeedCursor(FeedOrder order, LocalDateTime createdAt, Long voteCount, Long id) {
+        this.order = order;
+        this.createdAt = createdAt;
+        this.voteCount = voteCount;
+        this.id = id;
+    }
+
+    public static FeedCursor of(FeedOrder order, MemeRow row) {
+        return new FeedCursor(order, row.getCreatedAt(), row.getVoteCount(), row.getId());
+    }
+
+    public static FeedCursor of(FeedOrder order, LocalDateTime createdAt, Long voteCount, Long id) {
+        return new FeedCursor(order, createdAt, voteCount, id);
+    }
+
+    public FeedOrder getOrder() {
+        return order;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getVoteCount() {
+        return voteCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String sortKey = order == FeedOrder.TOP ? String.valueOf(voteCount) : createdAt.toString();
+        String raw = order.getCode() + SEPARATOR + sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not a cursor produced by {@link #encode()}
+     */
+    public static FeedCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            FeedOrder order = FeedOrder.fromCode(parts[0]);
+            Long id = Long.valueOf(parts[2]);
+            if (order == FeedOrder.TOP) {
+                return new FeedCursor(order, null, Long.valueOf(parts[1]), id);
+            }
+            return new FeedCursor(order, LocalDateTime.parse(parts[1]), null, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+}
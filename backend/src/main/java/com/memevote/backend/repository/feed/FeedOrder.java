@@ -0,0 +1,61 @@
+package com.memevote.backend.repository.feed;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Orderings supported by keyset (cursor) pagination of the meme feed.
+ * Every ordering is descending and uses the meme id as a unique tie-breaker.
+ */
+public enum FeedOrder {
+    NEW("n", "createdAt"),
+    TOP("t", "voteCount");
+
+    private final String code;
+    private final String property;
+
+    FeedOrder(String code, String property) {
+        this.code = code;
+        this.property = property;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static FeedOrder fromCode(String code) {
+        for (FeedOrder order : values()) {
+            if (order.code.equals(code)) {
+                return order;
+            }
+        }
+        throw new IllegalArgumentException("Unknown feed order: " + code);
+    }
+
+    /**
+     * Picks the keyset ordering for a Spring Data sort: unsorted or {@code createdAt} descending
+     * selects {@link #NEW} and {@code voteCount} descending selects {@link #TOP}. Any other sort,
+     * ascending ones included, has no keyset ordering and is rejected.
+     *
+     * @throws IllegalArgumentException if the sort is not supported
+     */
+    public static FeedOrder fromSort(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return NEW;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() == 1 && orders.get(0).isDescending()) {
+            for (FeedOrder order : values()) {
+                if (order.property.equals(orders.get(0).getProperty())) {
+                    return order;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Cursor pagination supports createdAt,desc or voteCount,desc, not " + sort);
+    }
+}
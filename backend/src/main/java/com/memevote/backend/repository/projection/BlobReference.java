@@ -0,0 +1,12 @@
+package com.memevote.backend.repository.projection;
+
+/**
+ * A row referencing a blob, for counting references without loading the row.
+ */
+public interface BlobReference {
+    Long getId();
+
+    String getBlobKey();
+
+    Long getFileSize();
+}
@@ -0,0 +1,30 @@
+package com.memevote.backend.repository.projection;
+
+import com.memevote.backend.model.VariantStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * An image's metadata. Also describes a resized variant, with the original's name and variant status.
+ */
+public interface ImageMetadata {
+    Long getId();
+
+    String getName();
+
+    String getType();
+
+    Long getFileSize();
+
+    Integer getWidth();
+
+    Integer getHeight();
+
+    String getContentHash();
+
+    String getBlobKey();
+
+    LocalDateTime getCreatedAt();
+
+    VariantStatus getVariantStatus();
+}
@@ -0,0 +1,12 @@
+package com.memevote.backend.repository.projection;
+
+/**
+ * A category of a meme, selected for a whole page of memes at once.
+ */
+public interface MemeCategory {
+    Long getMemeId();
+
+    Long getId();
+
+    String getName();
+}
@@ -0,0 +1,14 @@
+package com.memevote.backend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns needed to rank a meme, selected without hydrating the entity.
+ */
+public interface MemeRankingSeed {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+
+    Long getVoteCount();
+}
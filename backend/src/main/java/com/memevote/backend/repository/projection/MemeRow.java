@@ -0,0 +1,24 @@
+package com.memevote.backend.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a meme list item and its owner, selected in one statement without hydrating
+ * {@code Meme} or {@code User} entities. Owner columns are null for memes without an owner.
+ */
+@Getter
+@AllArgsConstructor
+public class MemeRow {
+    private final Long id;
+    private final String title;
+    private final String url;
+    private final LocalDateTime createdAt;
+    private final Long voteCount;
+    private final Long userId;
+    private final String username;
+    private final String email;
+    private final String profilePicture;
+}
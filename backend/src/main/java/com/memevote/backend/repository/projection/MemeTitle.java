@@ -0,0 +1,10 @@
+package com.memevote.backend.repository.projection;
+
+/**
+ * Id and title of a meme, used to build the in-memory title index.
+ */
+public interface MemeTitle {
+    Long getId();
+
+    String getTitle();
+}
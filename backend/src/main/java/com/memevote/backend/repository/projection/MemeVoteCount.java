@@ -0,0 +1,10 @@
+package com.memevote.backend.repository.projection;
+
+/**
+ * A meme's vote count, selected without hydrating the entity.
+ */
+public interface MemeVoteCount {
+    Long getId();
+
+    Long getVoteCount();
+}
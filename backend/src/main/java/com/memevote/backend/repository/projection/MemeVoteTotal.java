@@ -0,0 +1,10 @@
+package com.memevote.backend.repository.projection;
+
+/**
+ * Net votes of a meme summed over a time window.
+ */
+public interface MemeVoteTotal {
+    Long getMemeId();
+
+    Long getVotes();
+}
@@ -0,0 +1,16 @@
+package com.memevote.backend.repository.projection;
+
+/**
+ * A voter of a meme, selected without hydrating the {@code User} entity.
+ */
+public interface MemeVoter {
+    Long getVoteId();
+
+    Long getMemeId();
+
+    Long getId();
+
+    String getUsername();
+
+    String getProfilePicture();
+}
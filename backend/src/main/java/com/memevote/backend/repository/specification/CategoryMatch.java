@@ -0,0 +1,9 @@
+package com.memevote.backend.repository.specification;
+
+/**
+ * How a multi-category filter is applied: memes in any of the categories, or in all of them.
+ */
+public enum CategoryMatch {
+    ANY,
+    ALL
+}
@@ -0,0 +1,105 @@
+package com.memevote.backend.repository.specification;
+
+import com.memevote.backend.model.Category;
+import com.memevote.backend.model.Meme;
+import com.memevote.backend.model.User;
+import com.memevote.backend.repository.feed.FeedCursor;
+import com.memevote.backend.repository.feed.FeedOrder;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reusable filter predicates for meme queries.
+ */
+public final class MemeSpecifications {
+
+    private MemeSpecifications() {
+    }
+
+    public static Specification<Meme> hasOwner(User user) {
+        // Compare the foreign key so no join to users is generated
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), user.getId());
+    }
+
+    /**
+     * Restricts results to the given meme ids; an empty collection matches nothing.
+     */
+    public static Specification<Meme> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    /**
+     * Restricts results to the given meme ids, split into IN lists of at most {@code chunkSize} ids
+     * joined by OR; an empty list matches nothing.
+     */
+    public static Specification<Meme> idIn(List<Long> ids, int chunkSize) {
+        if (ids.size() <= chunkSize) {
+            return idIn(ids);
+        }
+        return (root, query, cb) -> {
+            List<Predicate> chunks = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                chunks.add(root.get("id").in(ids.subList(from, Math.min(from + chunkSize, ids.size()))));
+            }
+            return cb.or(chunks.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Matches memes tagged with the given category names. Uses EXISTS subqueries rather than a
+     * join so a meme in several matching categories is returned (and counted) once.
+     */
+    public static Specification<Meme> inCategories(Set<String> categoryNames, CategoryMatch match) {
+        if (match == CategoryMatch.ALL) {
+            Specification<Meme> specification = null;
+            for (String categoryName : categoryNames) {
+                specification = Specification.where(specification)
+                        .and(inAnyCategory(Collections.singleton(categoryName)));
+            }
+            return specification;
+        }
+        return inAnyCategory(categoryNames);
+    }
+
+    /**
+     * Matches memes tagged with at least one of the given category names.
+     */
+    public static Specification<Meme> inAnyCategory(Collection<String> categoryNames) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Meme> tagged = subquery.from(Meme.class);
+            Join<Meme, Category> category = tagged.join("categories");
+            subquery.select(tagged.get("id"))
+                    .where(cb.equal(tagged.get("id"), root.get("id")),
+                           category.get("name").in(categoryNames));
+            return cb.exists(subquery);
+        };
+    }
+
+    /**
+     * Keyset predicate selecting the memes that come strictly after the cursor in its ordering.
+     */
+    public static Specification<Meme> after(FeedCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor.getOrder() == FeedOrder.TOP) {
+                return cb.or(
+                        cb.lessThan(root.get("voteCount"), cursor.getVoteCount()),
+                        cb.and(cb.equal(root.get("voteCount"), cursor.getVoteCount()),
+                               cb.lessThan(root.get("id"), cursor.getId())));
+            }
+            return cb.or(
+                    cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+                    cb.and(cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                           cb.lessThan(root.get("id"), cursor.getId())));
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.memevote.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.memevote.backend.dto.response.ErrorResponse;
+import com.memevote.backend.security.services.UserDetailsImpl;
+import com.memevote.backend.service.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Applies {@link RateLimiter} to vote, comment and upload requests, answering 429 with
+ * {@code Retry-After} when a bucket is empty. Runs after authentication so votes and comments are
+ * charged to the user, and before the multipart body is parsed so uploads are charged by their
+ * {@code Content-Length}; an upload without one is charged a full bucket.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String MEMES_PATH = "/api/memes";
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimiter.Endpoint endpoint = classify(request.getMethod(), request.getRequestURI());
+        if (endpoint == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long cost = 1;
+        if (endpoint == RateLimiter.Endpoint.UPLOAD) {
+            long contentLength = request.getContentLengthLong();
+            cost = contentLength >= 0 ? Math.max(1, contentLength) : Long.MAX_VALUE;
+        }
+        long retryAfterSeconds = rateLimiter.tryAcquire(endpoint, currentUserId(), request.getRemoteAddr(), cost);
+        if (retryAfterSeconds == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        logger.debug("Rate limited {} {} from {}", request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests, retry in " + retryAfterSeconds + " s", "uri=" + request.getRequestURI()));
+    }
+
+    /**
+     * Endpoint class of a write request, or null for requests that are not limited. Spring MVC also
+     * routes a path with a trailing slash to the same handler, so trailing slashes are ignored.
+     */
+    static RateLimiter.Endpoint classify(String method, String requestUri) {
+        String uri = requestUri;
+        while (uri.length() > 1 && uri.endsWith("/")) {
+            uri = uri.substring(0, uri.length() - 1);
+        }
+        if (!uri.startsWith(MEMES_PATH) || "GET".equals(method) || "OPTIONS".equals(method) || "HEAD".equals(method)) {
+            return null;
+        }
+        if ("POST".equals(method) && (uri.length() == MEMES_PATH.length() || uri.equals(MEMES_PATH + "/batch"))) {
+            return RateLimiter.Endpoint.UPLOAD;
+        }
+        if (uri.endsWith("/votes")) {
+            return RateLimiter.Endpoint.VOTE;
+        }
+        if ("POST".equals(method) && uri.endsWith("/comments")) {
+            return RateLimiter.Endpoint.COMMENT;
+        }
+        return null;
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+}
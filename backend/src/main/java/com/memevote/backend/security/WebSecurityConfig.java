@@ -1,8 +1,10 @@
 package com.memevote.backend.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.memevote.backend.security.jwt.AuthEntryPointJwt;
 import com.memevote.backend.security.jwt.AuthTokenFilter;
 import com.memevote.backend.security.services.UserDetailsServiceImpl;
+import com.memevote.backend.service.RateLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -34,6 +36,12 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
 
@@ -81,6 +89,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
             .antMatchers(HttpMethod.GET, "/api/memes").permitAll()
             .antMatchers(HttpMethod.GET, "/api/memes/{id}").permitAll()
             .antMatchers(HttpMethod.GET, "/api/memes/{id}/comments").permitAll()
+            .antMatchers(HttpMethod.GET, "/api/memes/{id}/votes").permitAll()
+            .antMatchers(HttpMethod.GET, "/api/memes/{id}/votes/history").permitAll()
+            .antMatchers(HttpMethod.POST, "/api/votes/state").permitAll()
             .antMatchers("/uploads/**").permitAll() // Allow access to images from database
             .antMatchers("/ws/**").permitAll()
             .antMatchers("/h2-console/**").permitAll()
@@ -99,5 +110,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
         http.headers().frameOptions().sameOrigin();
 
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Not a bean, so the servlet container does not register it a second time outside the chain
+        http.addFilterAfter(new RateLimitFilter(rateLimiter, objectMapper), UsernamePasswordAuthenticationFilter.class);
     }
 }
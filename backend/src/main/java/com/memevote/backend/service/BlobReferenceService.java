@@ -0,0 +1,211 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.ImageBlob;
+import com.memevote.backend.repository.ImageBlobRepository;
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.ImageCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference counts of blob store bytes. Every {@code image_data} and {@code image_variants} row holds
+ * one reference to its blob, taken and dropped in the row's own transaction; identical images share a
+ * blob, keyed by SHA-256, instead of storing the bytes again. Bytes are freed once their last reference
+ * is dropped, under a lock on the {@code image_blobs} row so a concurrent upload of the same bytes
+ * either keeps them or stores them again. References are counted with a single upsert in the caller's
+ * transaction, which on InnoDB locks only the blob's own row. Rows stored before counting began keep their blob until
+ * {@link ImageBlobBackfillService} has counted them.
+ */
+@Service
+public class BlobReferenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobReferenceService.class);
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageDataRepository imageDataRepository;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.images.blobs.collect-interval-ms:300000}")
+    private long collectIntervalMs = 300000;
+
+    @Value("${memevote.images.blobs.collect-batch-size:100}")
+    private int collectBatchSize = 100;
+
+    private Counter sharedReferences;
+    private Counter freedBlobs;
+
+    @PostConstruct
+    void registerMetrics() {
+        sharedReferences = Counter.builder("memevote.images.blobs.shared")
+                .description("References taken to bytes that were already stored").register(meterRegistry);
+        freedBlobs = Counter.builder("memevote.images.blobs.freed")
+                .description("Blobs deleted after their last reference was dropped").register(meterRegistry);
+    }
+
+    /**
+     * Counts a new reference to the blob, within the caller's transaction. {@code source} holds the
+     * bytes, to store them again should a concurrent delete have freed them; null if the bytes are
+     * known to be referenced already.
+     */
+    public void retain(String blobKey, Long fileSize, InputStreamSource source) {
+        if (imageBlobRepository.retain(blobKey, fileSize, LocalDateTime.now()) > 1) {
+            sharedReferences.increment();
+        }
+        if (source != null) {
+            afterCommit(() -> restoreIfFreed(blobKey, source));
+            // The bytes were stored before the reference; free them if it is rolled back
+            afterRollback(() -> collect(blobKey));
+        }
+    }
+
+    /**
+     * Drops a reference, within the caller's transaction, and frees the bytes after commit if it was
+     * the last. {@code counted} is false for rows the backfill has not counted yet.
+     */
+    public void release(String blobKey, boolean counted) {
+        if (counted && imageBlobRepository.release(blobKey) > 0) {
+            imageBlobRepository.markReleased(blobKey, LocalDateTime.now());
+        }
+        afterCommit(() -> collect(blobKey));
+    }
+
+    /**
+     * Deletes the blob's bytes if nothing references them; returns whether they were deleted.
+     */
+    public boolean collect(String blobKey) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            Boolean deleted = transactionTemplate.execute(status -> {
+                Optional<ImageBlob> blob = imageBlobRepository.lockByBlobKey(blobKey);
+                if (blob.isPresent() && blob.get().getRefCount() > 0) {
+                    return false;
+                }
+                if (imageDataRepository.existsByBlobKeyAndBlobCountedIsNull(blobKey)
+                        || imageVariantRepository.existsByBlobKeyAndBlobCountedIsNull(blobKey)) {
+                    // Referenced by rows the backfill has not counted yet
+                    return false;
+                }
+                blob.ifPresent(imageBlobRepository::delete);
+                try {
+                    blobStore.delete(blobKey);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(deleted)) {
+                imageCache.invalidate(blobKey);
+                freedBlobs.increment();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to free image blob {}, will retry", blobKey, e);
+        }
+        return false;
+    }
+
+    /**
+     * Frees blobs left unreferenced, e.g. when the process stopped before freeing them or an upload
+     * failed after storing its bytes. Returns the number freed.
+     */
+    @Scheduled(initialDelayString = "${memevote.images.blobs.collect-interval-ms:300000}",
+               fixedDelayString = "${memevote.images.blobs.collect-interval-ms:300000}")
+    public int collectReleased() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(collectIntervalMs * 1_000_000);
+        List<String> blobKeys = imageBlobRepository.findReleasedBefore(before, PageRequest.of(0, collectBatchSize));
+        int freed = 0;
+        for (String blobKey : blobKeys) {
+            if (collect(blobKey)) {
+                freed++;
+            }
+        }
+        if (freed > 0) {
+            logger.info("Freed {} unreferenced image blobs", freed);
+        }
+        return freed;
+    }
+
+    /**
+     * The blob store skips writing bytes it already holds, so an upload can race with the collection
+     * of identical bytes; once the reference is committed the bytes are safe, and stored again if gone.
+     */
+    private void restoreIfFreed(String blobKey, InputStreamSource source) {
+        if (blobStore.get(blobKey).isPresent()) {
+            return;
+        }
+        logger.warn("Image blob {} was freed while being referenced, storing it again", blobKey);
+        try (InputStream content = source.getInputStream()) {
+            blobStore.put(content);
+        } catch (IOException e) {
+            logger.error("Failed to restore image blob {}", blobKey, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,361 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.dto.response.MemeResponse;
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.event.MemeUpdatedEvent;
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.event.VotesFlushedEvent;
+import com.memevote.backend.repository.specification.CategoryMatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Cache of assembled {@code GET /api/memes} pages for the first few page numbers. Cached pages
+ * hold only the parts shared by every caller ({@code userVoted} is false); callers overlay the
+ * current user's votes after the lookup.
+ * Meme creation, update and deletion clear the cache. A vote patches the vote count of cached
+ * pages whose order does not depend on votes and drops the ones whose order does. Voter previews
+ * are not patched, so entries also expire after {@code memevote.feed.cache.ttl-ms}.
+ * A page assembled while a vote arrives is stored with the vote patched in, unless its order
+ * depends on votes.
+ */
+@Service
+public class FeedPageCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.feed.cache.max-pages:3}")
+    private int maxPages = 3;
+
+    @Value("${memevote.feed.cache.max-entries:256}")
+    private int maxEntries = 256;
+
+    @Value("${memevote.feed.cache.ttl-ms:30000}")
+    private long ttlMillis = 30000;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Upper bound on votes remembered for pages still loading; past it those pages are not stored
+    private static final int MAX_VOTES_DURING_LOADS = 4096;
+
+    // Bumped by meme events and flushes so a page assembled before the event is not stored after it
+    private long generation;
+
+    // Numbers votes; a page ordered by votes is stored only if no vote arrived while it was assembled
+    private long voteSequence;
+
+    // Latest count per meme from votes that arrived while pages were loading, patched into those
+    // pages before they are stored; holds the votes numbered from votesDuringLoadsFrom onwards
+    private final Map<Long, VotePatch> votesDuringLoads = new HashMap<>();
+    private long votesDuringLoadsFrom = 1;
+    private int loadsInFlight;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter invalidations;
+    private Counter patches;
+    private DistributionSummary hitAge;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("memevote.feed.cache.requests").tag("result", "hit")
+                .description("Feed page cache lookups").register(meterRegistry);
+        misses = Counter.builder("memevote.feed.cache.requests").tag("result", "miss")
+                .description("Feed page cache lookups").register(meterRegistry);
+        invalidations = Counter.builder("memevote.feed.cache.invalidations")
+                .description("Cached feed pages dropped by meme and vote events").register(meterRegistry);
+        patches = Counter.builder("memevote.feed.cache.patches")
+                .description("Cached feed pages updated in place from vote events").register(meterRegistry);
+        hitAge = DistributionSummary.builder("memevote.feed.cache.age").baseUnit("milliseconds")
+                .description("Age of cached feed pages when served").register(meterRegistry);
+        Gauge.builder("memevote.feed.cache.entries", this, FeedPageCache::size)
+                .description("Feed pages currently cached").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cache key for a page request, or null when the page is not cached.
+     */
+    public Key key(Set<String> categoryNames, CategoryMatch categoryMatch, String username, String title,
+                   Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getPageNumber() >= maxPages) {
+            return null;
+        }
+        Set<String> categories = null;
+        if (categoryNames != null && !categoryNames.isEmpty()) {
+            categories = new TreeSet<>(categoryNames);
+        }
+        return new Key(
+                categories,
+                categories != null && categories.size() > 1 ? categoryMatch : null,
+                username != null && !username.isEmpty() ? username : null,
+                title != null && !title.isEmpty() ? title.toLowerCase(Locale.ROOT) : null,
+                pageable.getSort().toString(),
+                pageable.getSort().getOrderFor("voteCount") != null
+                        || pageable.getSort().getOrderFor(MemeService.HOT_SORT) != null,
+                pageable.getPageNumber(),
+                pageable.getPageSize());
+    }
+
+    /**
+     * Returns the cached page for the key, assembling and storing it with {@code loader} on a miss.
+     * The returned page is shared and must not be modified.
+     */
+    public Page<MemeResponse> getOrLoad(Key key, Supplier<Page<MemeResponse>> loader) {
+        long loadGeneration;
+        long loadVoteSequence;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                long age = System.currentTimeMillis() - entry.cachedAt;
+                if (age < ttlMillis) {
+                    hits.increment();
+                    hitAge.record(age);
+                    return entry.page;
+                }
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+            loadVoteSequence = voteSequence;
+            loadsInFlight++;
+        }
+
+        misses.increment();
+        Page<MemeResponse> page;
+        try {
+            page = loader.get();
+        } finally {
+            synchronized (this) {
+                loadsInFlight--;
+            }
+        }
+
+        synchronized (this) {
+            if (loadGeneration == generation && isStorable(key, loadVoteSequence)) {
+                entries.put(key, new Entry(withVotesSince(page, loadVoteSequence), System.currentTimeMillis()));
+            }
+            if (loadsInFlight == 0) {
+                votesDuringLoads.clear();
+                votesDuringLoadsFrom = voteSequence + 1;
+            }
+        }
+        return page;
+    }
+
+    private boolean isStorable(Key key, long loadVoteSequence) {
+        if (voteSequence == loadVoteSequence) {
+            return true;
+        }
+        // Votes after the load started must all still be remembered to be patched in
+        return !key.isOrderedByVotes() && votesDuringLoadsFrom <= loadVoteSequence + 1;
+    }
+
+    /**
+     * The page with vote counts from votes numbered after {@code sequence} patched in.
+     */
+    private Page<MemeResponse> withVotesSince(Page<MemeResponse> page, long sequence) {
+        for (Map.Entry<Long, VotePatch> vote : votesDuringLoads.entrySet()) {
+            if (vote.getValue().sequence > sequence) {
+                Page<MemeResponse> patched = withVoteCount(page, vote.getKey(), vote.getValue().voteCount);
+                if (patched != null) {
+                    page = patched;
+                }
+            }
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeCreated(MemeCreatedEvent event) {
+        clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeUpdated(MemeUpdatedEvent event) {
+        clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeDeleted(MemeDeletedEvent event) {
+        clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVoteChanged(VoteChangedEvent event) {
+        if (event.getVoteCount() == null) {
+            generation++;
+        } else {
+            voteSequence++;
+            if (loadsInFlight > 0) {
+                if (votesDuringLoads.size() >= MAX_VOTES_DURING_LOADS
+                        && !votesDuringLoads.containsKey(event.getMemeId())) {
+                    votesDuringLoads.clear();
+                    votesDuringLoadsFrom = voteSequence;
+                }
+                votesDuringLoads.put(event.getMemeId(), new VotePatch(voteSequence, event.getVoteCount()));
+            } else {
+                votesDuringLoadsFrom = voteSequence + 1;
+            }
+        }
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> cached = iterator.next();
+            if (cached.getKey().isOrderedByVotes() || event.getVoteCount() == null) {
+                iterator.remove();
+                invalidations.increment();
+                continue;
+            }
+            Page<MemeResponse> patched = withVoteCount(cached.getValue().page, event.getMemeId(), event.getVoteCount());
+            if (patched != null) {
+                cached.setValue(new Entry(patched, cached.getValue().cachedAt));
+                patches.increment();
+            }
+        }
+    }
+
+    /**
+     * Cached pages stay valid, their counts already include the flushed votes, but a page assembled
+     * while the flush committed may count them twice or not at all.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVotesFlushed(VotesFlushedEvent event) {
+        generation++;
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations.increment(entries.size());
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Copy of the page with the meme's vote count replaced, or null when the meme is not on it.
+     */
+    private static Page<MemeResponse> withVoteCount(Page<MemeResponse> page, Long memeId, Long voteCount) {
+        List<MemeResponse> content = page.getContent();
+        for (int i = 0; i < content.size(); i++) {
+            MemeResponse response = content.get(i);
+            if (Objects.equals(response.getId(), memeId)) {
+                MemeResponse copy = copyOf(response);
+                copy.setVoteCount(voteCount);
+                List<MemeResponse> patched = new ArrayList<>(content);
+                patched.set(i, copy);
+                return new PageImpl<>(patched, page.getPageable(), page.getTotalElements());
+            }
+        }
+        return null;
+    }
+
+    static MemeResponse copyOf(MemeResponse response) {
+        return new MemeResponse(response.getId(), response.getTitle(), response.getUrl(), response.getCreatedAt(),
+                response.getUser(), response.getCategories(), response.getVoteCount(), response.getUserVoted(),
+                response.getVoters());
+    }
+
+    private static final class VotePatch {
+        private final long sequence;
+        private final Long voteCount;
+
+        private VotePatch(long sequence, Long voteCount) {
+            this.sequence = sequence;
+            this.voteCount = voteCount;
+        }
+    }
+
+    private static final class Entry {
+        private final Page<MemeResponse> page;
+        private final long cachedAt;
+
+        private Entry(Page<MemeResponse> page, long cachedAt) {
+            this.page = page;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    /**
+     * Normalized page request: category names sorted, empty filters dropped, title lowercased and the
+     * category match ignored unless several categories are given.
+     */
+    public static final class Key {
+        private final Set<String> categories;
+        private final CategoryMatch categoryMatch;
+        private final String username;
+        private final String title;
+        private final String sort;
+        // Derived from sort, so not part of equality
+        private final boolean orderedByVotes;
+        private final int page;
+        private final int size;
+
+        private Key(Set<String> categories, CategoryMatch categoryMatch, String username, String title,
+                    String sort, boolean orderedByVotes, int page, int size) {
+            this.categories = categories;
+            this.categoryMatch = categoryMatch;
+            this.username = username;
+            this.title = title;
+            this.sort = sort;
+            this.orderedByVotes = orderedByVotes;
+            this.page = page;
+            this.size = size;
+        }
+
+        boolean isOrderedByVotes() {
+            return orderedByVotes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return page == other.page
+                    && size == other.size
+                    && Objects.equals(categories, other.categories)
+                    && categoryMatch == other.categoryMatch
+                    && Objects.equals(username, other.username)
+                    && Objects.equals(title, other.title)
+                    && sort.equals(other.sort);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(categories, categoryMatch, username, title, sort, page, size);
+        }
+    }
+}
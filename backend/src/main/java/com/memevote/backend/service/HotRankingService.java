@@ -0,0 +1,297 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.repository.MemeRepository;
+import com.memevote.backend.repository.projection.MemeRankingSeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory "hot" ranking of memes (Reddit style): {@code log10(votes) + age / decay}.
+ * Because the time term grows with creation time instead of shrinking with age, a meme's score
+ * only changes when it is voted on, so the ordering is maintained incrementally from vote and
+ * meme events and pages are read straight from a sorted structure.
+ * The ranking is rebuilt from the database at startup and periodically to pick up changes made
+ * by other instances; changes seen while the rebuild reads the database are replayed onto it.
+ */
+@Service
+public class HotRankingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotRankingService.class);
+
+    // 2024-01-01T00:00:00Z, keeps the time term small
+    private static final long EPOCH_SECONDS = 1704067200L;
+
+    private static final Comparator<Entry> HOTTEST_FIRST = Comparator
+            .comparingDouble((Entry entry) -> entry.score).reversed()
+            .thenComparing(Comparator.comparingLong((Entry entry) -> entry.memeId).reversed());
+
+    @Autowired
+    private MemeRepository memeRepository;
+
+    // Seconds of age that are worth a tenfold increase in votes
+    @Value("${memevote.hot.decay-seconds:45000}")
+    private double decaySeconds = 45000;
+
+    // Events update the ranking concurrently under the read lock; a rebuild takes the write lock to
+    // start recording changes and to publish the rebuilt ranking, so no change falls in between
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Ranking ranking = new Ranking();
+
+    // Changes seen while a rebuild reads the database, replayed onto the rebuilt ranking
+    private volatile Map<Long, PendingChange> pendingChanges;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${memevote.hot.rebuild-interval-ms:600000}",
+               fixedDelayString = "${memevote.hot.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ConcurrentHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Ranking rebuilt = new Ranking();
+        try {
+            for (MemeRankingSeed seed : memeRepository.findRankingSeeds()) {
+                rebuilt.put(seed.getId(), toEpochSeconds(seed.getCreatedAt()),
+                        seed.getVoteCount() != null ? seed.getVoteCount() : 0L);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The snapshot may already contain these changes; replaying them again is harmless
+            for (Map.Entry<Long, PendingChange> change : pendingChanges.entrySet()) {
+                change.getValue().replayOnto(rebuilt, change.getKey());
+            }
+            ranking = rebuilt;
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Rebuilt hot ranking with {} memes", rebuilt.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeCreated(MemeCreatedEvent event) {
+        long createdAtSeconds = toEpochSeconds(event.getCreatedAt());
+        lock.readLock().lock();
+        try {
+            ranking.put(event.getMemeId(), createdAtSeconds, 0L);
+            record(event.getMemeId(), change -> change.createdAtSeconds = createdAtSeconds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteChanged(VoteChangedEvent event) {
+        if (event.getVoteCount() == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            ranking.updateVotes(event.getMemeId(), event.getVoteCount());
+            record(event.getMemeId(), change -> change.votes = event.getVoteCount());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeDeleted(MemeDeletedEvent event) {
+        lock.readLock().lock();
+        try {
+            ranking.remove(event.getMemeId());
+            record(event.getMemeId(), change -> change.removed = true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void record(long memeId, Consumer<PendingChange> update) {
+        Map<Long, PendingChange> changes = pendingChanges;
+        if (changes != null) {
+            changes.compute(memeId, (id, change) -> {
+                PendingChange updated = change != null ? change : new PendingChange();
+                update.accept(updated);
+                return updated;
+            });
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} meme ids in hot order, skipping the first {@code offset}.
+     */
+    public List<Long> getHotMemeIds(long offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        Iterator<Long> iterator = ranking.iterator();
+        for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next());
+        }
+        return ids;
+    }
+
+    /**
+     * Iterates all ranked meme ids, hottest first.
+     */
+    public Iterator<Long> iterateHotMemeIds() {
+        return ranking.iterator();
+    }
+
+    /**
+     * The given meme ids in hot order, leaving out those not ranked (yet).
+     */
+    public List<Long> sortByHotness(Collection<Long> memeIds) {
+        return ranking.sort(memeIds);
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+
+    double score(long createdAtSeconds, long votes) {
+        return Math.log10(Math.max(votes, 1)) + (createdAtSeconds - EPOCH_SECONDS) / decaySeconds;
+    }
+
+    private static long toEpochSeconds(LocalDateTime createdAt) {
+        return createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : EPOCH_SECONDS;
+    }
+
+    /**
+     * What happened to a meme while a rebuild ran. A deletion wins, and the latest vote count
+     * replaces the snapshot's, which may be older.
+     */
+    private static final class PendingChange {
+        private Long createdAtSeconds;
+        private Long votes;
+        private boolean removed;
+
+        void replayOnto(Ranking target, long memeId) {
+            if (removed) {
+                target.remove(memeId);
+                return;
+            }
+            if (createdAtSeconds != null) {
+                target.putIfAbsent(memeId, createdAtSeconds, votes != null ? votes : 0L);
+            }
+            if (votes != null) {
+                target.updateVotes(memeId, votes);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long memeId;
+        private final long createdAtSeconds;
+        private final double score;
+
+        private Entry(long memeId, long createdAtSeconds, double score) {
+            this.memeId = memeId;
+            this.createdAtSeconds = createdAtSeconds;
+            this.score = score;
+        }
+    }
+
+    private final class Ranking {
+        private final ConcurrentHashMap<Long, Entry> byId = new ConcurrentHashMap<>();
+        private final ConcurrentNavigableMap<Entry, Long> ordered = new ConcurrentSkipListMap<>(HOTTEST_FIRST);
+
+        void put(long memeId, long createdAtSeconds, long votes) {
+            byId.compute(memeId, (id, previous) -> {
+                if (previous != null) {
+                    ordered.remove(previous);
+                }
+                Entry entry = new Entry(memeId, createdAtSeconds, score(createdAtSeconds, votes));
+                ordered.put(entry, memeId);
+                return entry;
+            });
+        }
+
+        void putIfAbsent(long memeId, long createdAtSeconds, long votes) {
+            byId.computeIfAbsent(memeId, id -> {
+                Entry entry = new Entry(memeId, createdAtSeconds, score(createdAtSeconds, votes));
+                ordered.put(entry, memeId);
+                return entry;
+            });
+        }
+
+        void updateVotes(long memeId, long votes) {
+            byId.computeIfPresent(memeId, (id, previous) -> {
+                ordered.remove(previous);
+                Entry entry = new Entry(memeId, previous.createdAtSeconds, score(previous.createdAtSeconds, votes));
+                ordered.put(entry, memeId);
+                return entry;
+            });
+        }
+
+        void remove(long memeId) {
+            Entry previous = byId.remove(memeId);
+            if (previous != null) {
+                ordered.remove(previous);
+            }
+        }
+
+        Iterator<Long> iterator() {
+            return ordered.values().iterator();
+        }
+
+        List<Long> sort(Collection<Long> memeIds) {
+            List<Entry> entries = new ArrayList<>(memeIds.size());
+            for (Long memeId : memeIds) {
+                Entry entry = byId.get(memeId);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(HOTTEST_FIRST);
+            List<Long> ids = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                ids.add(entry.memeId);
+            }
+            return ids;
+        }
+
+        int size() {
+            return byId.size();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.repository.projection.BlobReference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Counts the blob references of {@code image_data} and {@code image_variants} rows stored before
+ * {@link BlobReferenceService} counted them, one transaction per batch of
+ * {@code memevote.images.blob-backfill.batch-size} rows. Rows sharing bytes end up sharing one counted
+ * blob. Runs every {@code memevote.images.blob-backfill.interval-ms} until no uncounted rows remain;
+ * batches that fail are retried on the next run.
+ */
+@Service
+public class ImageBlobBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBlobBackfillService.class);
+
+    @Autowired
+    private ImageDataRepository imageDataRepository;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.images.blob-backfill.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${memevote.images.blob-backfill.batch-size:200}")
+    private int batchSize = 200;
+
+    private Counter backfilledReferences;
+
+    @PostConstruct
+    void registerMetrics() {
+        backfilledReferences = Counter.builder("memevote.images.blobs.backfilled")
+                .description("Existing rows counted as blob references").register(meterRegistry);
+    }
+
+    /**
+     * Counts all uncounted rows; returns the number counted.
+     */
+    @Scheduled(initialDelayString = "${memevote.images.blob-backfill.interval-ms:60000}",
+               fixedDelayString = "${memevote.images.blob-backfill.interval-ms:60000}")
+    public int backfill() {
+        if (!enabled) {
+            return 0;
+        }
+        int counted = backfill("image_data", imageDataRepository::findUncountedBlobReferences,
+                imageDataRepository::markBlobCounted)
+                + backfill("image_variants", imageVariantRepository::findUncountedBlobReferences,
+                imageVariantRepository::markBlobCounted);
+        if (counted > 0) {
+            logger.info("Counted {} existing image blob references", counted);
+        }
+        return counted;
+    }
+
+    private int backfill(String table, BiFunction<Long, PageRequest, List<BlobReference>> findUncounted,
+                         ToIntFunction<Long> markCounted) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int counted = 0;
+        long afterId = 0;
+        List<BlobReference> batch;
+        do {
+            batch = findUncounted.apply(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            List<BlobReference> references = batch;
+            try {
+                int batchCounted = transactionTemplate.execute(status -> {
+                    int marked = 0;
+                    for (BlobReference reference : references) {
+                        // Skips rows deleted or counted since the batch was read
+                        if (markCounted.applyAsInt(reference.getId()) > 0) {
+                            blobReferenceService.retain(reference.getBlobKey(), reference.getFileSize(), null);
+                            marked++;
+                        }
+                    }
+                    return marked;
+                });
+                counted += batchCounted;
+                backfilledReferences.increment(batchCounted);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to count {} blob references up to id {}, will retry", table, afterId, e);
+            }
+        } while (batch.size() == batchSize);
+        return counted;
+    }
+}
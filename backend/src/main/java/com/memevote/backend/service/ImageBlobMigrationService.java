@@ -0,0 +1,160 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.ImageData;
+import com.memevote.backend.model.ImagePayload;
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImagePayloadRepository;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.StoredBlob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copies image bytes stored inline in {@code image_data.data} into the {@link BlobStore}, one row per
+ * transaction. Off unless {@code memevote.images.migration.enabled}. The inline bytes are kept as the
+ * fallback copy until {@code memevote.images.migration.clear-inline} is set, which should only be done
+ * once the blob store is known to be durable; even then a row is cleared only after its blob reads
+ * back. Runs every {@code memevote.images.migration.interval-ms}; rows that fail are retried on the
+ * next run.
+ */
+@Service
+public class ImageBlobMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBlobMigrationService.class);
+
+    @Autowired
+    private ImageDataRepository imageDataRepository;
+
+    @Autowired
+    private ImagePayloadRepository imagePayloadRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.images.migration.enabled:false}")
+    private boolean enabled;
+
+    // Inline bytes are only cleared once their copy reads back from the blob store
+    @Value("${memevote.images.migration.clear-inline:false}")
+    private boolean clearInline;
+
+    @Value("${memevote.images.migration.batch-size:20}")
+    private int batchSize = 20;
+
+    private Counter migratedImages;
+
+    @PostConstruct
+    void registerMetrics() {
+        migratedImages = Counter.builder("memevote.images.migrated")
+                .description("Inline image_data rows moved to the blob store").register(meterRegistry);
+    }
+
+    /**
+     * Migrates all inline rows; returns the number copied or cleared.
+     */
+    @Scheduled(initialDelayString = "${memevote.images.migration.interval-ms:60000}",
+               fixedDelayString = "${memevote.images.migration.interval-ms:60000}")
+    public int migrate() {
+        if (!enabled) {
+            return 0;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+        int failed = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = imagePayloadRepository.findIdsWithInlineData(afterId, clearInline, PageRequest.of(0, batchSize));
+            for (Long id : ids) {
+                afterId = id;
+                try {
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> migrateImage(id)))) {
+                        migrated++;
+                        migratedImages.increment();
+                    }
+                } catch (RuntimeException e) {
+                    failed++;
+                    logger.warn("Failed to move image {} to the blob store, will retry", id, e);
+                }
+            }
+        } while (ids.size() == batchSize);
+
+        if (migrated > 0 || failed > 0) {
+            logger.info("Moved {} images to the blob store, {} failed", migrated, failed);
+        }
+        return migrated;
+    }
+
+    private boolean migrateImage(Long id) {
+        ImageData image = imageDataRepository.findById(id).orElse(null);
+        ImagePayload payload = imagePayloadRepository.findById(id).orElse(null);
+        if (image == null || payload == null || payload.getData() == null) {
+            return false;
+        }
+        boolean copied = false;
+        if (image.getBlobKey() == null) {
+            StoredBlob blob;
+            try (InputStream content = new ByteArrayInputStream(payload.getData())) {
+                blob = blobStore.put(content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Rows with identical bytes end up sharing one blob
+            blobReferenceService.retain(blob.getKey(), blob.getSize(), new ByteArrayResource(payload.getData()));
+            image.setBlobKey(blob.getKey());
+            image.setContentHash(blob.getSha256());
+            image.setFileSize(blob.getSize());
+            image.setBlobCounted(true);
+            imageDataRepository.save(image);
+            copied = true;
+        }
+        if (!clearInline) {
+            return copied;
+        }
+        if (!isStored(image.getBlobKey(), payload.getData().length)) {
+            throw new IllegalStateException("Blob " + image.getBlobKey() + " of image " + id
+                    + " cannot be read back, keeping its inline bytes");
+        }
+        payload.setData(null);
+        imagePayloadRepository.save(payload);
+        return true;
+    }
+
+    private boolean isStored(String blobKey, long size) {
+        try {
+            Optional<Resource> blob = blobStore.get(blobKey);
+            return blob.isPresent() && blob.get().contentLength() == size;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
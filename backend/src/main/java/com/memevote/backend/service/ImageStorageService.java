@@ -1,46 +1,178 @@
 package com.memevote.backend.service;
 
+import com.memevote.backend.event.ImageStoredEvent;
+import com.memevote.backend.exception.BadRequestException;
 import com.memevote.backend.model.ImageData;
+import com.memevote.backend.model.ImageVariant;
+import com.memevote.backend.model.VariantStatus;
+import com.memevote.backend.model.ImagePayload;
 import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImagePayloadRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.repository.projection.ImageMetadata;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.ImageCache;
+import com.memevote.backend.service.storage.ImageFormat;
+import com.memevote.backend.service.storage.StoredBlob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Stores uploaded images: the bytes go to the {@link BlobStore}, the {@code image_data} row keeps the
+ * public file name, content type, size, SHA-256 and blob key. Uploads are read once as a stream: the
+ * format is sniffed from the leading bytes and the content is hashed on its way to the blob store, so
+ * no upload is held on the heap. Rows written before the blob store may still hold their bytes inline,
+ * mapped by {@link ImagePayload} and read only to serve them, until {@link ImageBlobMigrationService}
+ * moves them. Identical uploads share one blob, counted by
+ * {@link BlobReferenceService}. Resized variants are generated after the upload
+ * commits by {@link ImageVariantService}.
+ */
 @Service
 public class ImageStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
     @Autowired
     private ImageDataRepository imageDataRepository;
 
+    @Autowired
+    private ImagePayloadRepository imagePayloadRepository;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
     public String storeImage(MultipartFile file) throws IOException {
-        // Generate a unique file name
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        String fileName = UUID.randomUUID().toString() + fileExtension;
-        
-        // Create and save the image data
+        ImageFormat format;
+        StoredBlob blob;
+        try (PushbackInputStream content = new PushbackInputStream(file.getInputStream(), ImageFormat.HEADER_LENGTH)) {
+            // Sniff the format and push the header back, so the blob store still sees the whole stream
+            byte[] header = new byte[ImageFormat.HEADER_LENGTH];
+            int length = content.readNBytes(header, 0, header.length);
+            format = ImageFormat.detect(header, length)
+                    .orElseThrow(() -> new BadRequestException("Unsupported image type, expected PNG, JPEG, GIF or WebP"));
+            content.unread(header, 0, length);
+            blob = blobStore.put(content);
+        }
+        if (!format.getContentType().equals(file.getContentType())) {
+            logger.debug("Upload {} declared as {} is {}", file.getOriginalFilename(), file.getContentType(), format);
+        }
+
+        // Generate a unique file name; the extension follows the detected format
+        String fileName = UUID.randomUUID().toString() + format.getExtension();
+
+        // Create and save the image metadata
         ImageData imageData = ImageData.builder()
                 .name(fileName)
-                .type(file.getContentType())
-                .data(file.getBytes())
-                .fileSize(file.getSize())
+                .type(format.getContentType())
+                .blobKey(blob.getKey())
+                .contentHash(blob.getSha256())
+                .fileSize(blob.getSize())
+                .blobCounted(true)
+                .variantStatus(VariantStatus.PENDING)
                 .build();
-        
+
+        // An upload of bytes already stored becomes another reference to them
+        blobReferenceService.retain(blob.getKey(), blob.getSize(), file);
         imageDataRepository.save(imageData);
-        
+        eventPublisher.publishEvent(new ImageStoredEvent(imageData.getId()));
+
         return fileName;
     }
-    
+
     public Optional<ImageData> getImage(String fileName) {
         return imageDataRepository.findByName(fileName);
     }
-    
+
+    /**
+     * The image's name, type, size, dimensions, hash and creation time.
+     */
+    public Optional<ImageMetadata> getImageMetadata(String fileName) {
+        return imageDataRepository.findMetadataByName(fileName);
+    }
+
+    /**
+     * Metadata of the narrowest variant at least {@code width} pixels wide, or of the original if there
+     * is none (not generated yet, or the original is narrower).
+     */
+    public Optional<ImageMetadata> getImageMetadata(String fileName, int width) {
+        return imageDataRepository.findMetadataByName(fileName).map(original -> {
+            List<ImageMetadata> variants = imageVariantRepository.findAtLeast(original.getId(), width, PageRequest.of(0, 1));
+            return variants.isEmpty() ? original : variants.get(0);
+        });
+    }
+
+    /**
+     * The image's bytes as a resource to stream from, or empty if they are missing. Hot images are
+     * served from the {@link ImageCache}.
+     */
+    public Optional<Resource> openImage(ImageMetadata metadata) throws IOException {
+        String blobKey = metadata.getBlobKey();
+        if (blobKey == null) {
+            // Not migrated to the blob store yet; variants are always in the blob store, so this is an original
+            return openInlineData(metadata.getId());
+        }
+        Optional<Resource> blob = imageCache.open(blobKey, () -> blobStore.get(blobKey));
+        if (blob.isPresent()) {
+            return blob;
+        }
+        logger.warn("Image blob {} missing from the blob store", blobKey);
+        // The inline bytes may still be kept after the copy. They are only the original's, so a variant,
+        // whose ID is not an image_data ID, is not served from them.
+        Optional<ImageMetadata> original = imageDataRepository.findMetadataByName(metadata.getName())
+                .filter(image -> blobKey.equals(image.getBlobKey()));
+        if (original.isPresent()) {
+            return openInlineData(original.get().getId());
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Resource> openInlineData(Long imageId) {
+        return imagePayloadRepository.findById(imageId)
+                .map(ImagePayload::getData)
+                .map(ByteArrayResource::new);
+    }
+
+    @Transactional
     public void deleteImage(String fileName) {
-        Optional<ImageData> imageData = imageDataRepository.findByName(fileName);
-        imageData.ifPresent(imageDataRepository::delete);
+        Optional<ImageData> imageData = imageDataRepository.lockByName(fileName);
+        imageData.ifPresent(image -> {
+            List<ImageVariant> variants = imageVariantRepository.findByImageId(image.getId());
+            imageVariantRepository.deleteByImageId(image.getId());
+            imageDataRepository.deleteByName(fileName);
+            // Identical images share bytes, which are only freed with their last reference
+            for (ImageVariant variant : variants) {
+                blobReferenceService.release(variant.getBlobKey(), Boolean.TRUE.equals(variant.getBlobCounted()));
+            }
+            if (image.getBlobKey() != null) {
+                blobReferenceService.release(image.getBlobKey(), Boolean.TRUE.equals(image.getBlobCounted()));
+            }
+        });
     }
 }
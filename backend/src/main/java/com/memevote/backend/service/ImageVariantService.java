@@ -0,0 +1,369 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.ImageStoredEvent;
+import com.memevote.backend.model.ImageVariant;
+import com.memevote.backend.model.VariantStatus;
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.repository.projection.ImageMetadata;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.ImageFormat;
+import com.memevote.backend.service.storage.StoredBlob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates width-bounded variants of uploaded PNG and JPEG images for {@code /uploads/{name}?w=}.
+ * Each upload is queued after its transaction commits and resized with ImageIO on a pool of
+ * {@code memevote.images.variants.workers} threads, one variant per configured width narrower than
+ * the original. A full queue never blocks uploads: images left {@link VariantStatus#PENDING}, and
+ * images stored before variants existed, are picked up by {@link #sweep()}. GIFs (which would lose
+ * their animation) and WebP images (no ImageIO codec) are always served as the original.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    @Autowired
+    private ImageDataRepository imageDataRepository;
+
+    @Autowired
+    private ImageVariantRepository variantRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.images.variants.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${memevote.images.variants.widths:160,640,1280}")
+    private int[] widths = {160, 640, 1280};
+
+    @Value("${memevote.images.variants.workers:2}")
+    private int workers = 2;
+
+    @Value("${memevote.images.variants.queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    // Larger images are not decoded, so a small upload cannot expand into gigabytes of pixels
+    @Value("${memevote.images.variants.max-pixels:40000000}")
+    private long maxPixels = 40000000;
+
+    private ThreadPoolExecutor executor;
+
+    // Images queued or being resized, so the sweep does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private Counter generatedVariants;
+    private Counter skippedImages;
+    private Counter failedImages;
+
+    @PostConstruct
+    void init() {
+        Arrays.sort(widths);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("memevote.images.variants.queued", executor, pool -> pool.getQueue().size())
+                .description("Images waiting to be resized").register(meterRegistry);
+        generatedVariants = Counter.builder("memevote.images.variants.generated")
+                .description("Image variants written to the blob store").register(meterRegistry);
+        skippedImages = Counter.builder("memevote.images.variants.skipped")
+                .description("Images served only as the original").register(meterRegistry);
+        failedImages = Counter.builder("memevote.images.variants.failed")
+                .description("Images whose variants could not be generated").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Queued images stay pending and are picked up by the sweep after a restart
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageStored(ImageStoredEvent event) {
+        submit(event.getImageId());
+    }
+
+    /**
+     * Queues images still waiting for variants, as far as the queue has room.
+     * Returns the number queued.
+     */
+    @Scheduled(initialDelayString = "${memevote.images.variants.sweep-interval-ms:60000}",
+               fixedDelayString = "${memevote.images.variants.sweep-interval-ms:60000}")
+    public int sweep() {
+        int room = queueCapacity - executor.getQueue().size();
+        if (!enabled || room <= 0) {
+            return 0;
+        }
+        int queued = 0;
+        for (Long imageId : imageDataRepository.findIdsAwaitingVariants(PageRequest.of(0, room + inFlight.size()))) {
+            if (submit(imageId)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    boolean submit(Long imageId) {
+        if (!enabled || imageId == null || !inFlight.add(imageId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(imageId);
+                } finally {
+                    inFlight.remove(imageId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(imageId);
+            logger.debug("Variant queue full, image {} left to the sweep", imageId);
+            return false;
+        }
+    }
+
+    void generate(Long imageId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // Blobs written so far; they are only counted in image_blobs once the variants are saved
+        Map<String, byte[]> encoded = new HashMap<>();
+        try {
+            ImageMetadata image = imageDataRepository.findMetadataById(imageId).orElse(null);
+            if (image == null || image.getBlobKey() == null) {
+                // Deleted, or bytes not migrated to the blob store yet
+                return;
+            }
+            List<ImageVariant> variants = new ArrayList<>();
+            VariantStatus status = createVariants(image, variants, encoded);
+            if (status == VariantStatus.SKIPPED) {
+                skippedImages.increment();
+            }
+            Boolean saved = transactionTemplate.execute(tx -> {
+                if (imageDataRepository.updateVariantStatus(imageId, status) == 0) {
+                    return false;
+                }
+                List<ImageVariant> previous = variantRepository.findByImageId(imageId);
+                variantRepository.deleteByImageId(imageId);
+                for (ImageVariant variant : previous) {
+                    blobReferenceService.release(variant.getBlobKey(), Boolean.TRUE.equals(variant.getBlobCounted()));
+                }
+                for (ImageVariant variant : variants) {
+                    blobReferenceService.retain(variant.getBlobKey(), variant.getFileSize(),
+                            new ByteArrayResource(encoded.get(variant.getBlobKey())));
+                }
+                variantRepository.saveAll(variants);
+                return true;
+            });
+            if (Boolean.TRUE.equals(saved)) {
+                generatedVariants.increment(variants.size());
+            } else {
+                // The image was deleted while it was being resized
+                variants.forEach(variant -> blobReferenceService.collect(variant.getBlobKey()));
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to generate variants of image {}", imageId, e);
+            failedImages.increment();
+            // Nothing else would free blobs without a reference; those the saved variants reference are kept
+            encoded.keySet().forEach(blobReferenceService::collect);
+            transactionTemplate.execute(tx -> imageDataRepository.updateVariantStatus(imageId, VariantStatus.FAILED));
+        }
+    }
+
+    /**
+     * Resizes the image into {@code variants}, widest first, and returns the image's resulting status.
+     * The encoded bytes are kept in {@code encoded} by blob key until the variants are referenced.
+     */
+    private VariantStatus createVariants(ImageMetadata image, List<ImageVariant> variants,
+                                         Map<String, byte[]> encoded) throws IOException {
+        ImageFormat format = formatOf(image.getType());
+        if (format != ImageFormat.PNG && format != ImageFormat.JPEG) {
+            return VariantStatus.SKIPPED;
+        }
+        Optional<Resource> blob = blobStore.get(image.getBlobKey());
+        if (!blob.isPresent()) {
+            throw new IOException("Blob " + image.getBlobKey() + " missing");
+        }
+
+        BufferedImage source;
+        int width;
+        int height;
+        List<Integer> targets = new ArrayList<>();
+        try (InputStream in = blob.get().getInputStream();
+             ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return VariantStatus.SKIPPED;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+                imageDataRepository.updateDimensions(image.getId(), width, height);
+                if ((long) width * height > maxPixels) {
+                    return VariantStatus.SKIPPED;
+                }
+                for (int target : widths) {
+                    if (target < width) {
+                        targets.add(target);
+                    }
+                }
+                if (targets.isEmpty()) {
+                    // The original is already narrow enough
+                    return VariantStatus.READY;
+                }
+                // Decode large photos subsampled, keeping at least twice the widest variant's resolution
+                int subsampling = Math.max(1, width / (2 * targets.get(targets.size() - 1)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean alpha = format == ImageFormat.PNG && source.getColorModel().hasAlpha();
+        BufferedImage current = source;
+        for (int i = targets.size() - 1; i >= 0; i--) {
+            int targetWidth = targets.get(i);
+            int targetHeight = Math.max(1, (int) Math.round(height * (double) targetWidth / width));
+            current = downscale(current, targetWidth, targetHeight, alpha);
+            byte[] bytes = encode(current, format);
+            if (image.getFileSize() != null && bytes.length >= image.getFileSize()) {
+                // Not worth serving: requests for this width fall through to a wider variant or the original
+                continue;
+            }
+            StoredBlob stored = blobStore.put(new ByteArrayInputStream(bytes));
+            encoded.put(stored.getKey(), bytes);
+            variants.add(ImageVariant.builder()
+                    .imageId(image.getId())
+                    .width(targetWidth)
+                    .height(targetHeight)
+                    .type(format.getContentType())
+                    .blobKey(stored.getKey())
+                    .contentHash(stored.getSha256())
+                    .fileSize(stored.getSize())
+                    .blobCounted(true)
+                    .build());
+        }
+        return VariantStatus.READY;
+    }
+
+    /**
+     * Scales down in halving steps with bilinear filtering, which stays sharp without the cost of
+     * area averaging.
+     */
+    static BufferedImage downscale(BufferedImage image, int targetWidth, int targetHeight, boolean alpha) {
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, ImageFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (format == ImageFormat.PNG) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static ImageFormat formatOf(String contentType) {
+        for (ImageFormat format : ImageFormat.values()) {
+            if (format.getContentType().equals(contentType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
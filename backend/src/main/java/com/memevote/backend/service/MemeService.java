@@ -1,34 +1,67 @@
 package com.memevote.backend.service;
 
 import com.memevote.backend.dto.request.MemeRequest;
+import com.memevote.backend.dto.response.CategoryDto;
+import com.memevote.backend.dto.response.CursorPage;
 import com.memevote.backend.dto.response.MemeResponse;
 import com.memevote.backend.dto.response.MessageResponse;
 import com.memevote.backend.dto.response.UserSummary;
 import com.memevote.backend.dto.response.VoterDto;
 import com.memevote.backend.dto.websocket.WebSocketEvent;
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.event.MemeUpdatedEvent;
+import com.memevote.backend.exception.BadRequestException;
 import com.memevote.backend.model.Category;
 import com.memevote.backend.model.Meme;
 import com.memevote.backend.model.User;
 import com.memevote.backend.repository.MemeRepository;
 import com.memevote.backend.repository.UserRepository;
 import com.memevote.backend.repository.VoteRepository;
+import com.memevote.backend.repository.feed.FeedCursor;
+import com.memevote.backend.repository.feed.FeedOrder;
+import com.memevote.backend.repository.projection.MemeCategory;
+import com.memevote.backend.repository.projection.MemeRow;
+import com.memevote.backend.repository.projection.MemeVoteCount;
+import com.memevote.backend.repository.projection.MemeVoteTotal;
+import com.memevote.backend.repository.projection.MemeVoter;
+import com.memevote.backend.repository.specification.CategoryMatch;
+import com.memevote.backend.repository.specification.MemeSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class MemeService {
+    // Sort property that selects the in-memory hot ranking instead of a column sort
+    public static final String HOT_SORT = "hot";
+
+    private static final int HOT_FILTER_CHUNK_SIZE = 500;
+    private static final int MAX_TRENDING_SIZE = 100;
+
     @Autowired
     private MemeRepository memeRepository;
 
@@ -50,6 +83,42 @@ public class MemeService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private MemeTitleIndex memeTitleIndex;
+
+    @Autowired
+    private UserVoteCache userVoteCache;
+
+    @Autowired
+    private FeedPageCache feedPageCache;
+
+    @Autowired
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @Autowired
+    private VoteCounter voteCounter;
+
+    @Autowired
+    private VoteRollupService voteRollupService;
+
+    // Filtered hot pages fetch all matching ids when there are at most this many, instead of walking the ranking
+    @Value("${memevote.hot.filter-fetch-limit:10000}")
+    private int hotFilterFetchLimit = 10000;
+
+    // Most recent voters embedded in each meme response; the full list is paged via /api/memes/{id}/votes
+    @Value("${memevote.feed.voter-preview-size:5}")
+    private int voterPreviewSize = 5;
+
+    // Most title-index matches passed to the database in one id list; more are split over several lists
+    @Value("${memevote.search.max-id-filter:1000}")
+    private int maxIdFilter = 1000;
+
     public MemeResponse createMeme(MemeRequest memeRequest, MultipartFile file) throws IOException {
         User currentUser = userService.getCurrentUser();
 
@@ -69,6 +138,7 @@ public class MemeService {
         }
 
         meme = memeRepository.save(meme);
+        eventPublisher.publishEvent(new MemeCreatedEvent(meme.getId(), meme.getTitle(), meme.getCreatedAt()));
 
         // Notify subscribers about new meme
         MemeResponse memeResponse = mapToMemeResponse(meme, currentUser);
@@ -110,6 +180,7 @@ public class MemeService {
             }
 
             meme = memeRepository.save(meme);
+            eventPublisher.publishEvent(new MemeCreatedEvent(meme.getId(), meme.getTitle(), meme.getCreatedAt()));
 
             // Create response
             MemeResponse memeResponse = mapToMemeResponse(meme, currentUser);
@@ -125,7 +196,8 @@ public class MemeService {
         return responses;
     }
 
-    public Page<MemeResponse> getMemes(Set<String> categoryNames, String username, String title, Pageable pageable) {
+    public Page<MemeResponse> getMemes(Set<String> categoryNames, CategoryMatch categoryMatch, String username,
+                                       String title, Pageable pageable) {
         // Get current user for use in lambda
         User currentUserTemp = null;
         try {
@@ -135,38 +207,262 @@ public class MemeService {
         }
         final User currentUser = currentUserTemp;
 
-        User filterUser = null;
-        if (username != null && !username.isEmpty()) {
-            filterUser = userRepository.findByUsername(username)
-                    .orElse(null);
+        FeedPageCache.Key cacheKey = feedPageCache.key(categoryNames, categoryMatch, username, title, pageable);
+        if (cacheKey == null) {
+            return loadMemes(categoryNames, categoryMatch, username, title, pageable, currentUser);
         }
+        // Cached pages are assembled anonymously and the caller's own votes are overlaid per request
+        Page<MemeResponse> shared = feedPageCache.getOrLoad(cacheKey,
+                () -> loadMemes(categoryNames, categoryMatch, username, title, pageable, null));
+        return withUserVotes(shared, currentUser);
+    }
 
-        Set<Category> categories = null;
-        if (categoryNames != null && !categoryNames.isEmpty()) {
-            categories = categoryService.getCategoriesByNames(categoryNames);
-        }
-
-        Page<Meme> memePage;
-
-        if (categories != null && filterUser != null && title != null && !title.isEmpty()) {
-            memePage = memeRepository.findByCategoriesInAndUserAndTitleContainingIgnoreCase(categories, filterUser, title, pageable);
-        } else if (categories != null && filterUser != null) {
-            memePage = memeRepository.findByCategoriesInAndUser(categories, filterUser, pageable);
-        } else if (categories != null && title != null && !title.isEmpty()) {
-            memePage = memeRepository.findByCategoriesInAndTitleContainingIgnoreCase(categories, title, pageable);
-        } else if (filterUser != null && title != null && !title.isEmpty()) {
-            memePage = memeRepository.findByUserAndTitleContainingIgnoreCase(filterUser, title, pageable);
-        } else if (categories != null) {
-            memePage = memeRepository.findByCategoriesIn(categories, pageable);
-        } else if (filterUser != null) {
-            memePage = memeRepository.findByUser(filterUser, pageable);
-        } else if (title != null && !title.isEmpty()) {
-            memePage = memeRepository.findByTitleContainingIgnoreCase(title, pageable);
+    private Page<MemeResponse> loadMemes(Set<String> categoryNames, CategoryMatch categoryMatch, String username,
+                                         String title, Pageable pageable, User currentUser) {
+        if (pageable.getSort().getOrderFor(HOT_SORT) != null) {
+            return getHotMemes(categoryNames, categoryMatch, username, title, pageable, currentUser);
+        }
+        if (title != null && !title.isEmpty()) {
+            return searchMemes(categoryNames, categoryMatch, username, title, pageable, currentUser);
+        }
+
+        // Content and count queries share the same EXISTS-based predicates, so neither joins categories
+        Specification<Meme> specification = buildFilterSpecification(categoryNames, categoryMatch, username, title);
+        Page<MemeRow> rowPage = memeRepository.findRows(specification, pageable);
+
+        List<MemeResponse> responses = mapToMemeResponses(rowPage.getContent(), currentUser);
+        return new PageImpl<>(responses, rowPage.getPageable(), rowPage.getTotalElements());
+    }
+
+    /**
+     * Copies a shared page with {@code userVoted} set for the given user.
+     */
+    private Page<MemeResponse> withUserVotes(Page<MemeResponse> shared, User currentUser) {
+        if (currentUser == null || shared.getContent().isEmpty()) {
+            return shared;
+        }
+        List<Long> memeIds = shared.getContent().stream()
+                .map(MemeResponse::getId)
+                .collect(Collectors.toList());
+        Set<Long> votedMemeIds = userVoteCache.votedAmong(currentUser.getId(), memeIds);
+
+        List<MemeResponse> responses = new ArrayList<>(shared.getContent().size());
+        for (MemeResponse response : shared.getContent()) {
+            MemeResponse copy = FeedPageCache.copyOf(response);
+            copy.setUserVoted(votedMemeIds.contains(response.getId()));
+            responses.add(copy);
+        }
+        return new PageImpl<>(responses, shared.getPageable(), shared.getTotalElements());
+    }
+
+    /**
+     * Serves {@code sort=hot} from the in-memory ranking. Unfiltered pages are sliced directly from
+     * the ranking. A filter matching at most {@code hotFilterFetchLimit} memes is applied in SQL and
+     * its ids are put in hot order; a broader one matches densely enough that the ranking is walked
+     * in chunks, each matched against the filters in a single id query, until the page is filled.
+     */
+    private Page<MemeResponse> getHotMemes(Set<String> categoryNames, CategoryMatch categoryMatch, String username,
+                                           String title, Pageable pageable, User currentUser) {
+        Pageable hotPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Specification<Meme> specification = buildFilterSpecification(categoryNames, categoryMatch, username, title);
+
+        List<Long> pageIds;
+        long total;
+        if (specification == null) {
+            pageIds = hotRankingService.getHotMemeIds(hotPageable.getOffset(), hotPageable.getPageSize());
+            total = hotRankingService.size();
         } else {
-            memePage = memeRepository.findAll(pageable);
+            List<Long> matchingIds = memeRepository.findMatchingIds(specification, hotFilterFetchLimit + 1);
+            if (matchingIds.size() <= hotFilterFetchLimit) {
+                List<Long> hotIds = hotRankingService.sortByHotness(matchingIds);
+                int from = (int) Math.min(hotPageable.getOffset(), hotIds.size());
+                pageIds = hotIds.subList(from, Math.min(from + hotPageable.getPageSize(), hotIds.size()));
+                return new PageImpl<>(mapToMemeResponses(findRowsInOrder(pageIds), currentUser),
+                        hotPageable, hotIds.size());
+            }
+
+            pageIds = new ArrayList<>();
+            long skipped = 0;
+            Iterator<Long> ranked = hotRankingService.iterateHotMemeIds();
+            while (pageIds.size() < hotPageable.getPageSize() && ranked.hasNext()) {
+                List<Long> chunk = new ArrayList<>(HOT_FILTER_CHUNK_SIZE);
+                while (chunk.size() < HOT_FILTER_CHUNK_SIZE && ranked.hasNext()) {
+                    chunk.add(ranked.next());
+                }
+                Set<Long> matching = new HashSet<>(memeRepository.findMatchingIds(specification, chunk));
+                for (Long id : chunk) {
+                    if (!matching.contains(id)) {
+                        continue;
+                    }
+                    if (skipped < hotPageable.getOffset()) {
+                        skipped++;
+                    } else if (pageIds.size() < hotPageable.getPageSize()) {
+                        pageIds.add(id);
+                    }
+                }
+            }
+            total = memeRepository.count(specification);
+        }
+
+        return new PageImpl<>(mapToMemeResponses(findRowsInOrder(pageIds), currentUser), hotPageable, total);
+    }
+
+    /**
+     * Title search backed by the in-memory title index. Without an explicit sort the page follows
+     * the index ranking, with the other filters applied to the ranked ids in chunks; with a sort the
+     * title becomes a filter for the database query.
+     */
+    private Page<MemeResponse> searchMemes(Set<String> categoryNames, CategoryMatch categoryMatch, String username,
+                                           String title, Pageable pageable, User currentUser) {
+        if (pageable.getSort().isSorted()) {
+            Specification<Meme> specification = buildFilterSpecification(categoryNames, categoryMatch, username, title);
+            Page<MemeRow> rowPage = memeRepository.findRows(specification, pageable);
+            return new PageImpl<>(mapToMemeResponses(rowPage.getContent(), currentUser),
+                    rowPage.getPageable(), rowPage.getTotalElements());
+        }
+
+        List<Long> rankedIds = memeTitleIndex.search(title);
+        Specification<Meme> specification = buildFilterSpecification(categoryNames, categoryMatch, username, null);
+        List<Long> matchingIds = rankedIds;
+        if (specification != null && !rankedIds.isEmpty()) {
+            matchingIds = new ArrayList<>();
+            for (int from = 0; from < rankedIds.size(); from += maxIdFilter) {
+                List<Long> chunk = rankedIds.subList(from, Math.min(from + maxIdFilter, rankedIds.size()));
+                Set<Long> matching = new HashSet<>(memeRepository.findMatchingIds(specification, chunk));
+                for (Long id : chunk) {
+                    if (matching.contains(id)) {
+                        matchingIds.add(id);
+                    }
+                }
+            }
+        }
+
+        int fromIndex = (int) Math.min(pageable.getOffset(), matchingIds.size());
+        int toIndex = Math.min(fromIndex + pageable.getPageSize(), matchingIds.size());
+        List<MemeRow> rows = findRowsInOrder(matchingIds.subList(fromIndex, toIndex));
+        return new PageImpl<>(mapToMemeResponses(rows, currentUser), pageable, matchingIds.size());
+    }
+
+    /**
+     * Loads meme rows by id, keeping the order of {@code ids} and skipping memes that no longer exist.
+     */
+    private List<MemeRow> findRowsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, MemeRow> rowsById = new HashMap<>();
+        for (MemeRow row : memeRepository.findRowsByIds(ids)) {
+            rowsById.put(row.getId(), row);
+        }
+        return ids.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Combines the optional feed filters into one specification, or returns null when no filter is set.
+     * Category filters match by name, so unknown categories simply match nothing.
+     */
+    private Specification<Meme> buildFilterSpecification(Set<String> categoryNames, CategoryMatch categoryMatch,
+                                                         String username, String title) {
+        Specification<Meme> specification = null;
+        if (username != null && !username.isEmpty()) {
+            Optional<User> filterUser = userRepository.findByUsername(username);
+            if (filterUser.isPresent()) {
+                specification = Specification.where(MemeSpecifications.hasOwner(filterUser.get()));
+            }
+        }
+        if (categoryNames != null && !categoryNames.isEmpty()) {
+            specification = Specification.where(specification).and(MemeSpecifications.inCategories(
+                    categoryNames, categoryMatch != null ? categoryMatch : CategoryMatch.ANY));
+        }
+        if (title != null && !title.isEmpty()) {
+            specification = Specification.where(specification).and(titleFilter(title));
+        }
+        return specification;
+    }
+
+    /**
+     * Restricts a query to the title index matches, passed to the database in id lists of at most
+     * {@code maxIdFilter} ids, so sorted and filtered searches match titles like unsorted ones.
+     */
+    private Specification<Meme> titleFilter(String title) {
+        return MemeSpecifications.idIn(memeTitleIndex.search(title), maxIdFilter);
+    }
+
+    /**
+     * Keyset-paginated feed: returns the memes after {@code cursor} (or the first slice when the
+     * cursor is empty) without issuing a count query. The ordering is taken from the cursor when
+     * present, otherwise from {@code sort}; sorts without a keyset ordering (ascending, {@code hot},
+     * other properties) are rejected with 400.
+     */
+    public CursorPage<MemeResponse> getMemeFeed(Set<String> categoryNames, CategoryMatch categoryMatch, String username,
+                                                String title, Sort sort, String cursor, int size) {
+        User currentUserTemp = null;
+        try {
+            currentUserTemp = userService.getCurrentUser();
+        } catch (Exception e) {
+            // User is not authenticated - currentUser remains null
+        }
+        final User currentUser = currentUserTemp;
+
+        FeedCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = FeedCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid cursor", e);
+            }
+        }
+        FeedOrder order;
+        try {
+            order = FeedOrder.fromSort(sort);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+        if (after != null) {
+            if (sort != null && sort.isSorted() && after.getOrder() != order) {
+                throw new BadRequestException("Cursor was issued for a different sort");
+            }
+            order = after.getOrder();
+        }
+
+        Specification<Meme> specification = buildFilterSpecification(categoryNames, categoryMatch, username, title);
+        if (after != null) {
+            specification = Specification.where(specification).and(MemeSpecifications.after(after));
+        }
+
+        // Fetch one extra row to learn whether another slice follows
+        List<MemeRow> rows = memeRepository.findFeedSlice(specification, order, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = hasNext ? FeedCursor.of(order, rows.get(rows.size() - 1)).encode() : null;
+        return new CursorPage<>(mapToMemeResponses(rows, currentUser), nextCursor, hasNext, size);
+    }
+
+    /**
+     * The memes with the most net votes over the last {@code hours}, most voted first, read from the
+     * vote rollups. Votes from the current rollup flush interval are not counted yet.
+     */
+    public List<MemeResponse> getTrendingMemes(int hours, int size) {
+        Duration window = VoteRollupService.window(hours);
+        User currentUserTemp = null;
+        try {
+            currentUserTemp = userService.getCurrentUser();
+        } catch (Exception e) {
+            // User is not authenticated - currentUser remains null
         }
+        final User currentUser = currentUserTemp;
 
-        return memePage.map(meme -> mapToMemeResponse(meme, currentUser));
+        int limit = Math.max(1, Math.min(size, MAX_TRENDING_SIZE));
+        List<Long> memeIds = voteRollupService.topMemes(window, limit).stream()
+                .map(MemeVoteTotal::getMemeId)
+                .collect(Collectors.toList());
+        return mapToMemeResponses(findRowsInOrder(memeIds), currentUser);
     }
 
     public MemeResponse getMemeById(Long id) {
@@ -214,6 +510,7 @@ public class MemeService {
         }
 
         meme = memeRepository.save(meme);
+        eventPublisher.publishEvent(new MemeUpdatedEvent(meme.getId(), meme.getTitle()));
 
         return mapToMemeResponse(meme, currentUser);
     }
@@ -245,11 +542,93 @@ public class MemeService {
 
         // Delete the meme (this will cascade delete votes and comments)
         memeRepository.delete(meme);
+        eventPublisher.publishEvent(new MemeDeletedEvent(meme.getId()));
 
         return new MessageResponse("Meme deleted successfully");
     }
 
     private MemeResponse mapToMemeResponse(Meme meme, User currentUser) {
+        // Check if current user has voted
+        boolean userVoted = false;
+        if (currentUser != null && meme.getId() != null) {
+            userVoted = userVoteCache.hasVoted(currentUser.getId(), meme.getId());
+        }
+
+        // Get a preview of the most recent voters
+        List<VoterDto> voterDtos = new ArrayList<>();
+        if (meme.getId() != null) {
+            voterDtos = voteRepository.findRecentVoters(Collections.singletonList(meme.getId()), voterPreviewSize)
+                .stream()
+                .map(voter -> toVoterDto(voter.getId(), voter.getUsername(), voter.getProfilePicture()))
+                .collect(Collectors.toList());
+        }
+
+        return buildMemeResponse(meme, userVoted, voterDtos);
+    }
+
+    /**
+     * Maps a whole page of meme rows with one grouped query each for categories and voter previews
+     * instead of per-meme lookups; the current user's votes come from the in-memory
+     * {@link UserVoteCache}.
+     */
+    private List<MemeResponse> mapToMemeResponses(List<MemeRow> rows, User currentUser) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> memeIds = rows.stream()
+                .map(MemeRow::getId)
+                .collect(Collectors.toList());
+
+        Set<Long> votedMemeIds = new HashSet<>();
+        if (currentUser != null) {
+            votedMemeIds.addAll(userVoteCache.votedAmong(currentUser.getId(), memeIds));
+        }
+
+        Map<Long, Set<CategoryDto>> categoriesByMeme = new HashMap<>();
+        for (MemeCategory category : memeRepository.findCategoriesByMemeIds(memeIds)) {
+            categoriesByMeme.computeIfAbsent(category.getMemeId(), id -> new HashSet<>())
+                    .add(new CategoryDto(category.getId(), category.getName()));
+        }
+
+        Map<Long, List<VoterDto>> votersByMeme = new HashMap<>();
+        for (MemeVoter voter : voteRepository.findRecentVoters(memeIds, voterPreviewSize)) {
+            votersByMeme.computeIfAbsent(voter.getMemeId(), id -> new ArrayList<>())
+                    .add(toVoterDto(voter.getId(), voter.getUsername(), voter.getProfilePicture()));
+        }
+
+        // Memes striped on this instance have uncompacted shard deltas, read for the whole page in one query
+        List<Long> stripedIds = memeIds.stream()
+                .filter(id -> voteCounter.shardCount(id) > 1)
+                .collect(Collectors.toList());
+        Map<Long, Long> stripedCounts = new HashMap<>();
+        if (!stripedIds.isEmpty()) {
+            for (MemeVoteCount count : memeRepository.findVoteCountsByIds(stripedIds)) {
+                stripedCounts.put(count.getId(), count.getVoteCount());
+            }
+        }
+
+        List<MemeResponse> responses = new ArrayList<>(rows.size());
+        for (MemeRow row : rows) {
+            MemeResponse response = new MemeResponse();
+            response.setId(row.getId());
+            response.setTitle(row.getTitle());
+            response.setUrl(row.getUrl());
+            response.setCreatedAt(row.getCreatedAt());
+            response.setUser(row.getUserId() != null
+                    ? new UserSummary(row.getUserId(), row.getUsername(), row.getEmail(), row.getProfilePicture())
+                    : anonymousUser());
+            response.setCategories(categoriesByMeme.getOrDefault(row.getId(), new HashSet<>()));
+            Long storedCount = stripedCounts.getOrDefault(row.getId(), row.getVoteCount());
+            response.setVoteCount((storedCount != null ? storedCount : 0L) + voteWriteBuffer.pendingDelta(row.getId()));
+            response.setUserVoted(votedMemeIds.contains(row.getId()));
+            response.setVoters(votersByMeme.getOrDefault(row.getId(), new ArrayList<>()));
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private MemeResponse buildMemeResponse(Meme meme, boolean userVoted, List<VoterDto> voters) {
         MemeResponse response = new MemeResponse();
         response.setId(meme.getId());
         response.setTitle(meme.getTitle());
@@ -260,11 +639,7 @@ public class MemeService {
         if (meme.getUser() != null) {
             response.setUser(userService.getUserSummary(meme.getUser()));
         } else {
-            // Create an anonymous user summary
-            UserSummary anonymousUser = new UserSummary();
-            anonymousUser.setUsername("Anonymous");
-            anonymousUser.setProfilePicture(null);
-            response.setUser(anonymousUser);
+            response.setUser(anonymousUser());
         }
 
         // Handle categories
@@ -272,37 +647,37 @@ public class MemeService {
             response.setCategories(categoryService.mapToCategoryDtoSet(meme.getCategories()));
         }
 
-        // Count votes
-        Long voteCount = 0L;
-        if (meme.getId() != null) {
-            voteCount = voteRepository.countByMemeId(meme.getId());
-        }
-        response.setVoteCount(voteCount);
+        response.setVoteCount(meme.getId() != null
+                ? currentVoteCount(meme.getId(), meme.getVoteCount())
+                : (meme.getVoteCount() != null ? meme.getVoteCount() : 0L));
+        response.setUserVoted(userVoted);
+        response.setVoters(voters);
 
-        // Check if current user has voted
-        if (currentUser != null && meme.getId() != null) {
-            Boolean userVoted = voteRepository.existsByUserAndMeme(currentUser, meme);
-            response.setUserVoted(userVoted);
-        } else {
-            response.setUserVoted(false);
-        }
+        return response;
+    }
 
-        // Get voters
-        if (meme.getId() != null) {
-            List<User> voters = voteRepository.findVotersByMemeId(meme.getId());
-            List<VoterDto> voterDtos = voters.stream()
-                .map(voter -> {
-                    VoterDto voterDto = new VoterDto();
-                    voterDto.setId(voter.getId());
-                    voterDto.setUsername(voter.getUsername());
-                    voterDto.setProfilePicture(voter.getProfilePicture() != null ?
-                        voter.getProfilePicture() : "default-avatar.png");
-                    return voterDto;
-                })
-                .collect(java.util.stream.Collectors.toList());
-            response.setVoters(voterDtos);
-        }
+    /**
+     * The stored vote count plus votes not yet folded into it: uncompacted shards of memes that are hot
+     * on this instance and votes still in the write-behind buffer. Pages of memes read the shards of all
+     * their hot memes at once instead.
+     */
+    private long currentVoteCount(Long memeId, Long storedCount) {
+        Long count = voteCounter.shardCount(memeId) > 1 ? memeRepository.findVoteCountById(memeId) : storedCount;
+        return (count != null ? count : 0L) + voteWriteBuffer.pendingDelta(memeId);
+    }
 
-        return response;
+    private UserSummary anonymousUser() {
+        UserSummary anonymousUser = new UserSummary();
+        anonymousUser.setUsername("Anonymous");
+        anonymousUser.setProfilePicture(null);
+        return anonymousUser;
+    }
+
+    private VoterDto toVoterDto(Long id, String username, String profilePicture) {
+        VoterDto voterDto = new VoterDto();
+        voterDto.setId(id);
+        voterDto.setUsername(username);
+        voterDto.setProfilePicture(profilePicture != null ? profilePicture : "default-avatar.png");
+        return voterDto;
     }
 }
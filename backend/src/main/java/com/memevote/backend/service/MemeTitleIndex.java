@@ -0,0 +1,399 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.event.MemeUpdatedEvent;
+import com.memevote.backend.repository.MemeRepository;
+import com.memevote.backend.repository.projection.MemeTitle;
+import com.memevote.backend.util.LongHashSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over meme titles. Titles are split into lowercase word tokens with
+ * per-token postings; a sorted token dictionary answers prefix queries and a trigram index over
+ * the dictionary finds misspelled tokens. Every query token must match (exactly, as a prefix or
+ * within a small edit distance); results are ranked by match quality, newest first on ties.
+ * <p>
+ * Matching is by word rather than by substring: "cat" finds "Cat vs cucumber" and "Catastrophic
+ * deploy" but not "Bobcat", and "grumpy cat" finds titles containing both words in any order.
+ */
+@Service
+public class MemeTitleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemeTitleIndex.class);
+
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    @Autowired
+    private MemeRepository memeRepository;
+
+    // Upper bound on dictionary tokens a single prefix or fuzzy query token may expand to; the most
+    // frequent ones are kept
+    @Value("${memevote.search.max-expansions:64}")
+    private int maxExpansions = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, LongHashSet> postings = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    // Changes seen before the first build or while a rebuild reads titles, replayed onto the rebuilt
+    // index; a null title is a removal
+    private Map<Long, String> pendingChanges = new HashMap<>();
+    private volatile boolean ready;
+
+    // Serializes builds, so a search arriving before startup has built the index waits for one build
+    private final Object buildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureBuilt();
+    }
+
+    public void rebuild() {
+        synchronized (buildLock) {
+            build();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!ready) {
+            synchronized (buildLock) {
+                if (!ready) {
+                    build();
+                }
+            }
+        }
+    }
+
+    private void build() {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges == null) {
+                pendingChanges = new HashMap<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<MemeTitle> titles;
+        try {
+            titles = memeRepository.findAllTitles();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                // Until the first build succeeds every change is still needed
+                if (ready) {
+                    pendingChanges = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigrams.clear();
+            documents.clear();
+            for (MemeTitle title : titles) {
+                addLocked(title.getId(), title.getTitle());
+            }
+            // The snapshot may predate these changes; replaying one it already contains is harmless
+            for (Map.Entry<Long, String> change : pendingChanges.entrySet()) {
+                removeLocked(change.getKey());
+                if (change.getValue() != null) {
+                    addLocked(change.getKey(), change.getValue());
+                }
+            }
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed {} meme titles ({} distinct tokens)", titles.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeCreated(MemeCreatedEvent event) {
+        index(event.getMemeId(), event.getTitle());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeUpdated(MemeUpdatedEvent event) {
+        index(event.getMemeId(), event.getTitle());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeDeleted(MemeDeletedEvent event) {
+        remove(event.getMemeId());
+    }
+
+    /**
+     * Whether the index has been built and can answer title queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(long memeId, String title) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(memeId);
+            addLocked(memeId, title);
+            recordLocked(memeId, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long memeId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(memeId);
+            recordLocked(memeId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recordLocked(long memeId, String title) {
+        if (pendingChanges != null) {
+            pendingChanges.put(memeId, title);
+        }
+    }
+
+    /**
+     * Returns the ids of all memes whose titles match every token of the query, best match first.
+     * Callers page through the result themselves; it is not truncated. A search before the index has
+     * been built waits for it to be built.
+     */
+    public List<Long> search(String query) {
+        List<String> queryTokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ensureBuilt();
+
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> tokenScores = scoreToken(queryToken);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Integer> combined = new HashMap<>();
+                    for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                        Integer tokenScore = tokenScores.get(entry.getKey());
+                        if (tokenScore != null) {
+                            combined.put(entry.getKey(), entry.getValue() + tokenScore);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        final Map<Long, Integer> ranked = scores;
+        List<Long> ids = new ArrayList<>(ranked.keySet());
+        ids.sort((a, b) -> {
+            int byScore = Integer.compare(ranked.get(b), ranked.get(a));
+            return byScore != 0 ? byScore : Long.compare(b, a);
+        });
+        return ids;
+    }
+
+    private Map<Long, Integer> scoreToken(String queryToken) {
+        Map<Long, Integer> scores = new HashMap<>();
+
+        LongHashSet exact = postings.get(queryToken);
+        if (exact != null) {
+            exact.forEach(id -> scores.put(id, EXACT_SCORE));
+        }
+
+        if (queryToken.length() >= MIN_PREFIX_LENGTH) {
+            Collection<LongHashSet> expansions =
+                    postings.subMap(queryToken, false, queryToken + Character.MAX_VALUE, false).values();
+            for (LongHashSet ids : mostFrequent(expansions)) {
+                ids.forEach(id -> scores.merge(id, PREFIX_SCORE, Math::max));
+            }
+        }
+
+        if (queryToken.length() >= MIN_FUZZY_LENGTH) {
+            int maxDistance = queryToken.length() <= 5 ? 1 : 2;
+            List<LongHashSet> expansions = new ArrayList<>();
+            for (String candidate : fuzzyCandidates(queryToken)) {
+                if (!candidate.equals(queryToken) && withinDistance(queryToken, candidate, maxDistance)) {
+                    expansions.add(postings.get(candidate));
+                }
+            }
+            for (LongHashSet ids : mostFrequent(expansions)) {
+                ids.forEach(id -> scores.merge(id, FUZZY_SCORE, Math::max));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * The postings of at most {@code maxExpansions} expansion tokens, those of the most memes, so the
+     * cap drops the rarest words rather than those late in the alphabet.
+     */
+    private Collection<LongHashSet> mostFrequent(Collection<LongHashSet> expansions) {
+        if (expansions.size() <= maxExpansions) {
+            return expansions;
+        }
+        PriorityQueue<LongHashSet> largest = new PriorityQueue<>(Comparator.comparingInt(LongHashSet::size));
+        for (LongHashSet ids : expansions) {
+            largest.add(ids);
+            if (largest.size() > maxExpansions) {
+                largest.poll();
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Dictionary tokens sharing at least one trigram with the query token.
+     */
+    private Set<String> fuzzyCandidates(String queryToken) {
+        Set<String> candidates = new HashSet<>();
+        for (String trigram : trigramsOf(queryToken)) {
+            Set<String> tokens = trigrams.get(trigram);
+            if (tokens != null) {
+                candidates.addAll(tokens);
+            }
+        }
+        return candidates;
+    }
+
+    private void addLocked(long memeId, String title) {
+        String[] tokens = new LinkedHashSet<>(tokenize(title)).toArray(new String[0]);
+        if (tokens.length == 0) {
+            return;
+        }
+        documents.put(memeId, tokens);
+        for (String token : tokens) {
+            LongHashSet ids = postings.get(token);
+            if (ids == null) {
+                ids = new LongHashSet(4);
+                postings.put(token, ids);
+                for (String trigram : trigramsOf(token)) {
+                    trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(token);
+                }
+            }
+            ids.add(memeId);
+        }
+    }
+
+    private void removeLocked(long memeId) {
+        String[] tokens = documents.remove(memeId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            LongHashSet ids = postings.get(token);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(memeId);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+                for (String trigram : trigramsOf(token)) {
+                    Set<String> tokensWithTrigram = trigrams.get(trigram);
+                    if (tokensWithTrigram != null) {
+                        tokensWithTrigram.remove(token);
+                        if (tokensWithTrigram.isEmpty()) {
+                            trigrams.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static Set<String> trigramsOf(String token) {
+        // Pad so short tokens and word boundaries still produce trigrams
+        String padded = "$" + token + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Levenshtein distance check that gives up as soon as every alignment exceeds {@code max}.
+     */
+    static boolean withinDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max;
+    }
+}
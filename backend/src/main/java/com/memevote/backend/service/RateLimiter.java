@@ -0,0 +1,246 @@
+package com.memevote.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limits for write endpoints, kept per user and per client IP. Each endpoint class
+ * has its own {@code memevote.rate-limit.<class>.capacity} (burst) and {@code refill-per-second};
+ * IP buckets are {@code ip-factor} times larger since several users can share an address. Uploads
+ * are measured in bytes. A request is admitted only when both of its buckets hold enough tokens.
+ * Each bucket map holds at most {@code max-keys} entries; buckets that refilled to capacity are
+ * equivalent to absent ones and are dropped first.
+ */
+@Service
+public class RateLimiter {
+
+    public enum Endpoint {
+        VOTE("votes"),
+        COMMENT("comments"),
+        UPLOAD("uploads");
+
+        private final String property;
+
+        Endpoint(String property) {
+            this.property = property;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.rate-limit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${memevote.rate-limit.max-keys:100000}")
+    private int maxKeys = 100000;
+
+    @Value("${memevote.rate-limit.ip-factor:4}")
+    private double ipFactor = 4;
+
+    @Value("${memevote.rate-limit.votes.capacity:30}")
+    private double voteCapacity = 30;
+
+    @Value("${memevote.rate-limit.votes.refill-per-second:5}")
+    private double voteRefillPerSecond = 5;
+
+    @Value("${memevote.rate-limit.comments.capacity:10}")
+    private double commentCapacity = 10;
+
+    @Value("${memevote.rate-limit.comments.refill-per-second:0.5}")
+    private double commentRefillPerSecond = 0.5;
+
+    @Value("${memevote.rate-limit.uploads.capacity:52428800}")
+    private double uploadCapacity = 52428800;
+
+    @Value("${memevote.rate-limit.uploads.refill-per-second:1048576}")
+    private double uploadRefillPerSecond = 1048576;
+
+    private final Map<Endpoint, Limit> userLimits = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Limit> ipLimits = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> rejections = new EnumMap<>(Endpoint.class);
+
+    @PostConstruct
+    void init() {
+        configure(Endpoint.VOTE, voteCapacity, voteRefillPerSecond);
+        configure(Endpoint.COMMENT, commentCapacity, commentRefillPerSecond);
+        configure(Endpoint.UPLOAD, uploadCapacity, uploadRefillPerSecond);
+
+        Gauge.builder("memevote.rate-limit.buckets", this, RateLimiter::bucketCount)
+                .description("Token buckets held for users and client IPs").register(meterRegistry);
+        for (Endpoint endpoint : Endpoint.values()) {
+            rejections.put(endpoint, Counter.builder("memevote.rate-limit.rejections")
+                    .tag("endpoint", endpoint.getProperty())
+                    .description("Write requests rejected with 429").register(meterRegistry));
+        }
+    }
+
+    private void configure(Endpoint endpoint, double capacity, double refillPerSecond) {
+        userLimits.put(endpoint, new Limit(capacity, refillPerSecond));
+        ipLimits.put(endpoint, new Limit(capacity * ipFactor, refillPerSecond * ipFactor));
+    }
+
+    /**
+     * Takes {@code cost} tokens from the user's and the IP's bucket of the endpoint class. Returns 0
+     * when the request is admitted, otherwise the whole seconds until it would be. A cost above the
+     * bucket capacity is charged as a full bucket. {@code userId} is null for anonymous requests.
+     */
+    public long tryAcquire(Endpoint endpoint, Long userId, String ip, long cost) {
+        return tryAcquire(endpoint, userId, ip, cost, System.nanoTime());
+    }
+
+    long tryAcquire(Endpoint endpoint, Long userId, String ip, long cost, long now) {
+        if (!enabled) {
+            return 0;
+        }
+
+        Limit userLimit = userLimits.get(endpoint);
+        double userCost = Math.min(cost, userLimit.capacity);
+        TokenBucket userBucket = null;
+        if (userId != null) {
+            userBucket = userLimit.bucket(userId, now, maxKeys);
+            long waitNanos = userBucket.tryTake(userCost, now);
+            if (waitNanos > 0) {
+                return reject(endpoint, waitNanos);
+            }
+        }
+
+        Limit ipLimit = ipLimits.get(endpoint);
+        long waitNanos = ipLimit.bucket(ip, now, maxKeys).tryTake(Math.min(cost, ipLimit.capacity), now);
+        if (waitNanos > 0) {
+            if (userBucket != null) {
+                userBucket.refund(userCost);
+            }
+            return reject(endpoint, waitNanos);
+        }
+        return 0;
+    }
+
+    private long reject(Endpoint endpoint, long waitNanos) {
+        rejections.get(endpoint).increment();
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Drops buckets that refilled to capacity; the next request of their key starts a full one.
+     */
+    @Scheduled(fixedDelayString = "${memevote.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Limit limit : userLimits.values()) {
+            limit.removeIdle(now);
+        }
+        for (Limit limit : ipLimits.values()) {
+            limit.removeIdle(now);
+        }
+    }
+
+    public int bucketCount() {
+        int count = 0;
+        for (Limit limit : userLimits.values()) {
+            count += limit.buckets.size();
+        }
+        for (Limit limit : ipLimits.values()) {
+            count += limit.buckets.size();
+        }
+        return count;
+    }
+
+    /**
+     * Bucket settings of one endpoint class and key type, with the buckets by user ID or IP.
+     */
+    private static final class Limit {
+        private final double capacity;
+        private final double tokensPerNano;
+        private final Map<Object, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        private Limit(double capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        }
+
+        private TokenBucket bucket(Object key, long now, int maxKeys) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxKeys) {
+                evict(now, maxKeys);
+            }
+            return buckets.computeIfAbsent(key, k -> new TokenBucket(this, now));
+        }
+
+        private synchronized void evict(long now, int maxKeys) {
+            if (buckets.size() < maxKeys) {
+                return;
+            }
+            removeIdle(now);
+            // Still full of active keys: forgetting some of them only grants them a fresh burst
+            Iterator<TokenBucket> iterator = buckets.values().iterator();
+            while (buckets.size() >= maxKeys && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+        private void removeIdle(long now) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private static final class TokenBucket {
+        private final Limit limit;
+        private double tokens;
+        private long updatedAt;
+
+        private TokenBucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokens = limit.capacity;
+            this.updatedAt = now;
+        }
+
+        /**
+         * Takes the tokens and returns 0, or returns the nanoseconds until enough have refilled.
+         */
+        private synchronized long tryTake(double cost, long now) {
+            refill(now);
+            if (tokens >= cost) {
+                tokens -= cost;
+                return 0;
+            }
+            return (long) Math.ceil((cost - tokens) / limit.tokensPerNano);
+        }
+
+        private synchronized void refund(double cost) {
+            tokens = Math.min(limit.capacity, tokens + cost);
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= limit.capacity;
+        }
+
+        private void refill(long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(limit.capacity, tokens + (now - updatedAt) * limit.tokensPerNano);
+                updatedAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.repository.VoteRepository;
+import com.memevote.backend.util.LongHashSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user sets of voted meme ids, used to answer the {@code userVoted} flag without a query per
+ * meme. A user's set is loaded on first use and kept current from vote events; the least recently
+ * used users are evicted once {@code memevote.votes.user-cache.max-users} sets are held.
+ * Votes still buffered by {@link VoteWriteBuffer} take precedence over the loaded sets.
+ */
+@Service
+public class UserVoteCache {
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @Value("${memevote.votes.user-cache.max-users:10000}")
+    private int maxUsers = 10000;
+
+    private final Map<Long, LongHashSet> votedByUser = new LinkedHashMap<Long, LongHashSet>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, LongHashSet> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    // Users whose set is being loaded, shared by concurrent loads of the same user
+    private final Map<Long, PendingLoad> pendingLoads = new HashMap<>();
+
+    public boolean hasVoted(Long userId, Long memeId) {
+        Boolean buffered = voteWriteBuffer.pendingState(userId, memeId);
+        if (buffered != null) {
+            return buffered;
+        }
+        LongHashSet voted = votedMemeIds(userId);
+        synchronized (this) {
+            return voted.contains(memeId);
+        }
+    }
+
+    /**
+     * Returns the subset of {@code memeIds} the user has voted on.
+     */
+    public Set<Long> votedAmong(Long userId, Collection<Long> memeIds) {
+        LongHashSet voted = votedMemeIds(userId);
+        Set<Long> result = new HashSet<>();
+        synchronized (this) {
+            for (Long memeId : memeIds) {
+                Boolean buffered = voteWriteBuffer.pendingState(userId, memeId);
+                if (buffered != null ? buffered : voted.contains(memeId)) {
+                    result.add(memeId);
+                }
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVoteChanged(VoteChangedEvent event) {
+        LongHashSet voted = votedByUser.get(event.getUserId());
+        if (voted == null) {
+            PendingLoad pending = pendingLoads.get(event.getUserId());
+            if (pending != null) {
+                pending.changed = true;
+            }
+            return;
+        }
+        if (event.isVoted()) {
+            voted.add(event.getMemeId());
+        } else {
+            voted.remove(event.getMemeId());
+        }
+    }
+
+    public synchronized void evict(Long userId) {
+        votedByUser.remove(userId);
+    }
+
+    public synchronized int size() {
+        return votedByUser.size();
+    }
+
+    private LongHashSet votedMemeIds(Long userId) {
+        PendingLoad pending;
+        synchronized (this) {
+            LongHashSet cached = votedByUser.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            pending = pendingLoads.computeIfAbsent(userId, id -> new PendingLoad());
+            pending.loads++;
+        }
+
+        // Load outside the lock so a slow query does not block other users
+        List<Long> memeIds;
+        try {
+            memeIds = voteRepository.findMemeIdsByUserId(userId);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                finishLoad(userId, pending);
+            }
+            throw e;
+        }
+        LongHashSet loaded = new LongHashSet(memeIds.size());
+        for (Long memeId : memeIds) {
+            loaded.add(memeId);
+        }
+
+        synchronized (this) {
+            finishLoad(userId, pending);
+            LongHashSet cached = votedByUser.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            // A vote may have committed after the query read its snapshot; serve but don't keep it
+            if (!pending.changed) {
+                votedByUser.put(userId, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private void finishLoad(Long userId, PendingLoad pending) {
+        if (--pending.loads == 0) {
+            pendingLoads.remove(userId);
+        }
+    }
+
+    /**
+     * Loads of one user's set in flight, and whether a vote of that user arrived during any of them.
+     */
+    private static final class PendingLoad {
+        private int loads;
+        private boolean changed;
+    }
+}
@@ -0,0 +1,44 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.repository.MemeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Repairs drift between the denormalized {@code memes.vote_count} column and the {@code votes} table.
+ * Memes are reconciled in id ranges so each UPDATE only locks a bounded number of rows.
+ */
+@Service
+public class VoteCountReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteCountReconciliationService.class);
+
+    @Autowired
+    private MemeRepository memeRepository;
+
+    @Value("${memevote.votes.reconcile.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Scheduled(initialDelayString = "${memevote.votes.reconcile.initial-delay-ms:60000}",
+               fixedDelayString = "${memevote.votes.reconcile.interval-ms:3600000}")
+    public int reconcileVoteCounts() {
+        Long maxId = memeRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+
+        int repaired = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            repaired += memeRepository.reconcileVoteCounts(fromId, fromId + batchSize - 1);
+        }
+
+        if (repaired > 0) {
+            logger.warn("Repaired vote count drift on {} memes", repaired);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,234 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.MemeVoteShard;
+import com.memevote.backend.repository.MemeRepository;
+import com.memevote.backend.repository.MemeVoteShardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies vote count changes, striping the counter of hot memes over {@code meme_vote_shards} rows so
+ * concurrent votes on a viral meme do not all queue on the lock of its {@code memes} row.
+ * A meme becomes hot when it receives {@code memevote.votes.shards.hot-votes-per-second} votes within
+ * one second; its shard count then grows in powers of two with the vote rate, up to
+ * {@code max-shards}. Every {@code compact-interval-ms} the shard deltas are folded into
+ * {@code memes.vote_count}, and memes without votes for {@code cool-down-ms} drop their emptied shards.
+ * {@link MemeRepository#findVoteCountById} and {@link MemeRepository#findVoteCountsByIds} sum the
+ * shards. Feed pages read the stored total, and sum the shards with one query per page only for memes
+ * striped on this instance; other instances' hot memes lag by at most one compaction interval.
+ */
+@Service
+public class VoteCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteCounter.class);
+
+    @Autowired
+    private MemeRepository memeRepository;
+
+    @Autowired
+    private MemeVoteShardRepository shardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.votes.shards.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${memevote.votes.shards.hot-votes-per-second:20}")
+    private int hotVotesPerSecond = 20;
+
+    @Value("${memevote.votes.shards.max-shards:16}")
+    private int maxShards = 16;
+
+    @Value("${memevote.votes.shards.cool-down-ms:60000}")
+    private long coolDownMillis = 60000;
+
+    // Shard count of each hot meme on this instance; memes not listed use the memes row
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+    private final Map<Long, VoteRate> rates = new ConcurrentHashMap<>();
+
+    private Counter shardedVotes;
+    private Counter compactedShards;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("memevote.votes.shards.hot-memes", shardCounts, Map::size)
+                .description("Memes whose vote counter is striped over shard rows").register(meterRegistry);
+        shardedVotes = Counter.builder("memevote.votes.shards.increments")
+                .description("Vote count changes applied to a shard row").register(meterRegistry);
+        compactedShards = Counter.builder("memevote.votes.shards.compactions")
+                .description("Shard deltas folded into memes.vote_count").register(meterRegistry);
+    }
+
+    /**
+     * Adds {@code delta} to the meme's vote count within the caller's transaction.
+     */
+    public void adjust(Long memeId, long delta) {
+        if (!enabled) {
+            memeRepository.adjustVoteCount(memeId, delta);
+            return;
+        }
+
+        int shards = shardsFor(memeId, recordVote(memeId));
+        if (shards > 1) {
+            int shard = ThreadLocalRandom.current().nextInt(shards);
+            if (shardRepository.addToShard(memeId, shard, delta) > 0) {
+                shardedVotes.increment();
+                return;
+            }
+            // Shards removed by a cool-down on another instance; recreated once the meme is hot again
+            shardCounts.remove(memeId);
+        }
+        memeRepository.adjustVoteCount(memeId, delta);
+    }
+
+    public int shardCount(Long memeId) {
+        return shardCounts.getOrDefault(memeId, 1);
+    }
+
+    /**
+     * Folds all shard deltas into {@code memes.vote_count}, one transaction per meme, then drops the
+     * empty shards of memes that cooled down. A shard that took a vote after its compaction stays and
+     * is reused if the meme gets hot again. Returns the number of shard rows compacted.
+     */
+    @Scheduled(fixedDelayString = "${memevote.votes.shards.compact-interval-ms:5000}")
+    public int compact() {
+        Set<Long> memeIds = new LinkedHashSet<>(shardRepository.findUncompactedMemeIds());
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int compacted = 0;
+        for (Long memeId : memeIds) {
+            try {
+                Integer rows = transactionTemplate.execute(status -> compactMeme(memeId));
+                compacted += rows != null ? rows : 0;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to compact vote shards of meme {}, will retry", memeId, e);
+            }
+        }
+        compactedShards.increment(compacted);
+
+        long cutoff = System.currentTimeMillis() - coolDownMillis;
+        rates.entrySet().removeIf(rate -> rate.getValue().lastVoteAt() < cutoff);
+
+        List<Long> cold = new ArrayList<>();
+        for (Long memeId : shardCounts.keySet()) {
+            if (!rates.containsKey(memeId) && shardCounts.remove(memeId) != null) {
+                cold.add(memeId);
+            }
+        }
+        if (!cold.isEmpty()) {
+            transactionTemplate.execute(status -> shardRepository.deleteEmptyShards(cold));
+        }
+        return compacted;
+    }
+
+    private int compactMeme(Long memeId) {
+        // Meme row before shards, the order a vote takes them (foreign key check, then shard update)
+        if (!memeRepository.lockById(memeId).isPresent()) {
+            // Meme deleted; its shards count nothing
+            shardRepository.deleteByMemeId(memeId);
+            return 0;
+        }
+        // Locked so concurrent compactions on other instances cannot fold the same delta twice
+        List<MemeVoteShard> shards = shardRepository.lockByMemeId(memeId);
+        long total = 0;
+        for (MemeVoteShard shard : shards) {
+            total += shard.getDelta();
+        }
+        if (total != 0) {
+            memeRepository.adjustVoteCount(memeId, total);
+        }
+        int compacted = 0;
+        for (MemeVoteShard shard : shards) {
+            if (shard.getDelta() != 0) {
+                shardRepository.subtractCompacted(shard.getId(), shard.getDelta());
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Returns the shard count to use, growing it when the meme's vote rate calls for more shards.
+     */
+    private int shardsFor(Long memeId, int votesThisSecond) {
+        int current = shardCount(memeId);
+        int wanted = Math.min(maxShards, Integer.highestOneBit(Math.max(1, votesThisSecond / hotVotesPerSecond)) * 2);
+        if (votesThisSecond < hotVotesPerSecond || wanted <= current) {
+            return current;
+        }
+        synchronized (shardCounts) {
+            current = shardCount(memeId);
+            if (wanted > current) {
+                createShards(memeId, current > 1 ? current : 0, wanted);
+                shardCounts.put(memeId, wanted);
+                logger.info("Striping vote counter of meme {} over {} shards", memeId, wanted);
+                current = wanted;
+            }
+        }
+        return current;
+    }
+
+    private void createShards(Long memeId, int from, int to) {
+        // Outside the vote's transaction so a concurrent creator cannot roll the vote back
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int shard = from; shard < to; shard++) {
+            int index = shard;
+            try {
+                transactionTemplate.execute(status -> shardRepository.insertIfAbsent(memeId, index));
+            } catch (DataIntegrityViolationException e) {
+                // Created by another instance in the meantime
+            }
+        }
+    }
+
+    private int recordVote(Long memeId) {
+        return rates.computeIfAbsent(memeId, id -> new VoteRate()).record(System.currentTimeMillis());
+    }
+
+    /**
+     * Votes of a meme within the current one-second window.
+     */
+    private static final class VoteRate {
+        private long windowStart;
+        private int votes;
+        private volatile long lastVoteAt;
+
+        private synchronized int record(long now) {
+            if (now - windowStart >= 1000) {
+                windowStart = now;
+                votes = 0;
+            }
+            lastVoteAt = now;
+            return ++votes;
+        }
+
+        private long lastVoteAt() {
+            return lastVoteAt;
+        }
+    }
+}
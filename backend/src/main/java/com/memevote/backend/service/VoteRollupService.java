@@ -0,0 +1,303 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.dto.response.VoteBucketDto;
+import com.memevote.backend.dto.response.VoteHistoryResponse;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.exception.BadRequestException;
+import com.memevote.backend.model.RollupResolution;
+import com.memevote.backend.model.VoteRollup;
+import com.memevote.backend.repository.VoteRollupRepository;
+import com.memevote.backend.repository.projection.MemeVoteTotal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains {@code vote_rollups}, the per-meme vote time series used for trend queries. Vote events
+ * are summed in memory per minute and written every {@code memevote.votes.rollup.flush-interval-ms};
+ * minute buckets older than {@code minute-retention-hours} are downsampled into hour buckets and
+ * hour buckets older than {@code hour-retention-days} into day buckets.
+ * Votes cast before the table existed are not backfilled.
+ */
+@Service
+public class VoteRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteRollupService.class);
+
+    // Longest window trend queries accept
+    public static final int MAX_WINDOW_HOURS = 24 * 365;
+
+    // Creates the bucket with zero votes so the UPDATE below always has a row to add to
+    private static final String CREATE_BUCKET_SQL =
+            "INSERT INTO vote_rollups (meme_id, resolution, bucket_start, votes) SELECT ?, ?, ?, 0 FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM vote_rollups WHERE meme_id = ? AND resolution = ? AND bucket_start = ?)";
+    private static final String ADD_VOTES_SQL =
+            "UPDATE vote_rollups SET votes = votes + ? WHERE meme_id = ? AND resolution = ? AND bucket_start = ?";
+
+    private static final Comparator<Bucket> LOCK_ORDER = Comparator
+            .comparing((Bucket bucket) -> bucket.memeId)
+            .thenComparing(bucket -> bucket.resolution)
+            .thenComparing(bucket -> bucket.start);
+
+    @Autowired
+    private VoteRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.votes.rollup.minute-retention-hours:48}")
+    private int minuteRetentionHours = 48;
+
+    @Value("${memevote.votes.rollup.hour-retention-days:30}")
+    private int hourRetentionDays = 30;
+
+    @Value("${memevote.votes.rollup.downsample-batch-size:5000}")
+    private int downsampleBatchSize = 5000;
+
+    // Net votes per minute bucket not yet written, guarded by this
+    private Map<Bucket, Long> pending = new HashMap<>();
+
+    private Counter writtenBuckets;
+    private Counter downsampledBuckets;
+
+    @PostConstruct
+    void registerMetrics() {
+        writtenBuckets = Counter.builder("memevote.votes.rollups.written")
+                .description("Minute buckets added to vote_rollups").register(meterRegistry);
+        downsampledBuckets = Counter.builder("memevote.votes.rollups.downsampled")
+                .description("Vote rollup buckets merged into a coarser resolution").register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteChanged(VoteChangedEvent event) {
+        record(event.getMemeId(), LocalDateTime.now(), event.isVoted() ? 1L : -1L);
+    }
+
+    synchronized void record(Long memeId, LocalDateTime at, long votes) {
+        pending.merge(new Bucket(memeId, RollupResolution.MINUTE, RollupResolution.MINUTE.bucketStart(at)),
+                votes, Long::sum);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemeDeleted(MemeDeletedEvent event) {
+        synchronized (this) {
+            pending.keySet().removeIf(bucket -> bucket.memeId.equals(event.getMemeId()));
+        }
+        // The deleting transaction has already committed, so run in a new one
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.execute(status -> rollupRepository.deleteByMemeId(event.getMemeId()));
+    }
+
+    /**
+     * Net votes of the meme over the last {@code window}, including votes not written yet.
+     */
+    public long votesInWindow(Long memeId, Duration window) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minus(window);
+        long votes = rollupRepository.sumVotes(memeId, from, now.plusMinutes(1));
+        synchronized (this) {
+            for (Map.Entry<Bucket, Long> entry : pending.entrySet()) {
+                if (entry.getKey().memeId.equals(memeId) && !entry.getKey().start.isBefore(from)) {
+                    votes += entry.getValue();
+                }
+            }
+        }
+        return votes;
+    }
+
+    /**
+     * The {@code limit} memes with the most net votes over the last {@code window}, most voted first.
+     * Votes from the current flush interval are not included.
+     */
+    public List<MemeVoteTotal> topMemes(Duration window, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        return rollupRepository.findTopMemes(now.minus(window), now.plusMinutes(1), PageRequest.of(0, limit));
+    }
+
+    /**
+     * The meme's net votes over the last {@code window} and its buckets of one resolution in that
+     * window, oldest first. Minute buckets only cover the last {@code minute-retention-hours} and hour
+     * buckets the last {@code hour-retention-days}; earlier votes appear at a coarser resolution only.
+     */
+    public VoteHistoryResponse history(Long memeId, RollupResolution resolution, Duration window) {
+        LocalDateTime now = LocalDateTime.now();
+        List<VoteBucketDto> buckets = new ArrayList<>();
+        for (VoteRollup rollup : rollupRepository.findSeries(memeId, resolution,
+                resolution.bucketStart(now.minus(window)), now.plusMinutes(1))) {
+            buckets.add(new VoteBucketDto(rollup.getBucketStart(), rollup.getVotes()));
+        }
+        return new VoteHistoryResponse(memeId, resolution.name(), votesInWindow(memeId, window), buckets);
+    }
+
+    /**
+     * The trend window for a request parameter.
+     *
+     * @throws BadRequestException if {@code hours} is not between 1 and {@link #MAX_WINDOW_HOURS}
+     */
+    public static Duration window(int hours) {
+        if (hours < 1 || hours > MAX_WINDOW_HOURS) {
+            throw new BadRequestException("hours must be between 1 and " + MAX_WINDOW_HOURS);
+        }
+        return Duration.ofHours(hours);
+    }
+
+    /**
+     * Adds the pending minute buckets to the table in one transaction. On failure they are merged
+     * back and retried by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${memevote.votes.rollup.flush-interval-ms:10000}")
+    public int flush() {
+        Map<Bucket, Long> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                addVotes(batch);
+                return null;
+            });
+            writtenBuckets.increment(batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write {} vote rollup buckets, will retry", batch.size(), e);
+            synchronized (this) {
+                batch.forEach((bucket, votes) -> pending.merge(bucket, votes, Long::sum));
+            }
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Moves expired minute buckets into hour buckets and expired hour buckets into day buckets.
+     * Returns the number of buckets merged into coarser ones.
+     */
+    @Scheduled(initialDelayString = "${memevote.votes.rollup.downsample-interval-ms:600000}",
+               fixedDelayString = "${memevote.votes.rollup.downsample-interval-ms:600000}")
+    public int downsample() {
+        LocalDateTime now = LocalDateTime.now();
+        int merged = downsample(RollupResolution.MINUTE, RollupResolution.HOUR, now.minusHours(minuteRetentionHours));
+        merged += downsample(RollupResolution.HOUR, RollupResolution.DAY, now.minusDays(hourRetentionDays));
+        downsampledBuckets.increment(merged);
+        if (merged > 0) {
+            logger.info("Downsampled {} vote rollup buckets", merged);
+        }
+        return merged;
+    }
+
+    private int downsample(RollupResolution source, RollupResolution target, LocalDateTime before) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int merged = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> {
+                // Locked so another instance downsampling at the same time cannot count them twice
+                List<VoteRollup> rows = rollupRepository.findOlderThan(source, before,
+                        PageRequest.of(0, downsampleBatchSize));
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                Map<Bucket, Long> coarser = new HashMap<>();
+                List<Long> ids = new ArrayList<>(rows.size());
+                for (VoteRollup row : rows) {
+                    coarser.merge(new Bucket(row.getMemeId(), target, target.bucketStart(row.getBucketStart())),
+                            row.getVotes(), Long::sum);
+                    ids.add(row.getId());
+                }
+                addVotes(coarser);
+                rollupRepository.deleteByIds(ids);
+                return rows.size();
+            });
+            int rows = batch != null ? batch : 0;
+            merged += rows;
+            if (rows < downsampleBatchSize) {
+                return merged;
+            }
+        }
+    }
+
+    private void addVotes(Map<Bucket, Long> votesByBucket) {
+        // A fixed order keeps concurrent flushes from deadlocking on each other's rows
+        List<Bucket> buckets = new ArrayList<>(votesByBucket.keySet());
+        buckets.sort(LOCK_ORDER);
+
+        List<Object[]> creates = new ArrayList<>(buckets.size());
+        List<Object[]> additions = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets) {
+            Timestamp start = Timestamp.valueOf(bucket.start);
+            creates.add(new Object[]{bucket.memeId, bucket.resolution.name(), start,
+                    bucket.memeId, bucket.resolution.name(), start});
+            additions.add(new Object[]{votesByBucket.get(bucket), bucket.memeId, bucket.resolution.name(), start});
+        }
+        jdbcTemplate.batchUpdate(CREATE_BUCKET_SQL, creates);
+        jdbcTemplate.batchUpdate(ADD_VOTES_SQL, additions);
+    }
+
+    private static final class Bucket {
+        private final Long memeId;
+        private final RollupResolution resolution;
+        private final LocalDateTime start;
+
+        private Bucket(Long memeId, RollupResolution resolution, LocalDateTime start) {
+            this.memeId = memeId;
+            this.resolution = resolution;
+            this.start = start;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Bucket)) {
+                return false;
+            }
+            Bucket other = (Bucket) o;
+            return memeId.equals(other.memeId) && resolution == other.resolution && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(memeId, resolution, start);
+        }
+    }
+}
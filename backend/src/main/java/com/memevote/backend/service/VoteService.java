@@ -1,22 +1,47 @@
 package com.memevote.backend.service;
 
+import com.memevote.backend.dto.response.CursorPage;
 import com.memevote.backend.dto.response.MessageResponse;
-import com.memevote.backend.dto.websocket.WebSocketEvent;
+import com.memevote.backend.dto.response.VoteStateResponse;
+import com.memevote.backend.dto.response.VoterDto;
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.exception.BadRequestException;
 import com.memevote.backend.model.Meme;
 import com.memevote.backend.model.User;
 import com.memevote.backend.model.Vote;
 import com.memevote.backend.repository.MemeRepository;
 import com.memevote.backend.repository.VoteRepository;
+import com.memevote.backend.repository.projection.MemeVoteCount;
+import com.memevote.backend.repository.projection.MemeVoter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class VoteService {
+    private static final Logger logger = LoggerFactory.getLogger(VoteService.class);
+
+    private static final int MAX_VOTERS_PAGE_SIZE = 100;
+    private static final int MAX_VOTE_ATTEMPTS = 3;
+
     @Autowired
     private VoteRepository voteRepository;
 
@@ -27,11 +52,28 @@ public class VoteService {
     private UserService userService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private VoteCounter voteCounter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @Autowired
+    private UserVoteCache userVoteCache;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Transactional
     public MessageResponse toggleVote(Long memeId) {
         User currentUser = userService.getCurrentUser();
 
+        if (voteWriteBuffer.isEnabled()) {
+            return toggleBufferedVote(memeId, currentUser);
+        }
+
         Meme meme = memeRepository.findById(memeId)
                 .orElseThrow(() -> new RuntimeException("Meme not found"));
 
@@ -40,18 +82,10 @@ public class VoteService {
         if (existingVote.isPresent()) {
             // Remove vote
             voteRepository.delete(existingVote.get());
+            voteCounter.adjust(memeId, -1);
 
             // Send WebSocket update
-            Long newVoteCount = voteRepository.countByMemeId(memeId);
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("memeId", memeId);
-            payload.put("voteCount", newVoteCount);
-            payload.put("userVoted", false);
-
-            WebSocketEvent<Map<String, Object>> event = new WebSocketEvent<>();
-            event.setType("VOTE_UPDATED");
-            event.setPayload(payload);
-            messagingTemplate.convertAndSend("/topic/memes/" + memeId + "/votes", event);
+            notifyVoteChanged(memeId, currentUser.getId(), false, memeRepository.findVoteCountById(memeId));
 
             return new MessageResponse("Vote removed successfully");
         } else {
@@ -60,20 +94,175 @@ public class VoteService {
             vote.setUser(currentUser);
             vote.setMeme(meme);
             voteRepository.save(vote);
+            voteCounter.adjust(memeId, 1);
 
             // Send WebSocket update
-            Long newVoteCount = voteRepository.countByMemeId(memeId);
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("memeId", memeId);
-            payload.put("voteCount", newVoteCount);
-            payload.put("userVoted", true);
-
-            WebSocketEvent<Map<String, Object>> event = new WebSocketEvent<>();
-            event.setType("VOTE_UPDATED");
-            event.setPayload(payload);
-            messagingTemplate.convertAndSend("/topic/memes/" + memeId + "/votes", event);
+            notifyVoteChanged(memeId, currentUser.getId(), true, memeRepository.findVoteCountById(memeId));
 
             return new MessageResponse("Vote added successfully");
         }
     }
+
+    /**
+     * Write-behind toggle: the vote is recorded in {@link VoteWriteBuffer} and reaches the database
+     * with the next flush. The current state comes from the buffer, else from {@link UserVoteCache}.
+     */
+    private MessageResponse toggleBufferedVote(Long memeId, User currentUser) {
+        if (!memeRepository.existsById(memeId)) {
+            throw new RuntimeException("Meme not found");
+        }
+
+        boolean voted = voteWriteBuffer.toggle(currentUser.getId(), memeId,
+                () -> userVoteCache.hasVoted(currentUser.getId(), memeId));
+
+        notifyVoteChanged(memeId, currentUser.getId(), voted, bufferedVoteCount(memeId));
+        return new MessageResponse(voted ? "Vote added successfully" : "Vote removed successfully");
+    }
+
+    /**
+     * Sets the current user's vote on the meme to {@code voted}. Idempotent: the vote is written with
+     * a single conditional insert or delete, and only a changed row updates the counter and notifies
+     * subscribers. A request that loses a race against a concurrent one for the same vote is retried,
+     * and then finds the vote already in the requested state.
+     */
+    public MessageResponse setVote(Long memeId, boolean voted) {
+        User currentUser = userService.getCurrentUser();
+
+        boolean changed;
+        if (voteWriteBuffer.isEnabled()) {
+            changed = setBufferedVote(memeId, currentUser.getId(), voted);
+        } else {
+            changed = setPersistedVote(memeId, currentUser.getId(), voted);
+        }
+
+        if (voted) {
+            return new MessageResponse(changed ? "Vote added successfully" : "Vote already present");
+        }
+        return new MessageResponse(changed ? "Vote removed successfully" : "No vote to remove");
+    }
+
+    private boolean setPersistedVote(Long memeId, Long userId, boolean voted) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Boolean changed = transactionTemplate.execute(status -> writeVote(memeId, userId, voted));
+                return Boolean.TRUE.equals(changed);
+            } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+                // Unique key or deadlock against a concurrent vote; its commit is visible to the next attempt
+                if (attempt >= MAX_VOTE_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Retrying vote of user {} on meme {} after conflict: {}", userId, memeId, e.getMessage());
+            }
+        }
+    }
+
+    private boolean writeVote(Long memeId, Long userId, boolean voted) {
+        int rows = voted
+                ? voteRepository.insertIfAbsent(userId, memeId, LocalDateTime.now())
+                : voteRepository.deleteByUserIdAndMemeId(userId, memeId);
+        if (rows == 0) {
+            // Only the no-op path pays for telling "already in that state" from "no such meme"
+            if (!memeRepository.existsById(memeId)) {
+                throw new RuntimeException("Meme not found");
+            }
+            return false;
+        }
+
+        voteCounter.adjust(memeId, voted ? rows : -rows);
+        notifyVoteChanged(memeId, userId, voted, memeRepository.findVoteCountById(memeId));
+        return true;
+    }
+
+    private boolean setBufferedVote(Long memeId, Long userId, boolean voted) {
+        if (!memeRepository.existsById(memeId)) {
+            throw new RuntimeException("Meme not found");
+        }
+
+        boolean changed = voteWriteBuffer.set(userId, memeId, voted, () -> userVoteCache.hasVoted(userId, memeId));
+        if (changed) {
+            notifyVoteChanged(memeId, userId, voted, bufferedVoteCount(memeId));
+        }
+        return changed;
+    }
+
+    private long bufferedVoteCount(Long memeId) {
+        Long persistedCount = memeRepository.findVoteCountById(memeId);
+        return (persistedCount != null ? persistedCount : 0L) + voteWriteBuffer.pendingDelta(memeId);
+    }
+
+    private void notifyVoteChanged(Long memeId, Long userId, boolean voted, Long voteCount) {
+        // Caches and the VOTE_UPDATED broadcast pick the change up once the transaction commits
+        eventPublisher.publishEvent(new VoteChangedEvent(memeId, userId, voted, voteCount));
+    }
+
+    /**
+     * Vote counts of the given memes and whether the current user voted for them, in request order.
+     * Counts come from one query over the memes and their counter shards and the flags from
+     * {@link UserVoteCache}; anonymous callers get {@code userVoted} false. Unknown meme ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<VoteStateResponse> getVoteStates(List<Long> memeIds) {
+        User currentUser = null;
+        try {
+            currentUser = userService.getCurrentUser();
+        } catch (Exception e) {
+            // User is not authenticated - no vote flags
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(memeIds);
+        Map<Long, Long> counts = new HashMap<>();
+        for (MemeVoteCount count : memeRepository.findVoteCountsByIds(ids)) {
+            counts.put(count.getId(), count.getVoteCount() != null ? count.getVoteCount() : 0L);
+        }
+        Set<Long> voted = currentUser != null
+                ? userVoteCache.votedAmong(currentUser.getId(), counts.keySet())
+                : Collections.emptySet();
+
+        List<VoteStateResponse> states = new ArrayList<>(counts.size());
+        for (Long memeId : ids) {
+            Long count = counts.get(memeId);
+            if (count != null) {
+                states.add(new VoteStateResponse(memeId, count + voteWriteBuffer.pendingDelta(memeId),
+                        voted.contains(memeId)));
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Returns one page of a meme's voters, newest first. The cursor is the vote id of the last
+     * voter of the previous page; a null or empty cursor starts from the newest vote.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<VoterDto> getVoters(Long memeId, String cursor, int size) {
+        if (!memeRepository.existsById(memeId)) {
+            throw new RuntimeException("Meme not found");
+        }
+
+        long beforeVoteId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                beforeVoteId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_VOTERS_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page follows
+        List<MemeVoter> voters = voteRepository.findVotersBefore(memeId, beforeVoteId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = voters.size() > pageSize;
+        if (hasNext) {
+            voters = voters.subList(0, pageSize);
+        }
+
+        List<VoterDto> content = new ArrayList<>(voters.size());
+        for (MemeVoter voter : voters) {
+            content.add(new VoterDto(voter.getId(), voter.getUsername(),
+                    voter.getProfilePicture() != null ? voter.getProfilePicture() : "default-avatar.png"));
+        }
+        String nextCursor = hasNext ? String.valueOf(voters.get(voters.size() - 1).getVoteId()) : null;
+        return new CursorPage<>(content, nextCursor, hasNext, content.size());
+    }
 }
@@ -0,0 +1,133 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.dto.websocket.WebSocketEvent;
+import com.memevote.backend.event.VoteChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces {@code VOTE_UPDATED} broadcasts on {@code /topic/memes/{id}/votes}. Committed votes only
+ * record the meme's latest count; a dedicated thread sends it every {@code memevote.votes.broadcast-interval-ms},
+ * so subscribers of a hot meme get at most one update per interval instead of one per vote. The thread
+ * is not shared with the {@code @Scheduled} maintenance jobs, so a long reconcile or migration cannot
+ * hold broadcasts back.
+ */
+@Service
+public class VoteUpdatePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteUpdatePublisher.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.votes.broadcast-interval-ms:250}")
+    private long broadcastIntervalMs = 250;
+
+    private ScheduledExecutorService scheduler;
+
+    // Latest unsent vote count per meme
+    private final Map<Long, Long> pendingCounts = new ConcurrentHashMap<>();
+
+    private Counter sent;
+    private Counter suppressed;
+
+    @PostConstruct
+    void init() {
+        registerMetrics();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vote-broadcasts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::broadcastSafely, broadcastIntervalMs, broadcastIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void registerMetrics() {
+        sent = Counter.builder("memevote.votes.broadcasts").tag("result", "sent")
+                .description("VOTE_UPDATED messages sent or folded into a later one").register(meterRegistry);
+        suppressed = Counter.builder("memevote.votes.broadcasts").tag("result", "suppressed")
+                .description("VOTE_UPDATED messages sent or folded into a later one").register(meterRegistry);
+    }
+
+    /**
+     * Queues the count of a committed vote; a rolled-back vote is never broadcast.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteChanged(VoteChangedEvent event) {
+        if (event.getVoteCount() != null) {
+            voteCountChanged(event.getMemeId(), event.getVoteCount());
+        }
+    }
+
+    /**
+     * Records the meme's new vote count for the next broadcast, replacing any count not sent yet.
+     */
+    public void voteCountChanged(Long memeId, Long voteCount) {
+        if (pendingCounts.put(memeId, voteCount) != null) {
+            suppressed.increment();
+        }
+    }
+
+    private void broadcastSafely() {
+        try {
+            broadcast();
+        } catch (RuntimeException e) {
+            // An exception escaping the task would cancel all later broadcasts
+            logger.error("Failed to broadcast vote counts", e);
+        }
+    }
+
+    public void broadcast() {
+        for (Long memeId : pendingCounts.keySet()) {
+            Long voteCount = pendingCounts.remove(memeId);
+            if (voteCount == null) {
+                continue;
+            }
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("memeId", memeId);
+            payload.put("voteCount", voteCount);
+
+            WebSocketEvent<Map<String, Object>> event = new WebSocketEvent<>();
+            event.setType("VOTE_UPDATED");
+            event.setPayload(payload);
+            try {
+                messagingTemplate.convertAndSend("/topic/memes/" + memeId + "/votes", event);
+                sent.increment();
+            } catch (MessagingException e) {
+                // A newer count supersedes this one; otherwise it is lost like any undelivered message
+                logger.warn("Failed to broadcast vote count of meme {}", memeId, e);
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return pendingCounts.size();
+    }
+}
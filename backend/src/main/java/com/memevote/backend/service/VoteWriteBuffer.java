@@ -0,0 +1,349 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.VotesFlushedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Optional write-behind buffer for votes ({@code memevote.votes.write-behind.enabled}). Toggles are
+ * recorded as per-(user, meme) intents in memory; toggling back to the persisted state cancels the
+ * intent, so bursts of repeated toggles cost nothing. Intents are flushed to {@code votes} and
+ * {@code memes.vote_count} in JDBC batches every {@code flush-interval-ms}, as soon as
+ * {@code max-pending} intents are buffered, and on shutdown. Those two settings bound how many
+ * votes a crash can lose.
+ */
+@Service
+public class VoteWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteWriteBuffer.class);
+
+    // Conditional so a vote for a deleted meme or an already persisted vote is skipped instead of failing the batch
+    private static final String INSERT_VOTE_SQL =
+            "INSERT INTO votes (user_id, meme_id, created_at) SELECT ?, ?, ? FROM DUAL " +
+            "WHERE EXISTS (SELECT 1 FROM memes WHERE id = ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM votes WHERE user_id = ? AND meme_id = ?)";
+    private static final String DELETE_VOTE_SQL = "DELETE FROM votes WHERE user_id = ? AND meme_id = ?";
+    private static final String ADJUST_COUNT_SQL = "UPDATE memes SET vote_count = vote_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${memevote.votes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${memevote.votes.write-behind.max-pending:10000}")
+    private int maxPending = 10000;
+
+    // Toggles record under the read lock; a flush swaps the buffers under the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<VoteKey, Intent> pending = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> pendingDeltas = new ConcurrentHashMap<>();
+    // Intents taken by a running flush, still consulted for reads until it commits
+    private volatile Map<VoteKey, Intent> flushing = new HashMap<>();
+    private volatile Map<Long, Long> flushingDeltas = new HashMap<>();
+    // Incremented when a flush finishes; a persisted state read before it may be outdated
+    private volatile long flushEpoch;
+
+    private Counter flushedVotes;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("memevote.votes.write-behind.pending", this, buffer -> buffer.pending.size())
+                .description("Buffered vote intents not yet flushed").register(meterRegistry);
+        flushedVotes = Counter.builder("memevote.votes.write-behind.flushed")
+                .description("Vote rows inserted or deleted by write-behind flushes").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Flips the user's vote on the meme in the buffer and returns whether the user now votes for it.
+     * {@code persistedState} supplies the vote state in the database when nothing is buffered.
+     */
+    public boolean toggle(Long userId, Long memeId, BooleanSupplier persistedState) {
+        boolean[] voted = new boolean[1];
+        record(userId, memeId, null, persistedState, voted);
+        return voted[0];
+    }
+
+    /**
+     * Sets the user's vote on the meme in the buffer and returns whether that changed the vote state.
+     */
+    public boolean set(Long userId, Long memeId, boolean voted, BooleanSupplier persistedState) {
+        return record(userId, memeId, voted, persistedState, new boolean[1]);
+    }
+
+    /**
+     * Moves the vote to {@code desired}, or flips it when {@code desired} is null, storing the
+     * resulting state in {@code result}. Returns whether the state changed.
+     */
+    private boolean record(Long userId, Long memeId, Boolean desired, BooleanSupplier persistedState,
+                           boolean[] result) {
+        VoteKey key = new VoteKey(userId, memeId);
+        // Resolved before compute() so a cache miss does not query the database under the map's bin lock
+        long epoch = flushEpoch;
+        Boolean persisted = pending.containsKey(key) || flushing.containsKey(key)
+                ? null : persistedState.getAsBoolean();
+        boolean[] changed = new boolean[1];
+        swapLock.readLock().lock();
+        try {
+            pending.compute(key, (k, intent) -> {
+                boolean baseline;
+                boolean current;
+                if (intent != null) {
+                    baseline = intent.baseline;
+                    current = intent.voted;
+                } else {
+                    Intent inFlight = flushing.get(k);
+                    baseline = inFlight != null ? inFlight.voted
+                            : persisted != null && epoch == flushEpoch ? persisted : persistedState.getAsBoolean();
+                    current = baseline;
+                }
+                result[0] = desired != null ? desired : !current;
+                if (result[0] == current) {
+                    return intent;
+                }
+                changed[0] = true;
+                pendingDeltas.merge(memeId, result[0] ? 1L : -1L, Long::sum);
+                return result[0] == baseline ? null : new Intent(baseline, result[0], LocalDateTime.now());
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+
+        if (pending.size() >= maxPending) {
+            flush();
+        }
+        return changed[0];
+    }
+
+    /**
+     * Buffered vote state of the user for the meme, or null when nothing is buffered.
+     */
+    public Boolean pendingState(Long userId, Long memeId) {
+        VoteKey key = new VoteKey(userId, memeId);
+        Intent intent = pending.get(key);
+        if (intent == null) {
+            intent = flushing.get(key);
+        }
+        return intent != null ? intent.voted : null;
+    }
+
+    /**
+     * Vote count change of the meme that is buffered but not yet in {@code memes.vote_count}.
+     */
+    public long pendingDelta(Long memeId) {
+        return pendingDeltas.getOrDefault(memeId, 0L) + flushingDeltas.getOrDefault(memeId, 0L);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${memevote.votes.write-behind.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!pending.isEmpty()) {
+            logger.info("Flushing {} buffered votes before shutdown", pending.size());
+            flush();
+        }
+    }
+
+    /**
+     * Writes all buffered intents in one transaction. On failure the intents are merged back
+     * into the buffer and retried by the next flush.
+     */
+    public synchronized int flush() {
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            flushing = pending;
+            flushingDeltas = pendingDeltas;
+            pending = new ConcurrentHashMap<>();
+            pendingDeltas = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        int written;
+        try {
+            Integer result = new TransactionTemplate(transactionManager).execute(status -> write(flushing));
+            written = result != null ? result : 0;
+            flushedVotes.increment(written);
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush {} buffered votes, will retry", flushing.size(), e);
+            requeue(flushing);
+            return 0;
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                flushing = new HashMap<>();
+                flushingDeltas = new HashMap<>();
+                flushEpoch++;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        // A vote count read from the database before the commit and combined with the pending deltas
+        // after it misses the flushed votes; listeners must not keep results assembled across a flush
+        eventPublisher.publishEvent(new VotesFlushedEvent(written));
+        return written;
+    }
+
+    private int write(Map<VoteKey, Intent> intents) {
+        List<VoteKey> insertKeys = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<VoteKey> deleteKeys = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Map.Entry<VoteKey, Intent> entry : intents.entrySet()) {
+            VoteKey key = entry.getKey();
+            if (entry.getValue().voted) {
+                insertKeys.add(key);
+                inserts.add(new Object[]{key.userId, key.memeId, Timestamp.valueOf(entry.getValue().at),
+                        key.memeId, key.userId, key.memeId});
+            } else {
+                deleteKeys.add(key);
+                deletes.add(new Object[]{key.userId, key.memeId});
+            }
+        }
+
+        // Adjust counters by the rows actually changed, not by the intents
+        Map<Long, Long> deltas = new HashMap<>();
+        int written = 0;
+        if (!inserts.isEmpty()) {
+            written += collectDeltas(jdbcTemplate.batchUpdate(INSERT_VOTE_SQL, inserts), insertKeys, 1L, deltas);
+        }
+        if (!deletes.isEmpty()) {
+            written += collectDeltas(jdbcTemplate.batchUpdate(DELETE_VOTE_SQL, deletes), deleteKeys, -1L, deltas);
+        }
+
+        List<Object[]> adjustments = new ArrayList<>();
+        for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                adjustments.add(new Object[]{delta.getValue(), delta.getKey()});
+            }
+        }
+        if (!adjustments.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADJUST_COUNT_SQL, adjustments);
+        }
+        return written;
+    }
+
+    private static int collectDeltas(int[] rowCounts, List<VoteKey> keys, long sign, Map<Long, Long> deltas) {
+        int written = 0;
+        for (int i = 0; i < rowCounts.length; i++) {
+            // Drivers that rewrite batches report success without a row count
+            int rows = rowCounts[i] == Statement.SUCCESS_NO_INFO ? 1 : Math.max(rowCounts[i], 0);
+            if (rows > 0) {
+                deltas.merge(keys.get(i).memeId, sign * rows, Long::sum);
+                written += rows;
+            }
+        }
+        return written;
+    }
+
+    private void requeue(Map<VoteKey, Intent> failed) {
+        swapLock.readLock().lock();
+        try {
+            for (Map.Entry<VoteKey, Intent> entry : failed.entrySet()) {
+                Intent older = entry.getValue();
+                Long memeId = entry.getKey().memeId;
+                pendingDeltas.merge(memeId, older.voted ? 1L : -1L, Long::sum);
+                // A newer intent started from the failed one's target, so keep the older baseline
+                pending.compute(entry.getKey(), (k, newer) -> {
+                    if (newer == null) {
+                        return older;
+                    }
+                    return newer.voted == older.baseline ? null : new Intent(older.baseline, newer.voted, newer.at);
+                });
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static final class VoteKey {
+        private final Long userId;
+        private final Long memeId;
+
+        private VoteKey(Long userId, Long memeId) {
+            this.userId = userId;
+            this.memeId = memeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof VoteKey)) {
+                return false;
+            }
+            VoteKey other = (VoteKey) o;
+            return userId.equals(other.userId) && memeId.equals(other.memeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, memeId);
+        }
+    }
+
+    private static final class Intent {
+        // Vote state in the database when the intent was created
+        private final boolean baseline;
+        private final boolean voted;
+        private final LocalDateTime at;
+
+        private Intent(boolean baseline, boolean voted, LocalDateTime at) {
+            this.baseline = baseline;
+            this.voted = voted;
+            this.at = at;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.memevote.backend.service.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Storage for image bytes outside the primary database. Blobs are immutable and addressed by the
+ * key returned from {@link #put}; storing the same content twice may return the same key, so a blob
+ * must only be deleted once nothing references its key any more.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams {@code content} into the store without holding it in memory. The stream is not closed.
+     */
+    StoredBlob put(InputStream content) throws IOException;
+
+    /**
+     * The blob as a resource to stream from, or empty if no blob has this key.
+     */
+    Optional<Resource> get(String key);
+
+    /**
+     * Removes the blob; returns false if it did not exist.
+     */
+    boolean delete(String key) throws IOException;
+}
@@ -0,0 +1,110 @@
+package com.memevote.backend.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed {@link BlobStore} on the local filesystem, the default
+ * ({@code memevote.images.blob-store=filesystem}). A blob is stored under its SHA-256 hex digest at
+ * {@code <root>/ab/cd/abcd...}; uploads are first written to {@code <root>/tmp} while hashing and then
+ * moved into place atomically, so readers never see a partial file. Blobs are served as
+ * {@link FileSystemResource}s, streamed from the file rather than loaded onto the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "memevote.images.blob-store", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Value("${memevote.images.filesystem.root:data/images}")
+    private String root = "data/images";
+
+    private Path rootPath;
+    private Path tmpPath;
+
+    @PostConstruct
+    void init() throws IOException {
+        rootPath = Paths.get(root).toAbsolutePath().normalize();
+        tmpPath = rootPath.resolve("tmp");
+        Files.createDirectories(tmpPath);
+        logger.info("Storing image blobs in {}", rootPath);
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tmpPath, "upload-", ".part");
+        try {
+            long size = Files.copy(new DigestInputStream(content, digest), temp, StandardCopyOption.REPLACE_EXISTING);
+            String key = hex(digest.digest());
+            Path target = pathOf(key);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredBlob(key, size, key);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String key) {
+        if (!isKey(key)) {
+            return Optional.empty();
+        }
+        Path path = pathOf(key);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return isKey(key) && Files.deleteIfExists(pathOf(key));
+    }
+
+    private Path pathOf(String key) {
+        return rootPath.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static boolean isKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
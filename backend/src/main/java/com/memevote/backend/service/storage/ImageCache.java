@@ -0,0 +1,412 @@
+package com.memevote.backend.service.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the bytes of frequently served blobs in direct (off-heap) memory, so hot images are served
+ * without touching the blob store and without adding to the garbage-collected heap.
+ * <p>
+ * Memory is allocated in {@value #SLAB_SIZE}-byte slabs, up to {@code memevote.images.cache.max-bytes},
+ * and handed out in {@value #PAGE_SIZE}-byte pages, so entries of any size fit without fragmentation.
+ * Eviction is segmented LRU: new entries go to a probationary segment and are promoted to the protected
+ * segment (80% of the capacity) when requested again, so a burst of one-off images cannot flush the
+ * popular ones. Blobs are content-addressed and never change, so entries only need invalidating when a
+ * blob is deleted. An entry being streamed keeps its pages until the stream is closed, so eviction
+ * passes over it.
+ */
+@Component
+public class ImageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageCache.class);
+
+    static final int PAGE_SIZE = 64 * 1024;
+    static final int SLAB_SIZE = 4 * 1024 * 1024;
+    private static final int PAGES_PER_SLAB = SLAB_SIZE / PAGE_SIZE;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memevote.images.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${memevote.images.cache.max-bytes:67108864}")
+    private long maxBytes = 64 * 1024 * 1024;
+
+    // Larger blobs are always streamed from the blob store
+    @Value("${memevote.images.cache.max-entry-bytes:4194304}")
+    private long maxEntryBytes = 4 * 1024 * 1024;
+
+    // Only ever appended to, so streams read pages without taking the lock
+    private final List<ByteBuffer> slabs = new CopyOnWriteArrayList<>();
+    private int[] freePages = new int[0];
+    private int freePageCount;
+
+    // Both segments are in LRU order, eldest first; guarded by this
+    private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Entry> protectedSegment = new LinkedHashMap<>();
+    private long protectedBytes;
+    private long cachedBytes;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("memevote.images.cache.gets").tag("result", "hit")
+                .description("Image reads served from the cache").register(meterRegistry);
+        misses = Counter.builder("memevote.images.cache.gets").tag("result", "miss")
+                .description("Image reads served from the blob store").register(meterRegistry);
+        evictions = Counter.builder("memevote.images.cache.evictions")
+                .description("Images evicted from the cache to make room").register(meterRegistry);
+        Gauge.builder("memevote.images.cache.hit-ratio", this, ImageCache::hitRatio)
+                .description("Share of image reads served from the cache").register(meterRegistry);
+        Gauge.builder("memevote.images.cache.bytes", this, ImageCache::cachedBytes)
+                .description("Image bytes held in the cache").register(meterRegistry);
+        Gauge.builder("memevote.images.cache.allocated", this, ImageCache::allocatedBytes)
+                .description("Off-heap memory allocated by the cache").register(meterRegistry);
+    }
+
+    /**
+     * The blob's bytes, from the cache if present, otherwise from {@code loader}, caching them when the
+     * blob is small enough. The returned resource falls back to {@code loader} if its entry is evicted
+     * before it is read.
+     */
+    public Optional<Resource> open(String key, Supplier<Optional<Resource>> loader) throws IOException {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry entry = lookup(key);
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(new CachedResource(entry, loader));
+        }
+        misses.increment();
+
+        Optional<Resource> source = loader.get();
+        if (source.isPresent()) {
+            long length = source.get().contentLength();
+            if (length > 0 && length <= maxEntryBytes) {
+                entry = load(key, source.get(), (int) length);
+                if (entry != null) {
+                    return Optional.of(new CachedResource(entry, loader));
+                }
+            }
+        }
+        return source;
+    }
+
+    public synchronized void invalidate(String key) {
+        Entry entry = remove(key);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    public synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    public long allocatedBytes() {
+        return (long) slabs.size() * SLAB_SIZE;
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private synchronized Entry lookup(String key) {
+        Entry entry = probation.remove(key);
+        if (entry != null) {
+            // Requested again: promote, demoting the protected segment's eldest entries if it is over its share
+            protectedSegment.put(key, entry);
+            protectedBytes += entry.length;
+            long protectedCapacity = maxBytes * 4 / 5;
+            Iterator<Entry> eldest = protectedSegment.values().iterator();
+            while (protectedBytes > protectedCapacity && eldest.hasNext()) {
+                Entry demoted = eldest.next();
+                eldest.remove();
+                protectedBytes -= demoted.length;
+                probation.put(demoted.key, demoted);
+            }
+            return entry;
+        }
+        entry = protectedSegment.remove(key);
+        if (entry != null) {
+            protectedSegment.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Copies the resource into freshly reserved pages and adds it to the probationary segment; returns
+     * null if no room could be made.
+     */
+    private Entry load(String key, Resource source, int length) {
+        int[] pages = reserve((length + PAGE_SIZE - 1) / PAGE_SIZE);
+        if (pages == null) {
+            return null;
+        }
+        Entry entry = new Entry(key, pages, length);
+        try (ReadableByteChannel channel = source.readableChannel()) {
+            for (int i = 0; i < pages.length; i++) {
+                ByteBuffer page = page(pages[i]);
+                page.limit(Math.min(PAGE_SIZE, length - i * PAGE_SIZE));
+                while (page.hasRemaining()) {
+                    if (channel.read(page) < 0) {
+                        throw new IOException("Blob " + key + " shorter than " + length + " bytes");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to cache image blob {}", key, e);
+            release(entry);
+            return null;
+        }
+
+        synchronized (this) {
+            Entry existing = probation.containsKey(key) ? probation.get(key) : protectedSegment.get(key);
+            if (existing != null) {
+                // Loaded concurrently by another request
+                release(entry);
+                return existing;
+            }
+            probation.put(key, entry);
+            cachedBytes += length;
+            return entry;
+        }
+    }
+
+    private synchronized int[] reserve(int count) {
+        while (freePageCount < count && allocatedBytes() + SLAB_SIZE <= maxBytes) {
+            allocateSlab();
+        }
+        if (freePageCount < count && !evictFor(count)) {
+            return null;
+        }
+        int[] pages = new int[count];
+        for (int i = 0; i < count; i++) {
+            pages[i] = freePages[--freePageCount];
+        }
+        return pages;
+    }
+
+    private void allocateSlab() {
+        int first = slabs.size() * PAGES_PER_SLAB;
+        slabs.add(ByteBuffer.allocateDirect(SLAB_SIZE));
+        int[] grown = new int[freePages.length + PAGES_PER_SLAB];
+        System.arraycopy(freePages, 0, grown, 0, freePageCount);
+        freePages = grown;
+        for (int i = PAGES_PER_SLAB - 1; i >= 0; i--) {
+            freePages[freePageCount++] = first + i;
+        }
+    }
+
+    /**
+     * Evicts least recently used entries, probationary ones first, until {@code count} pages are free.
+     * Entries being streamed are skipped, as their pages only come back when the stream is closed; if
+     * the other entries cannot free enough, nothing is evicted and the caller does not cache.
+     */
+    private boolean evictFor(int count) {
+        List<Entry> victims = new ArrayList<>();
+        int reclaimable = freePageCount;
+        for (Map<String, Entry> segment : Arrays.asList(probation, protectedSegment)) {
+            Iterator<Entry> eldest = segment.values().iterator();
+            while (reclaimable < count && eldest.hasNext()) {
+                Entry entry = eldest.next();
+                if (entry.refs.get() == 1) {
+                    victims.add(entry);
+                    reclaimable += entry.pages.length;
+                }
+            }
+        }
+        if (reclaimable < count) {
+            return false;
+        }
+        // A stream may still open a victim after the check, leaving the pages short
+        for (Entry victim : victims) {
+            remove(victim.key);
+            evictions.increment();
+            release(victim);
+        }
+        return freePageCount >= count;
+    }
+
+    private Entry remove(String key) {
+        Entry entry = probation.remove(key);
+        if (entry == null) {
+            entry = protectedSegment.remove(key);
+            if (entry != null) {
+                protectedBytes -= entry.length;
+            }
+        }
+        if (entry != null) {
+            cachedBytes -= entry.length;
+        }
+        return entry;
+    }
+
+    private void release(Entry entry) {
+        if (entry.refs.decrementAndGet() == 0) {
+            synchronized (this) {
+                for (int page : entry.pages) {
+                    freePages[freePageCount++] = page;
+                }
+            }
+        }
+    }
+
+    /**
+     * A writable view of the page, positioned at its start.
+     */
+    private ByteBuffer page(int page) {
+        ByteBuffer view = slabs.get(page / PAGES_PER_SLAB).duplicate();
+        int offset = (page % PAGES_PER_SLAB) * PAGE_SIZE;
+        view.position(offset).limit(offset + PAGE_SIZE);
+        return view.slice();
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final int[] pages;
+        private final int length;
+        // One reference held by the cache, one per open stream; pages are freed when it reaches zero
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Entry(String key, int[] pages, int length) {
+            this.key = key;
+            this.pages = pages;
+            this.length = length;
+        }
+
+        private boolean retain() {
+            int current;
+            do {
+                current = refs.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!refs.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+
+    private final class CachedResource extends AbstractResource {
+        private final Entry entry;
+        private final Supplier<Optional<Resource>> loader;
+
+        private CachedResource(Entry entry, Supplier<Optional<Resource>> loader) {
+            this.entry = entry;
+            this.loader = loader;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (entry.retain()) {
+                return new PageInputStream(entry);
+            }
+            // Evicted and freed since the lookup
+            Optional<Resource> source = loader.get();
+            if (!source.isPresent()) {
+                throw new FileNotFoundException("Blob " + entry.key + " no longer exists");
+            }
+            return source.get().getInputStream();
+        }
+
+        @Override
+        public long contentLength() {
+            return entry.length;
+        }
+
+        @Override
+        public String getDescription() {
+            return "cached blob [" + entry.key + "]";
+        }
+    }
+
+    private final class PageInputStream extends InputStream {
+        private final Entry entry;
+        private int position;
+        private boolean closed;
+
+        private PageInputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= entry.length) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && position < entry.length) {
+                ByteBuffer page = page(entry.pages[position / PAGE_SIZE]);
+                page.position(position % PAGE_SIZE);
+                int chunk = Math.min(Math.min(length - read, page.remaining()), entry.length - position);
+                page.get(buffer, offset + read, chunk);
+                read += chunk;
+                position += chunk;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, entry.length - position));
+            position += (int) skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return entry.length - position;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+}
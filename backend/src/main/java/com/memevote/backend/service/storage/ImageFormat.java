@@ -0,0 +1,67 @@
+package com.memevote.backend.service.storage;
+
+import java.util.Optional;
+
+/**
+ * Image formats accepted for upload, recognized by their leading magic bytes rather than the
+ * client-supplied content type or file name.
+ */
+public enum ImageFormat {
+    PNG("image/png", ".png"),
+    JPEG("image/jpeg", ".jpg"),
+    GIF("image/gif", ".gif"),
+    WEBP("image/webp", ".webp");
+
+    /**
+     * Bytes needed to recognize every format.
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    private final String contentType;
+    private final String extension;
+
+    ImageFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * The format whose signature starts {@code header}, of which the first {@code length} bytes are read.
+     */
+    public static Optional<ImageFormat> detect(byte[] header, int length) {
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return Optional.of(PNG);
+        }
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return Optional.of(JPEG);
+        }
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) {
+            return Optional.of(GIF);
+        }
+        if (startsWith(header, length, 'R', 'I', 'F', 'F') && length >= 12
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return Optional.of(WEBP);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.memevote.backend.service.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Result of {@link BlobStore#put}: the key to read the bytes back, their size and SHA-256 digest.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class StoredBlob {
+    private final String key;
+    private final long size;
+    private final String sha256;
+}
@@ -0,0 +1,147 @@
+package com.memevote.backend.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash set of primitive longs. Avoids the boxing and per-entry node overhead of
+ * {@code HashSet<Long>} for large id sets. Not thread-safe; callers guard concurrent access.
+ */
+public class LongHashSet {
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    // Zero marks a free slot, so the value 0 is tracked separately
+    private long[] slots;
+    private boolean containsZero;
+    private int size;
+    private int resizeThreshold;
+
+    public LongHashSet() {
+        this(8);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = indexOf(value);
+        if (slots[index] == value) {
+            return false;
+        }
+        slots[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(slots.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        return slots[indexOf(value)] == value;
+    }
+
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int index = indexOf(value);
+        if (slots[index] != value) {
+            return false;
+        }
+        slots[index] = EMPTY;
+        size--;
+        // Re-insert the rest of the probe cluster so lookups never stop at the freed slot
+        int mask = slots.length - 1;
+        for (int next = (index + 1) & mask; slots[next] != EMPTY; next = (next + 1) & mask) {
+            long displaced = slots[next];
+            slots[next] = EMPTY;
+            slots[indexOf(displaced)] = displaced;
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        if (containsZero) {
+            consumer.accept(EMPTY);
+        }
+        for (long value : slots) {
+            if (value != EMPTY) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size];
+        int[] position = {0};
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    /**
+     * Approximate heap footprint of the backing array in bytes.
+     */
+    public long estimatedBytes() {
+        return 16L + 8L * slots.length;
+    }
+
+    private int indexOf(long value) {
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (slots[index] != EMPTY && slots[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] previous = slots;
+        allocate(capacity);
+        for (long value : previous) {
+            if (value != EMPTY) {
+                slots[indexOf(value)] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet" + Arrays.toString(toArray());
+    }
+}
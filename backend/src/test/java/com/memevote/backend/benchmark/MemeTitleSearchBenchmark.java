@@ -0,0 +1,96 @@
+package com.memevote.backend.benchmark;
+
+import com.memevote.backend.service.MemeTitleIndex;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * Compares title search through the in-memory {@link MemeTitleIndex} with the
+ * {@code LOWER(title) LIKE '%term%'} scan it replaces, on an H2 table of synthetic titles.
+ * Not part of the test suite; run manually:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.memevote.backend.benchmark.MemeTitleSearchBenchmark [memes]}
+ */
+public class MemeTitleSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "cat", "dog", "grumpy", "distracted", "boyfriend", "monday", "friday", "deploy", "coffee",
+            "pikachu", "surprised", "drake", "hotline", "bling", "doge", "stonks", "cucumber", "keyboard",
+            "galaxy", "brain", "expanding", "this", "is", "fine", "success", "kid", "woman", "yelling",
+            "bugs", "production", "merge", "conflict", "weekend", "meeting", "standup", "legacy", "code"
+    };
+
+    private static final String[] QUERIES = {"grumpy cat", "deploy", "stonks", "pikachu surprised", "prodution", "coff"};
+
+    public static void main(String[] args) throws Exception {
+        int memeCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int iterations = 20;
+        Random random = new Random(7);
+
+        MemeTitleIndex index = new MemeTitleIndex();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:title-benchmark", "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE memes (id BIGINT PRIMARY KEY, title VARCHAR(100))");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO memes VALUES (?, ?)")) {
+                for (long id = 1; id <= memeCount; id++) {
+                    String title = randomTitle(random);
+                    insert.setLong(1, id);
+                    insert.setString(2, title);
+                    insert.addBatch();
+                    index.index(id, title);
+                    if (id % 5000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+
+            System.out.printf("%d memes, %d iterations per query%n", memeCount, iterations);
+            System.out.printf("%-20s %12s %12s %10s %10s%n", "query", "LIKE ms", "index ms", "LIKE hits", "idx hits");
+            try (PreparedStatement like = connection.prepareStatement(
+                    "SELECT id FROM memes WHERE LOWER(title) LIKE ?")) {
+                for (String query : QUERIES) {
+                    int likeHits = 0;
+                    long likeStart = System.nanoTime();
+                    for (int i = 0; i < iterations; i++) {
+                        like.setString(1, "%" + query.toLowerCase() + "%");
+                        likeHits = 0;
+                        try (ResultSet resultSet = like.executeQuery()) {
+                            while (resultSet.next()) {
+                                likeHits++;
+                            }
+                        }
+                    }
+                    double likeMillis = (System.nanoTime() - likeStart) / 1e6 / iterations;
+
+                    int indexHits = 0;
+                    long indexStart = System.nanoTime();
+                    for (int i = 0; i < iterations; i++) {
+                        indexHits = index.search(query).size();
+                    }
+                    double indexMillis = (System.nanoTime() - indexStart) / 1e6 / iterations;
+
+                    System.out.printf("%-20s %12.2f %12.2f %10d %10d%n",
+                            query, likeMillis, indexMillis, likeHits, indexHits);
+                }
+            }
+        }
+    }
+
+    private static String randomTitle(Random random) {
+        int words = 2 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+}
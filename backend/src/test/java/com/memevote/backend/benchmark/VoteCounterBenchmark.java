@@ -0,0 +1,115 @@
+package com.memevote.backend.benchmark;
+
+import com.memevote.backend.service.VoteCounter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares vote throughput on one hot meme when every vote updates the single {@code memes} row with
+ * the striped counter of {@link VoteCounter}, which spreads the updates over shard rows. Each vote is
+ * one transaction that inserts the vote row and adjusts the counter, run by concurrent voters on an
+ * H2 database with row-level locking.
+ * Not part of the test suite; run manually:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.memevote.backend.benchmark.VoteCounterBenchmark [voters] [seconds] [think-micros]}
+ */
+public class VoteCounterBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:vote-counter-benchmark;LOCK_TIMEOUT=60000;DB_CLOSE_DELAY=-1";
+
+    public static void main(String[] args) throws Exception {
+        int voters = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        // Time the transaction stays open after the update (count read, round trips to the database, ...)
+        int thinkMicros = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        try (Connection setup = DriverManager.getConnection(URL, "sa", "")) {
+            try (Statement statement = setup.createStatement()) {
+                statement.execute("CREATE TABLE memes (id BIGINT PRIMARY KEY, vote_count BIGINT NOT NULL)");
+                statement.execute("CREATE TABLE meme_vote_shards (meme_id BIGINT, shard INT, delta BIGINT NOT NULL, " +
+                        "PRIMARY KEY (meme_id, shard))");
+                statement.execute("CREATE TABLE votes (id BIGINT AUTO_INCREMENT PRIMARY KEY, meme_id BIGINT)");
+            }
+
+            System.out.printf("%d voters, %d s per run, %d us open after the counter update%n",
+                    voters, seconds, thinkMicros);
+            System.out.printf("%-12s %12s %12s %10s%n", "counter", "votes/s", "avg ms", "count ok");
+            run(setup, "single-row", 1, voters, seconds, thinkMicros);
+            for (int shards : new int[]{4, 16, 64}) {
+                run(setup, shards + " shards", shards, voters, seconds, thinkMicros);
+            }
+        }
+    }
+
+    private static void run(Connection setup, String label, int shards, int voters, int seconds, int thinkMicros)
+            throws Exception {
+        try (Statement statement = setup.createStatement()) {
+            statement.execute("DELETE FROM votes");
+            statement.execute("DELETE FROM meme_vote_shards");
+            statement.execute("MERGE INTO memes KEY (id) VALUES (1, 0)");
+            for (int shard = 0; shard < shards; shard++) {
+                statement.execute("INSERT INTO meme_vote_shards VALUES (1, " + shard + ", 0)");
+            }
+        }
+
+        String update = shards == 1
+                ? "UPDATE memes SET vote_count = vote_count + 1 WHERE id = 1"
+                : "UPDATE meme_vote_shards SET delta = delta + 1 WHERE meme_id = 1 AND shard = ?";
+        AtomicLong votes = new AtomicLong();
+        AtomicLong latencyNanos = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < voters; i++) {
+            Thread thread = new Thread(() -> {
+                try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                     PreparedStatement insertVote = connection.prepareStatement("INSERT INTO votes (meme_id) VALUES (1)");
+                     PreparedStatement adjust = connection.prepareStatement(update)) {
+                    connection.setAutoCommit(false);
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        insertVote.executeUpdate();
+                        if (shards > 1) {
+                            adjust.setInt(1, ThreadLocalRandom.current().nextInt(shards));
+                        }
+                        adjust.executeUpdate();
+                        LockSupport.parkNanos(thinkMicros * 1000L);
+                        connection.commit();
+                        latencyNanos.addAndGet(System.nanoTime() - begin);
+                        votes.incrementAndGet();
+                    }
+                } catch (SQLException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long counted;
+        try (Statement statement = setup.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT m.vote_count + COALESCE((SELECT SUM(delta) FROM meme_vote_shards), 0) FROM memes m")) {
+            resultSet.next();
+            counted = resultSet.getLong(1);
+        }
+        System.out.printf("%-12s %12.0f %12.3f %10s%n", label, votes.get() / (double) seconds,
+                latencyNanos.get() / 1e6 / Math.max(1, votes.get()), counted == votes.get());
+    }
+}
@@ -1,6 +1,7 @@
 package com.memevote.backend.controller;
 
-import com.memevote.backend.model.ImageData;
+import com.memevote.backend.model.VariantStatus;
+import com.memevote.backend.repository.projection.ImageMetadata;
 import com.memevote.backend.service.ImageStorageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,19 +9,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Optional;
 
-import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 public class ImageControllerTest {
 
+    private static final String HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
     @Mock
     private ImageStorageService imageStorageService;
 
@@ -28,44 +38,281 @@ public class ImageControllerTest {
     private ImageController imageController;
 
     private MockMvc mockMvc;
-    private ImageData imageData;
+    private ImageMetadata metadata;
+    private LocalDateTime createdAt;
     private byte[] imageBytes;
 
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(imageController).build();
-        
-        // Setup image data
+
+        // Setup image metadata
         imageBytes = "test image content".getBytes();
-        imageData = ImageData.builder()
-                .id(1L)
-                .name("test-image.jpg")
-                .type("image/jpeg")
-                .data(imageBytes)
-                .fileSize((long) imageBytes.length)
-                .build();
+        createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        metadata = metadata("test-image.jpg", HASH, createdAt);
     }
 
     @Test
     void getImage_WhenImageExists_ShouldReturnImage() throws Exception {
         // Arrange
-        when(imageStorageService.getImage("test-image.jpg")).thenReturn(Optional.of(imageData));
-        
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
         // Act & Assert
         mockMvc.perform(get("/uploads/test-image.jpg"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(content().bytes(imageBytes))
+                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(header().string("Cache-Control", containsString("max-age=31536000")))
+                .andExpect(header().dateValue("Last-Modified",
+                        createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+    }
+
+    @Test
+    void getImage_WhenETagMatches_ShouldReturnNotModifiedWithoutOpeningBytes() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("If-None-Match", "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(content().bytes(new byte[0]));
+
+        // Verify
+        verify(imageStorageService, never()).openImage(any());
+    }
+
+    @Test
+    void getImage_WhenNotModifiedSince_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("If-Modified-Since", httpDate(createdAt.plusDays(1))))
+                .andExpect(status().isNotModified());
+
+        // Verify
+        verify(imageStorageService, never()).openImage(any());
+    }
+
+    @Test
+    void getImage_WhenETagDiffers_ShouldReturnImage() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("If-None-Match", "\"other\""))
+                .andExpect(status().isOk())
                 .andExpect(content().bytes(imageBytes));
     }
 
+    @Test
+    void getImage_WithoutStoredHash_ShouldOmitETag() throws Exception {
+        // Arrange
+        ImageMetadata legacy = metadata("legacy.jpg", null, null);
+        when(imageStorageService.getImageMetadata("legacy.jpg")).thenReturn(Optional.of(legacy));
+        when(imageStorageService.openImage(legacy)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/legacy.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(header().doesNotExist("Last-Modified"));
+    }
+
+    @Test
+    void getImage_WithRange_ShouldReturnPartialContent() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("Range", "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Range", "bytes 5-9/18"))
+                .andExpect(header().longValue("Content-Length", 5))
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(content().string("image"));
+    }
+
+    @Test
+    void getImage_WithSeveralRanges_ShouldReturnMultipartByteranges() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("Range", "bytes=0-3,-7"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Type", containsString("multipart/byteranges")))
+                .andExpect(content().string(containsString("Content-Range: bytes 0-3/18")))
+                .andExpect(content().string(containsString("Content-Range: bytes 11-17/18")))
+                .andExpect(content().string(containsString("content")));
+    }
+
+    @Test
+    void getImage_WithUnsatisfiableRange_ShouldReturn416() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("Range", "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */18"));
+    }
+
+    @Test
+    void getImage_WithRangeAndMatchingIfRange_ShouldReturnPartialContent() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("Range", "bytes=5-").header("If-Range", "\"" + HASH + "\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("image content"));
+        mockMvc.perform(get("/uploads/test-image.jpg").header("Range", "bytes=5-").header("If-Range", httpDate(createdAt)))
+                .andExpect(status().isPartialContent());
+    }
+
+    @Test
+    void getImage_WithRangeAndStaleIfRange_ShouldReturnWholeImage() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").header("Range", "bytes=5-").header("If-Range", "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("Content-Length", 18))
+                .andExpect(content().bytes(imageBytes));
+        mockMvc.perform(get("/uploads/test-image.jpg").header("Range", "bytes=5-")
+                        .header("If-Range", httpDate(createdAt.minusDays(1))))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(imageBytes));
+    }
+
+    @Test
+    void getImage_WithWidth_ShouldServeNearestVariant() throws Exception {
+        // Arrange
+        ImageMetadata variant = metadata("test-image.jpg", "ab" + HASH.substring(2), createdAt);
+        byte[] variantBytes = "small".getBytes();
+        when(imageStorageService.getImageMetadata("test-image.jpg", 640)).thenReturn(Optional.of(variant));
+        when(imageStorageService.openImage(variant)).thenReturn(Optional.of(new ByteArrayResource(variantBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").param("w", "640"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(variantBytes))
+                .andExpect(header().string("ETag", "\"ab" + HASH.substring(2) + "\""))
+                .andExpect(header().string("Cache-Control", containsString("immutable")));
+        verify(imageStorageService, never()).getImageMetadata("test-image.jpg");
+    }
+
+    @Test
+    void getImage_WithWidthWhileVariantsPending_ShouldServeOriginalBriefly() throws Exception {
+        // Arrange
+        ImageMetadata pending = metadata("test-image.jpg", HASH, createdAt, VariantStatus.PENDING);
+        when(imageStorageService.getImageMetadata("test-image.jpg", 640)).thenReturn(Optional.of(pending));
+        when(imageStorageService.openImage(pending)).thenReturn(Optional.of(new ByteArrayResource(imageBytes)));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg").param("w", "640"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(imageBytes))
+                .andExpect(header().string("Cache-Control", "max-age=60, public"));
+    }
+
     @Test
     void getImage_WhenImageDoesNotExist_ShouldReturnNotFound() throws Exception {
         // Arrange
-        when(imageStorageService.getImage("non-existent.jpg")).thenReturn(Optional.empty());
-        
+        when(imageStorageService.getImageMetadata("non-existent.jpg")).thenReturn(Optional.empty());
+
         // Act & Assert
         mockMvc.perform(get("/uploads/non-existent.jpg"))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("Image not found"));
     }
+
+    @Test
+    void getImage_WhenBlobIsMissing_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        when(imageStorageService.getImageMetadata("test-image.jpg")).thenReturn(Optional.of(metadata));
+        when(imageStorageService.openImage(metadata)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/test-image.jpg"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static String httpDate(LocalDateTime time) {
+        ZonedDateTime utc = time.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneId.of("GMT"));
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(utc);
+    }
+
+    private static ImageMetadata metadata(String name, String contentHash, LocalDateTime createdAt) {
+        return metadata(name, contentHash, createdAt, VariantStatus.READY);
+    }
+
+    private static ImageMetadata metadata(String name, String contentHash, LocalDateTime createdAt,
+                                          VariantStatus variantStatus) {
+        return new ImageMetadata() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getType() {
+                return "image/jpeg";
+            }
+
+            @Override
+            public Long getFileSize() {
+                return 18L;
+            }
+
+            @Override
+            public String getContentHash() {
+                return contentHash;
+            }
+
+            @Override
+            public String getBlobKey() {
+                return contentHash;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public Integer getWidth() {
+                return null;
+            }
+
+            @Override
+            public Integer getHeight() {
+                return null;
+            }
+
+            @Override
+            public VariantStatus getVariantStatus() {
+                return variantStatus;
+            }
+        };
+    }
 }
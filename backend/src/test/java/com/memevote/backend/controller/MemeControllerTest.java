@@ -3,8 +3,10 @@ package com.memevote.backend.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.memevote.backend.dto.request.MemeRequest;
 import com.memevote.backend.dto.response.CategoryDto;
+import com.memevote.backend.dto.response.CursorPage;
 import com.memevote.backend.dto.response.MemeResponse;
 import com.memevote.backend.dto.response.UserSummary;
+import com.memevote.backend.exception.GlobalExceptionHandler;
 import com.memevote.backend.service.MemeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
@@ -26,6 +30,7 @@ import java.util.*;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -50,7 +55,10 @@ public class MemeControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(memeController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(memeController)
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
         objectMapper = new ObjectMapper();
 
         // Setup meme request
@@ -139,6 +147,31 @@ public class MemeControllerTest {
     //     // This test is skipped due to issues with Pageable parameter
     // }
 
+    @Test
+    void getMemes_WithCursor_ShouldReturnCursorPage() throws Exception {
+        // Arrange
+        CursorPage<MemeResponse> slice = new CursorPage<>(Collections.singletonList(memeResponse), "next-cursor", true, 1);
+        when(memeService.getMemeFeed(any(), any(), any(), any(), any(Sort.class), eq(""), eq(1))).thenReturn(slice);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/memes").param("cursor", "").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void getMemes_WithUnknownCategoryMatch_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/memes").param("categories", "Funny").param("categoryMatch", "SOME"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value 'SOME' for parameter categoryMatch"));
+
+        verifyNoInteractions(memeService);
+    }
+
     @Test
     void getMemeById_ShouldReturnMemeResponse() throws Exception {
         // Arrange
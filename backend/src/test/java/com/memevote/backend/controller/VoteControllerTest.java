@@ -1,6 +1,10 @@
 package com.memevote.backend.controller;
 
 import com.memevote.backend.dto.response.MessageResponse;
+import com.memevote.backend.dto.response.VoteBucketDto;
+import com.memevote.backend.dto.response.VoteHistoryResponse;
+import com.memevote.backend.model.RollupResolution;
+import com.memevote.backend.service.VoteRollupService;
 import com.memevote.backend.service.VoteService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +15,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -22,6 +31,9 @@ public class VoteControllerTest {
     @Mock
     private VoteService voteService;
 
+    @Mock
+    private VoteRollupService voteRollupService;
+
     @InjectMocks
     private VoteController voteController;
 
@@ -59,4 +71,18 @@ public class VoteControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Vote removed successfully"));
     }
+
+    @Test
+    void getVoteHistory_ShouldReturnBucketsForTheRequestedWindow() throws Exception {
+        // Arrange
+        VoteHistoryResponse history = new VoteHistoryResponse(1L, "MINUTE", 3L,
+                Collections.singletonList(new VoteBucketDto(LocalDateTime.of(2024, 1, 1, 12, 0), 3L)));
+        when(voteRollupService.history(1L, RollupResolution.MINUTE, Duration.ofHours(2))).thenReturn(history);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/memes/1/votes/history").param("resolution", "MINUTE").param("hours", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.votes").value(3))
+                .andExpect(jsonPath("$.buckets[0].votes").value(3));
+    }
 }
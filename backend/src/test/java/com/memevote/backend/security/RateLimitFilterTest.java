@@ -0,0 +1,135 @@
+package com.memevote.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.memevote.backend.model.User;
+import com.memevote.backend.security.services.UserDetailsImpl;
+import com.memevote.backend.service.RateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitFilterTest {
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private RateLimitFilter rateLimitFilter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitFilter = new RateLimitFilter(rateLimiter, new ObjectMapper().registerModule(new JavaTimeModule()));
+        response = new MockHttpServletResponse();
+        UserDetailsImpl userDetails = UserDetailsImpl.build(User.builder().id(7L).username("testuser").build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void classify_ShouldMapWriteEndpoints() {
+        assertEquals(RateLimiter.Endpoint.VOTE, RateLimitFilter.classify("PUT", "/api/memes/1/votes"));
+        assertEquals(RateLimiter.Endpoint.VOTE, RateLimitFilter.classify("DELETE", "/api/memes/1/votes"));
+        assertEquals(RateLimiter.Endpoint.COMMENT, RateLimitFilter.classify("POST", "/api/memes/1/comments"));
+        assertEquals(RateLimiter.Endpoint.UPLOAD, RateLimitFilter.classify("POST", "/api/memes"));
+        assertEquals(RateLimiter.Endpoint.UPLOAD, RateLimitFilter.classify("POST", "/api/memes/batch"));
+        assertNull(RateLimitFilter.classify("GET", "/api/memes/1/votes"));
+        assertNull(RateLimitFilter.classify("PUT", "/api/memes/1"));
+        assertNull(RateLimitFilter.classify("POST", "/api/auth/signin"));
+    }
+
+    @Test
+    void classify_ShouldIgnoreTrailingSlash() {
+        assertEquals(RateLimiter.Endpoint.VOTE, RateLimitFilter.classify("PUT", "/api/memes/1/votes/"));
+        assertEquals(RateLimiter.Endpoint.COMMENT, RateLimitFilter.classify("POST", "/api/memes/1/comments/"));
+        assertEquals(RateLimiter.Endpoint.UPLOAD, RateLimitFilter.classify("POST", "/api/memes/"));
+        assertEquals(RateLimiter.Endpoint.UPLOAD, RateLimitFilter.classify("POST", "/api/memes/batch/"));
+        assertNull(RateLimitFilter.classify("PUT", "/api/memes/1/"));
+    }
+
+    @Test
+    void doFilterInternal_WhenAllowed_ShouldContinueChain() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/memes/1/votes");
+        when(rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 7L, "127.0.0.1", 1)).thenReturn(0L);
+
+        // Act
+        rateLimitFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+
+        // Verify
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_WhenLimited_ShouldAnswer429WithRetryAfter() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/memes/1/comments");
+        when(rateLimiter.tryAcquire(RateLimiter.Endpoint.COMMENT, 7L, "127.0.0.1", 1)).thenReturn(3L);
+
+        // Act
+        rateLimitFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertEquals("3", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"status\":429"));
+
+        // Verify
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilterInternal_ShouldChargeUploadsByContentLength() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/memes");
+        request.setContent(new byte[2048]);
+        when(rateLimiter.tryAcquire(eq(RateLimiter.Endpoint.UPLOAD), eq(7L), anyString(), anyLong())).thenReturn(0L);
+
+        // Act
+        rateLimitFilter.doFilterInternal(request, response, filterChain);
+
+        // Verify
+        verify(rateLimiter).tryAcquire(RateLimiter.Endpoint.UPLOAD, 7L, "127.0.0.1", 2048);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_ForReads_ShouldNotConsultLimiter() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/memes");
+
+        // Act
+        rateLimitFilter.doFilterInternal(request, response, filterChain);
+
+        // Verify
+        verifyNoInteractions(rateLimiter);
+        verify(filterChain).doFilter(request, response);
+    }
+}
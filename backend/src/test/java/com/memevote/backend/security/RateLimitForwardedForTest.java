@@ -0,0 +1,62 @@
+package com.memevote.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rate limits behind the load balancer, through Tomcat's handling of {@code X-Forwarded-For}. Requests
+ * come from 127.0.0.1, a trusted proxy address like the ALB's. Anonymous votes are charged to the IP
+ * before being rejected as unauthorized, so 401 means admitted and 429 limited.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "memevote.rate-limit.votes.capacity=1",
+        "memevote.rate-limit.votes.refill-per-second=0.001",
+        "memevote.rate-limit.ip-factor=1"
+})
+@ActiveProfiles("local")
+public class RateLimitForwardedForTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void vote_ShouldBeLimitedPerForwardedClient() {
+        // Act
+        HttpStatus first = vote("203.0.113.1");
+        HttpStatus sameClient = vote("203.0.113.1");
+        HttpStatus otherClient = vote("203.0.113.2");
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, first);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, sameClient);
+        assertEquals(HttpStatus.UNAUTHORIZED, otherClient);
+    }
+
+    @Test
+    void vote_ShouldIgnoreAddressesTheClientForwardsItself() {
+        // Arrange: the load balancer appends the real client after whatever the client sent
+        vote("203.0.113.5");
+
+        // Act
+        HttpStatus spoofed = vote("198.51.100.7, 203.0.113.5");
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, spoofed);
+    }
+
+    private HttpStatus vote(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", forwardedFor);
+        return restTemplate.exchange("/api/memes/1/votes", HttpMethod.PUT, new HttpEntity<>(headers), String.class)
+                .getStatusCode();
+    }
+}
@@ -0,0 +1,171 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.ImageBlob;
+import com.memevote.backend.repository.ImageBlobRepository;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.ImageCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs blob reference counting against MySQL, whose InnoDB gap locks the H2 and mock-based tests cannot
+ * show. A short lock wait timeout turns a lock wait into a failure instead of a 50 second hang.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQL8Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BlobReferenceService.class, BlobReferenceServiceMySqlTest.Metrics.class})
+public class BlobReferenceServiceMySqlTest {
+
+    @Container
+    private static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withCommand("--innodb-lock-wait-timeout=5");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private BlobStore blobStore;
+
+    @MockBean
+    private ImageCache imageCache;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        imageBlobRepository.deleteAll();
+    }
+
+    @Test
+    void retain_OfNewBytesInsideATransaction_ShouldNotWaitOnItsOwnLocks() {
+        // Arrange
+        when(blobStore.get("new")).thenReturn(Optional.of(new ByteArrayResource("bytes".getBytes())));
+
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                blobReferenceService.retain("new", 5L, new ByteArrayResource("bytes".getBytes())));
+
+        // Assert
+        assertEquals(1, imageBlobRepository.findById("new").map(ImageBlob::getRefCount).orElse(0));
+    }
+
+    @Test
+    void retain_OfNewBytesInConcurrentTransactions_ShouldNotBlockEachOther() throws Exception {
+        // Arrange: both transactions stay open until each has counted its reference
+        CountDownLatch bothRetained = new CountDownLatch(2);
+
+        // Act
+        Future<?> first = executor.submit(() -> retainAndWait("first", bothRetained));
+        Future<?> second = executor.submit(() -> retainAndWait("second", bothRetained));
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, imageBlobRepository.findById("first").map(ImageBlob::getRefCount).orElse(0));
+        assertEquals(1, imageBlobRepository.findById("second").map(ImageBlob::getRefCount).orElse(0));
+    }
+
+    @Test
+    void retain_OfTheSameNewBytesConcurrently_ShouldCountBothReferences() throws Exception {
+        // Act
+        Future<?> first = executor.submit(() -> retainInTransaction("same"));
+        Future<?> second = executor.submit(() -> retainInTransaction("same"));
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+
+        // Assert
+        ImageBlob blob = imageBlobRepository.findById("same").orElseThrow();
+        assertEquals(2, blob.getRefCount());
+        assertNull(blob.getReleasedAt());
+    }
+
+    @Test
+    void release_OfLastReference_ShouldFreeTheBytes() throws IOException {
+        // Arrange
+        retainInTransaction("freed");
+
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                blobReferenceService.release("freed", true));
+
+        // Assert
+        assertFalse(imageBlobRepository.findById("freed").isPresent());
+
+        // Verify
+        verify(blobStore).delete("freed");
+    }
+
+    private void retainInTransaction(String blobKey) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                blobReferenceService.retain(blobKey, 5L, null));
+    }
+
+    private void retainAndWait(String blobKey, CountDownLatch bothRetained) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            blobReferenceService.retain(blobKey, 5L, null);
+            bothRetained.countDown();
+            try {
+                assertTrue(bothRetained.await(20, TimeUnit.SECONDS), "The other transaction never counted its reference");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
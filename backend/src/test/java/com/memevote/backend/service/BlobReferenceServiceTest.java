@@ -0,0 +1,214 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.ImageBlob;
+import com.memevote.backend.repository.ImageBlobRepository;
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.ImageCache;
+import com.memevote.backend.service.storage.StoredBlob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BlobReferenceServiceTest {
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private ImageDataRepository imageDataRepository;
+
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private ImageCache imageCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BlobReferenceService blobReferenceService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(blobReferenceService, "meterRegistry", meterRegistry);
+        blobReferenceService.registerMetrics();
+    }
+
+    @Test
+    void retain_WhenBytesAreAlreadyStored_ShouldCountASharedReference() {
+        // Arrange: MySQL reports 2 affected rows when the upsert updates an existing row
+        when(imageBlobRepository.retain(eq("key"), eq(10L), any(LocalDateTime.class))).thenReturn(2);
+
+        // Act
+        blobReferenceService.retain("key", 10L, null);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.counter("memevote.images.blobs.shared").count());
+    }
+
+    @Test
+    void retain_WhenBytesAreNew_ShouldCreateTheBlobInOneStatement() {
+        // Arrange
+        when(imageBlobRepository.retain(eq("key"), eq(10L), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        blobReferenceService.retain("key", 10L, null);
+
+        // Assert
+        assertEquals(0.0, meterRegistry.counter("memevote.images.blobs.shared").count());
+
+        // Verify
+        verify(imageBlobRepository).retain(eq("key"), eq(10L), any(LocalDateTime.class));
+        verifyNoMoreInteractions(imageBlobRepository);
+    }
+
+    @Test
+    void retain_WhenRolledBack_ShouldFreeTheNewBytes() throws IOException {
+        // Arrange
+        when(imageBlobRepository.retain(eq("key"), eq(5L), any(LocalDateTime.class))).thenReturn(1);
+        when(imageBlobRepository.lockByBlobKey("key")).thenReturn(Optional.empty());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            blobReferenceService.retain("key", 5L, new ByteArrayResource("bytes".getBytes()));
+
+            // Act
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Verify
+        verify(blobStore).delete("key");
+        verify(blobStore, never()).put(any(InputStream.class));
+    }
+
+    @Test
+    void retain_WhenBytesWereFreedConcurrently_ShouldStoreThemAgain() throws IOException {
+        // Arrange
+        when(imageBlobRepository.retain(eq("key"), eq(5L), any(LocalDateTime.class))).thenReturn(2);
+        when(blobStore.get("key")).thenReturn(Optional.empty());
+        when(blobStore.put(any(InputStream.class))).thenReturn(new StoredBlob("key", 5, "key"));
+
+        // Act
+        blobReferenceService.retain("key", 5L, new ByteArrayResource("bytes".getBytes()));
+
+        // Verify
+        verify(blobStore).put(any(InputStream.class));
+    }
+
+    @Test
+    void release_OfLastReference_ShouldFreeTheBytes() throws IOException {
+        // Arrange
+        ImageBlob blob = new ImageBlob("key", 10L, 0, LocalDateTime.now(), LocalDateTime.now());
+        when(imageBlobRepository.release("key")).thenReturn(1);
+        when(imageBlobRepository.lockByBlobKey("key")).thenReturn(Optional.of(blob));
+
+        // Act
+        blobReferenceService.release("key", true);
+
+        // Verify
+        verify(imageBlobRepository).markReleased(eq("key"), any(LocalDateTime.class));
+        verify(imageBlobRepository).delete(blob);
+        verify(blobStore).delete("key");
+        verify(imageCache).invalidate("key");
+    }
+
+    @Test
+    void release_WhenOtherReferencesRemain_ShouldKeepTheBytes() throws IOException {
+        // Arrange
+        ImageBlob blob = new ImageBlob("key", 10L, 2, null, LocalDateTime.now());
+        when(imageBlobRepository.release("key")).thenReturn(1);
+        when(imageBlobRepository.lockByBlobKey("key")).thenReturn(Optional.of(blob));
+
+        // Act
+        blobReferenceService.release("key", true);
+
+        // Verify
+        verify(blobStore, never()).delete(anyString());
+        verify(imageCache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void collect_WhenUncountedRowsStillReferenceTheBytes_ShouldKeepThem() throws IOException {
+        // Arrange
+        when(imageBlobRepository.lockByBlobKey("key")).thenReturn(Optional.empty());
+        when(imageDataRepository.existsByBlobKeyAndBlobCountedIsNull("key")).thenReturn(true);
+
+        // Act
+        boolean freed = blobReferenceService.collect("key");
+
+        // Assert
+        assertFalse(freed);
+
+        // Verify
+        verify(blobStore, never()).delete(anyString());
+    }
+
+    @Test
+    void collect_WhenDeleteFails_ShouldKeepTheBlobRow() throws IOException {
+        // Arrange
+        ImageBlob blob = new ImageBlob("key", 10L, 0, LocalDateTime.now(), LocalDateTime.now());
+        when(imageBlobRepository.lockByBlobKey("key")).thenReturn(Optional.of(blob));
+        when(blobStore.delete("key")).thenThrow(new IOException("read-only"));
+
+        // Act
+        boolean freed = blobReferenceService.collect("key");
+
+        // Assert
+        assertFalse(freed);
+
+        // Verify
+        verify(transactionManager).rollback(any());
+        verify(imageCache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void collectReleased_ShouldFreeBlobsLeftUnreferenced() throws IOException {
+        // Arrange
+        ImageBlob blob = new ImageBlob("key", 10L, 0, LocalDateTime.now().minusDays(1), LocalDateTime.now());
+        when(imageBlobRepository.findReleasedBefore(any(LocalDateTime.class), any())).thenReturn(List.of("key"));
+        when(imageBlobRepository.lockByBlobKey("key")).thenReturn(Optional.of(blob));
+
+        // Act
+        int freed = blobReferenceService.collectReleased();
+
+        // Assert
+        assertEquals(1, freed);
+
+        // Verify
+        verify(blobStore).delete("key");
+    }
+}
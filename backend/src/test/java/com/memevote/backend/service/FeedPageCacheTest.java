@@ -0,0 +1,206 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.dto.response.MemeResponse;
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.event.VotesFlushedEvent;
+import com.memevote.backend.repository.specification.CategoryMatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeedPageCacheTest {
+
+    private FeedPageCache feedPageCache;
+    private MeterRegistry meterRegistry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feedPageCache = new FeedPageCache();
+        ReflectionTestUtils.setField(feedPageCache, "meterRegistry", meterRegistry);
+        feedPageCache.registerMetrics();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void key_ShouldNormalizeFiltersAndSkipLaterPages() {
+        // Arrange
+        Pageable firstPage = PageRequest.of(0, 20);
+
+        // Act & Assert
+        assertEquals(
+                feedPageCache.key(new HashSet<>(Arrays.asList("Funny", "Cats")), CategoryMatch.ANY, "", "Dog", firstPage),
+                feedPageCache.key(new HashSet<>(Arrays.asList("Cats", "Funny")), CategoryMatch.ANY, null, "dog", firstPage));
+        assertEquals(
+                feedPageCache.key(Collections.singleton("Cats"), CategoryMatch.ANY, null, null, firstPage),
+                feedPageCache.key(Collections.singleton("Cats"), CategoryMatch.ALL, null, null, firstPage));
+        assertNotEquals(
+                feedPageCache.key(null, CategoryMatch.ANY, null, null, firstPage),
+                feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20, Sort.by("voteCount"))));
+        assertNull(feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(3, 20)));
+    }
+
+    @Test
+    void getOrLoad_ShouldServeRepeatedRequestsFromCache() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20));
+
+        // Act
+        Page<MemeResponse> first = feedPageCache.getOrLoad(key, this::loadPage);
+        Page<MemeResponse> second = feedPageCache.getOrLoad(key, this::loadPage);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("memevote.feed.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("memevote.feed.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void onVoteChanged_ShouldPatchVoteCountForTimeOrderedPages() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20));
+        feedPageCache.getOrLoad(key, this::loadPage);
+
+        // Act
+        feedPageCache.onVoteChanged(new VoteChangedEvent(1L, 7L, true, 6L));
+        Page<MemeResponse> page = feedPageCache.getOrLoad(key, this::loadPage);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(6L, page.getContent().get(0).getVoteCount());
+    }
+
+    @Test
+    void onVoteChanged_ShouldDropPagesOrderedByVotes() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "voteCount")));
+        feedPageCache.getOrLoad(key, this::loadPage);
+
+        // Act
+        feedPageCache.onVoteChanged(new VoteChangedEvent(1L, 7L, true, 6L));
+
+        // Assert
+        assertEquals(0, feedPageCache.size());
+    }
+
+    @Test
+    void onMemeCreated_ShouldClearCache() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20));
+        feedPageCache.getOrLoad(key, this::loadPage);
+
+        // Act
+        feedPageCache.onMemeCreated(new MemeCreatedEvent(2L, "New Meme", LocalDateTime.now()));
+        feedPageCache.getOrLoad(key, this::loadPage);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOrLoad_ShouldNotStorePageAssembledBeforeAnEvent() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20));
+
+        // Act
+        feedPageCache.getOrLoad(key, () -> {
+            feedPageCache.onMemeCreated(new MemeCreatedEvent(2L, "New Meme", LocalDateTime.now()));
+            return loadPage();
+        });
+
+        // Assert
+        assertEquals(0, feedPageCache.size());
+    }
+
+    @Test
+    void getOrLoad_ShouldNotStoreVoteOrderedPageAssembledDuringAVote() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "voteCount")));
+
+        // Act
+        feedPageCache.getOrLoad(key, () -> {
+            feedPageCache.onVoteChanged(new VoteChangedEvent(1L, 7L, true, 6L));
+            return loadPage();
+        });
+
+        // Assert
+        assertEquals(0, feedPageCache.size());
+    }
+
+    @Test
+    void getOrLoad_ShouldStoreTimeOrderedPageAssembledDuringAVoteWithTheVotePatchedIn() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20));
+        feedPageCache.getOrLoad(key, () -> {
+            feedPageCache.onVoteChanged(new VoteChangedEvent(1L, 7L, true, 6L));
+            return loadPage();
+        });
+
+        // Act
+        Page<MemeResponse> cached = feedPageCache.getOrLoad(key, this::loadPage);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(6L, cached.getContent().get(0).getVoteCount());
+    }
+
+    @Test
+    void getOrLoad_ShouldIgnoreVotesFromBeforeTheLoadStarted() {
+        // Arrange: a vote recorded for a slower concurrent load predates this one
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20));
+        FeedPageCache.Key otherKey = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(1, 20));
+        feedPageCache.getOrLoad(otherKey, () -> {
+            feedPageCache.onVoteChanged(new VoteChangedEvent(1L, 7L, true, 4L));
+
+            // Act
+            feedPageCache.getOrLoad(key, this::loadPage);
+            return loadPage();
+        });
+
+        // Assert
+        assertEquals(5L, feedPageCache.getOrLoad(key, this::loadPage).getContent().get(0).getVoteCount());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOrLoad_ShouldNotStorePageAssembledAcrossAVoteFlush() {
+        // Arrange
+        FeedPageCache.Key key = feedPageCache.key(null, CategoryMatch.ANY, null, null, PageRequest.of(0, 20));
+
+        // Act
+        feedPageCache.getOrLoad(key, () -> {
+            feedPageCache.onVotesFlushed(new VotesFlushedEvent(3));
+            return loadPage();
+        });
+
+        // Assert
+        assertEquals(0, feedPageCache.size());
+    }
+
+    private Page<MemeResponse> loadPage() {
+        loads.incrementAndGet();
+        MemeResponse response = new MemeResponse(1L, "Test Meme", "test-meme.jpg", LocalDateTime.now(),
+                null, Collections.emptySet(), 5L, false, Collections.emptyList());
+        return new PageImpl<>(Collections.singletonList(response), PageRequest.of(0, 20), 1);
+    }
+}
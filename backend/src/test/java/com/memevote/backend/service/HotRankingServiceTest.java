@@ -0,0 +1,162 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.repository.MemeRepository;
+import com.memevote.backend.repository.projection.MemeRankingSeed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HotRankingServiceTest {
+
+    @Mock
+    private MemeRepository memeRepository;
+
+    @InjectMocks
+    private HotRankingService hotRankingService;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.of(2026, 1, 1, 12, 0);
+    }
+
+    @Test
+    void rebuild_ShouldOrderByVotesWeightedByAge() {
+        // Arrange
+        when(memeRepository.findRankingSeeds()).thenReturn(Arrays.asList(
+                seed(1L, now.minusDays(2), 1000L),
+                seed(2L, now, 1L),
+                seed(3L, now.minusHours(1), 50L)));
+
+        // Act
+        hotRankingService.rebuild();
+
+        // Assert
+        assertEquals(3, hotRankingService.size());
+        assertEquals(Arrays.asList(3L, 2L, 1L), hotRankingService.getHotMemeIds(0, 10));
+        assertEquals(Collections.singletonList(2L), hotRankingService.getHotMemeIds(1, 1));
+    }
+
+    @Test
+    void events_ShouldUpdateRankingIncrementally() {
+        // Arrange
+        when(memeRepository.findRankingSeeds()).thenReturn(Collections.emptyList());
+        hotRankingService.rebuild();
+
+        // Act
+        hotRankingService.onMemeCreated(new MemeCreatedEvent(1L, "title", now.minusMinutes(30)));
+        hotRankingService.onMemeCreated(new MemeCreatedEvent(2L, "title", now));
+        List<Long> beforeVotes = hotRankingService.getHotMemeIds(0, 10);
+        hotRankingService.onVoteChanged(new VoteChangedEvent(1L, 7L, true, 100L));
+        List<Long> afterVotes = hotRankingService.getHotMemeIds(0, 10);
+        hotRankingService.onMemeDeleted(new MemeDeletedEvent(2L));
+
+        // Assert
+        assertEquals(Arrays.asList(2L, 1L), beforeVotes);
+        assertEquals(Arrays.asList(1L, 2L), afterVotes);
+        assertEquals(Collections.singletonList(1L), hotRankingService.getHotMemeIds(0, 10));
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesMadeWhileReadingSeeds() {
+        // Arrange: meme 2 is in the snapshot but deleted, meme 4 is created and voted on during the read
+        when(memeRepository.findRankingSeeds()).thenAnswer(invocation -> {
+            hotRankingService.onMemeCreated(new MemeCreatedEvent(4L, "title", now.minusHours(2)));
+            hotRankingService.onVoteChanged(new VoteChangedEvent(4L, 7L, true, 1000L));
+            hotRankingService.onMemeDeleted(new MemeDeletedEvent(2L));
+            hotRankingService.onVoteChanged(new VoteChangedEvent(3L, 7L, true, 60L));
+            return Arrays.asList(seed(2L, now, 1L), seed(3L, now.minusHours(1), 50L));
+        });
+
+        // Act
+        hotRankingService.rebuild();
+
+        // Assert
+        assertEquals(Arrays.asList(4L, 3L), hotRankingService.getHotMemeIds(0, 10));
+    }
+
+    @Test
+    void rebuild_WhenSeedsCannotBeRead_ShouldStopRecordingChanges() {
+        // Arrange
+        when(memeRepository.findRankingSeeds()).thenThrow(new IllegalStateException("database down"));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> hotRankingService.rebuild());
+        hotRankingService.onMemeCreated(new MemeCreatedEvent(1L, "title", now));
+
+        // Assert
+        assertNull(ReflectionTestUtils.getField(hotRankingService, "pendingChanges"));
+        assertEquals(Collections.singletonList(1L), hotRankingService.getHotMemeIds(0, 10));
+    }
+
+    @Test
+    void sortByHotness_ShouldOrderRankedIdsAndSkipUnknownOnes() {
+        // Arrange
+        when(memeRepository.findRankingSeeds()).thenReturn(Arrays.asList(
+                seed(1L, now.minusDays(2), 1000L),
+                seed(2L, now, 1L),
+                seed(3L, now.minusHours(1), 50L)));
+        hotRankingService.rebuild();
+
+        // Act
+        List<Long> sorted = hotRankingService.sortByHotness(Arrays.asList(1L, 42L, 3L));
+
+        // Assert
+        assertEquals(Arrays.asList(3L, 1L), sorted);
+    }
+
+    @Test
+    void onVoteChanged_ForUnknownMeme_ShouldBeIgnored() {
+        // Act
+        hotRankingService.onVoteChanged(new VoteChangedEvent(42L, 7L, true, 3L));
+
+        // Assert
+        assertEquals(0, hotRankingService.size());
+    }
+
+    @Test
+    void score_ShouldGrowTenfoldVotesByOneUnit() {
+        // Act
+        double base = hotRankingService.score(1_800_000_000L, 10);
+        double tenfold = hotRankingService.score(1_800_000_000L, 100);
+
+        // Assert
+        assertEquals(1.0, tenfold - base, 1e-9);
+    }
+
+    private MemeRankingSeed seed(Long id, LocalDateTime createdAt, Long voteCount) {
+        return new MemeRankingSeed() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public Long getVoteCount() {
+                return voteCount;
+            }
+        };
+    }
+}
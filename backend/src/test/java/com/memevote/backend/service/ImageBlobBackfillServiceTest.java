@@ -0,0 +1,123 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.repository.projection.BlobReference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageBlobBackfillServiceTest {
+
+    @Mock
+    private ImageDataRepository imageDataRepository;
+
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+
+    @Mock
+    private BlobReferenceService blobReferenceService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ImageBlobBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(backfillService, "meterRegistry", new SimpleMeterRegistry());
+        backfillService.registerMetrics();
+    }
+
+    @Test
+    void backfill_ShouldCountEveryUncountedRowInBatches() {
+        // Arrange: two images with the same bytes in one full batch, a third image in the next
+        ReflectionTestUtils.setField(backfillService, "batchSize", 2);
+        when(imageDataRepository.findUncountedBlobReferences(eq(0L), any()))
+                .thenReturn(List.of(reference(1L, "same"), reference(2L, "same")));
+        when(imageDataRepository.findUncountedBlobReferences(eq(2L), any()))
+                .thenReturn(List.of(reference(5L, "other")));
+        when(imageDataRepository.markBlobCounted(anyLong())).thenReturn(1);
+        when(imageVariantRepository.findUncountedBlobReferences(eq(0L), any()))
+                .thenReturn(List.of(reference(3L, "small")));
+        when(imageVariantRepository.markBlobCounted(3L)).thenReturn(1);
+
+        // Act
+        int counted = backfillService.backfill();
+
+        // Assert
+        assertEquals(4, counted);
+
+        // Verify
+        verify(blobReferenceService, times(2)).retain("same", 10L, null);
+        verify(blobReferenceService).retain("other", 10L, null);
+        verify(blobReferenceService).retain("small", 10L, null);
+    }
+
+    @Test
+    void backfill_ShouldSkipRowsDeletedOrCountedMeanwhile() {
+        // Arrange
+        when(imageDataRepository.findUncountedBlobReferences(eq(0L), any()))
+                .thenReturn(List.of(reference(1L, "gone")));
+        when(imageDataRepository.markBlobCounted(1L)).thenReturn(0);
+        when(imageVariantRepository.findUncountedBlobReferences(eq(0L), any())).thenReturn(Collections.emptyList());
+
+        // Act
+        int counted = backfillService.backfill();
+
+        // Assert
+        assertEquals(0, counted);
+
+        // Verify
+        verifyNoInteractions(blobReferenceService);
+    }
+
+    @Test
+    void backfill_WhenDisabled_ShouldDoNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(backfillService, "enabled", false);
+
+        // Act
+        int counted = backfillService.backfill();
+
+        // Assert
+        assertEquals(0, counted);
+
+        // Verify
+        verifyNoInteractions(imageDataRepository, imageVariantRepository, blobReferenceService);
+    }
+
+    private static BlobReference reference(Long id, String blobKey) {
+        return new BlobReference() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getBlobKey() {
+                return blobKey;
+            }
+
+            @Override
+            public Long getFileSize() {
+                return 10L;
+            }
+        };
+    }
+}
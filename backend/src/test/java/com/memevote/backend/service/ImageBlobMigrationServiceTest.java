@@ -0,0 +1,168 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.ImageData;
+import com.memevote.backend.model.ImagePayload;
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImagePayloadRepository;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.StoredBlob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageBlobMigrationServiceTest {
+
+    @Mock
+    private ImageDataRepository imageDataRepository;
+
+    @Mock
+    private ImagePayloadRepository imagePayloadRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private BlobReferenceService blobReferenceService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ImageBlobMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(migrationService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(migrationService, "enabled", true);
+        migrationService.registerMetrics();
+    }
+
+    @Test
+    void migrate_ShouldCopyInlineBytesToBlobStoreAndKeepThem() throws IOException {
+        // Arrange
+        ImageData image = ImageData.builder().id(4L).name("old.png").type("image/png").build();
+        ImagePayload payload = new ImagePayload(4L, new byte[]{1, 2});
+        when(imagePayloadRepository.findIdsWithInlineData(eq(0L), eq(false), any())).thenReturn(Arrays.asList(4L));
+        when(imageDataRepository.findById(4L)).thenReturn(Optional.of(image));
+        when(imagePayloadRepository.findById(4L)).thenReturn(Optional.of(payload));
+        when(blobStore.put(any(InputStream.class))).thenReturn(new StoredBlob("key", 2, "key"));
+
+        // Act
+        int migrated = migrationService.migrate();
+
+        // Assert
+        assertEquals(1, migrated);
+        assertEquals("key", image.getBlobKey());
+        assertNotNull(payload.getData());
+        assertEquals(2L, image.getFileSize());
+
+        assertTrue(image.getBlobCounted());
+
+        // Verify
+        verify(imageDataRepository).save(image);
+        verify(imagePayloadRepository, never()).save(any());
+        verify(blobReferenceService).retain(eq("key"), eq(2L), any());
+    }
+
+    @Test
+    void migrate_WhenClearingInline_ShouldClearCopiedBytesThatReadBack() {
+        // Arrange
+        ReflectionTestUtils.setField(migrationService, "clearInline", true);
+        ImageData image = ImageData.builder().id(4L).blobKey("key").fileSize(2L).build();
+        ImagePayload payload = new ImagePayload(4L, new byte[]{1, 2});
+        when(imagePayloadRepository.findIdsWithInlineData(eq(0L), eq(true), any())).thenReturn(Arrays.asList(4L));
+        when(imageDataRepository.findById(4L)).thenReturn(Optional.of(image));
+        when(imagePayloadRepository.findById(4L)).thenReturn(Optional.of(payload));
+        when(blobStore.get("key")).thenReturn(Optional.of(new ByteArrayResource(new byte[]{1, 2})));
+
+        // Act
+        int migrated = migrationService.migrate();
+
+        // Assert
+        assertEquals(1, migrated);
+        assertNull(payload.getData());
+
+        // Verify
+        verify(imagePayloadRepository).save(payload);
+        verifyNoInteractions(blobReferenceService);
+    }
+
+    @Test
+    void migrate_WhenCopyIsMissing_ShouldKeepInlineBytes() {
+        // Arrange
+        ReflectionTestUtils.setField(migrationService, "clearInline", true);
+        ImageData image = ImageData.builder().id(4L).blobKey("key").fileSize(2L).build();
+        ImagePayload payload = new ImagePayload(4L, new byte[]{1, 2});
+        when(imagePayloadRepository.findIdsWithInlineData(eq(0L), eq(true), any())).thenReturn(Arrays.asList(4L));
+        when(imageDataRepository.findById(4L)).thenReturn(Optional.of(image));
+        when(imagePayloadRepository.findById(4L)).thenReturn(Optional.of(payload));
+        when(blobStore.get("key")).thenReturn(Optional.empty());
+
+        // Act
+        int migrated = migrationService.migrate();
+
+        // Assert
+        assertEquals(0, migrated);
+        assertNotNull(payload.getData());
+
+        // Verify
+        verify(imagePayloadRepository, never()).save(any());
+    }
+
+    @Test
+    void migrate_WhenBlobStoreFails_ShouldKeepInlineBytesAndContinue() throws IOException {
+        // Arrange
+        ImageData failing = ImageData.builder().id(4L).build();
+        ImageData ok = ImageData.builder().id(5L).build();
+        ImagePayload failingPayload = new ImagePayload(4L, new byte[]{1});
+        ReflectionTestUtils.setField(migrationService, "batchSize", 2);
+        when(imagePayloadRepository.findIdsWithInlineData(eq(0L), eq(false), any())).thenReturn(Arrays.asList(4L, 5L));
+        when(imagePayloadRepository.findIdsWithInlineData(eq(5L), eq(false), any())).thenReturn(Arrays.asList());
+        when(imageDataRepository.findById(4L)).thenReturn(Optional.of(failing));
+        when(imageDataRepository.findById(5L)).thenReturn(Optional.of(ok));
+        when(imagePayloadRepository.findById(4L)).thenReturn(Optional.of(failingPayload));
+        when(imagePayloadRepository.findById(5L)).thenReturn(Optional.of(new ImagePayload(5L, new byte[]{2})));
+        when(blobStore.put(any(InputStream.class)))
+                .thenThrow(new IOException("disk full"))
+                .thenReturn(new StoredBlob("key", 1, "key"));
+
+        // Act
+        int migrated = migrationService.migrate();
+
+        // Assert
+        assertEquals(1, migrated);
+        assertNotNull(failingPayload.getData());
+        assertNull(failing.getBlobKey());
+        assertEquals("key", ok.getBlobKey());
+    }
+
+    @Test
+    void migrate_WhenDisabled_ShouldDoNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(migrationService, "enabled", false);
+
+        // Act
+        int migrated = migrationService.migrate();
+
+        // Assert
+        assertEquals(0, migrated);
+        verifyNoInteractions(imageDataRepository, imagePayloadRepository, blobStore);
+    }
+}
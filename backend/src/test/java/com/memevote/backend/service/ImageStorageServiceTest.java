@@ -1,7 +1,18 @@
 package com.memevote.backend.service;
 
+import com.memevote.backend.event.ImageStoredEvent;
+import com.memevote.backend.exception.BadRequestException;
 import com.memevote.backend.model.ImageData;
+import com.memevote.backend.model.ImagePayload;
+import com.memevote.backend.model.ImageVariant;
+import com.memevote.backend.model.VariantStatus;
 import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImagePayloadRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.repository.projection.ImageMetadata;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.ImageCache;
+import com.memevote.backend.service.storage.StoredBlob;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,15 +20,25 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +47,24 @@ public class ImageStorageServiceTest {
     @Mock
     private ImageDataRepository imageDataRepository;
 
+    @Mock
+    private ImagePayloadRepository imagePayloadRepository;
+
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private ImageCache imageCache;
+
+    @Mock
+    private BlobReferenceService blobReferenceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ImageStorageService imageStorageService;
 
@@ -39,7 +78,7 @@ public class ImageStorageServiceTest {
                 "file",
                 "test-image.jpg",
                 "image/jpeg",
-                "test image content".getBytes()
+                new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1, 1}
         );
 
         // Setup image data
@@ -47,7 +86,6 @@ public class ImageStorageServiceTest {
                 .id(1L)
                 .name("test-uuid.jpg")
                 .type("image/jpeg")
-                .data("test image content".getBytes())
                 .fileSize(mockFile.getSize())
                 .build();
     }
@@ -55,6 +93,12 @@ public class ImageStorageServiceTest {
     @Test
     void storeImage_ShouldReturnFileName() throws IOException {
         // Arrange
+        ArgumentCaptor<InputStream> stored = ArgumentCaptor.forClass(InputStream.class);
+        when(blobStore.put(stored.capture())).thenAnswer(invocation -> {
+            // The sniffed header must still reach the blob store
+            assertArrayEquals(mockFile.getBytes(), stored.getValue().readAllBytes());
+            return new StoredBlob("abc123", mockFile.getSize(), "abc123");
+        });
         when(imageDataRepository.save(any(ImageData.class))).thenReturn(imageData);
 
         // Act
@@ -71,7 +115,146 @@ public class ImageStorageServiceTest {
         ImageData capturedImageData = imageDataCaptor.getValue();
         assertEquals("image/jpeg", capturedImageData.getType());
         assertEquals(mockFile.getSize(), capturedImageData.getFileSize());
-        assertArrayEquals(mockFile.getBytes(), capturedImageData.getData());
+        assertEquals("abc123", capturedImageData.getBlobKey());
+        assertEquals("abc123", capturedImageData.getContentHash());
+        assertEquals(VariantStatus.PENDING, capturedImageData.getVariantStatus());
+        assertTrue(capturedImageData.getBlobCounted());
+        verify(blobReferenceService).retain("abc123", mockFile.getSize(), mockFile);
+        verify(eventPublisher).publishEvent(any(ImageStoredEvent.class));
+    }
+
+    @Test
+    void storeImage_ShouldTakeTypeFromContentNotFromClient() throws IOException {
+        // Arrange
+        MultipartFile png = new MockMultipartFile("file", "funny.jpg", "image/jpeg",
+                new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 'I', 'H', 'D', 'R'});
+        when(blobStore.put(any(InputStream.class))).thenReturn(new StoredBlob("abc123", png.getSize(), "abc123"));
+
+        // Act
+        String fileName = imageStorageService.storeImage(png);
+
+        // Assert
+        assertTrue(fileName.endsWith(".png"));
+
+        // Verify
+        ArgumentCaptor<ImageData> imageDataCaptor = ArgumentCaptor.forClass(ImageData.class);
+        verify(imageDataRepository).save(imageDataCaptor.capture());
+        assertEquals("image/png", imageDataCaptor.getValue().getType());
+    }
+
+    @Test
+    void storeImage_WhenContentIsNotAnImage_ShouldRejectWithoutStoring() {
+        // Arrange
+        MultipartFile html = new MockMultipartFile("file", "evil.png", "image/png", "<html></html>".getBytes());
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> imageStorageService.storeImage(html));
+
+        // Verify
+        verifyNoInteractions(blobStore, imageDataRepository, eventPublisher, blobReferenceService);
+    }
+
+    @Test
+    void openImage_ShouldReadFromBlobStoreOrInlineData() throws IOException {
+        // Arrange
+        ImageMetadata stored = mock(ImageMetadata.class);
+        when(stored.getBlobKey()).thenReturn("abc123");
+        ImageMetadata legacy = mock(ImageMetadata.class);
+        when(legacy.getId()).thenReturn(1L);
+        Resource blob = new ByteArrayResource("blob".getBytes());
+        when(blobStore.get("abc123")).thenReturn(Optional.of(blob));
+        when(imageCache.open(eq("abc123"), any())).thenAnswer(
+                invocation -> invocation.<Supplier<Optional<Resource>>>getArgument(1).get());
+        when(imagePayloadRepository.findById(1L))
+                .thenReturn(Optional.of(new ImagePayload(1L, "test image content".getBytes())));
+
+        // Act
+        Optional<Resource> fromBlobStore = imageStorageService.openImage(stored);
+        Optional<Resource> inline = imageStorageService.openImage(legacy);
+
+        // Assert
+        assertSame(blob, fromBlobStore.orElse(null));
+        assertArrayEquals("test image content".getBytes(), inline.orElseThrow().getInputStream().readAllBytes());
+    }
+
+    @Test
+    void openImage_WhenBlobIsMissing_ShouldFallBackToInlineData() throws IOException {
+        // Arrange
+        ImageMetadata copied = mock(ImageMetadata.class);
+        when(copied.getId()).thenReturn(1L);
+        when(copied.getName()).thenReturn("meme.png");
+        when(copied.getBlobKey()).thenReturn("abc123");
+        when(imageDataRepository.findMetadataByName("meme.png")).thenReturn(Optional.of(copied));
+        when(imageCache.open(eq("abc123"), any())).thenReturn(Optional.empty());
+        when(imagePayloadRepository.findById(1L))
+                .thenReturn(Optional.of(new ImagePayload(1L, "test image content".getBytes())));
+
+        // Act
+        Optional<Resource> result = imageStorageService.openImage(copied);
+
+        // Assert
+        assertArrayEquals("test image content".getBytes(), result.orElseThrow().getInputStream().readAllBytes());
+    }
+
+    @Test
+    void openImage_WhenVariantBlobIsMissing_ShouldNotServeInlineData() throws IOException {
+        // Arrange: the variant's ID is also the ID of an unrelated image with inline bytes
+        ImageMetadata original = mock(ImageMetadata.class);
+        when(original.getBlobKey()).thenReturn("original");
+        ImageMetadata variant = mock(ImageMetadata.class);
+        lenient().when(variant.getId()).thenReturn(7L);
+        when(variant.getName()).thenReturn("meme.png");
+        when(variant.getBlobKey()).thenReturn("variant");
+        when(imageDataRepository.findMetadataByName("meme.png")).thenReturn(Optional.of(original));
+        when(imageCache.open(eq("variant"), any())).thenReturn(Optional.empty());
+        lenient().when(imagePayloadRepository.findById(7L))
+                .thenReturn(Optional.of(new ImagePayload(7L, "unrelated image".getBytes())));
+
+        // Act
+        Optional<Resource> result = imageStorageService.openImage(variant);
+
+        // Assert
+        assertFalse(result.isPresent());
+
+        // Verify
+        verify(imagePayloadRepository, never()).findById(any());
+    }
+
+    @Test
+    void deleteImage_ShouldReleaseImageAndVariantReferences() {
+        // Arrange
+        ImageData image = ImageData.builder().id(2L).name("meme.png").blobKey("original").blobCounted(true).build();
+        ImageVariant small = ImageVariant.builder().imageId(2L).width(160).blobKey("small").blobCounted(true).build();
+        // Stored before references were counted
+        ImageVariant legacy = ImageVariant.builder().imageId(2L).width(640).blobKey("legacy").build();
+        when(imageDataRepository.lockByName("meme.png")).thenReturn(Optional.of(image));
+        when(imageVariantRepository.findByImageId(2L)).thenReturn(List.of(small, legacy));
+
+        // Act
+        imageStorageService.deleteImage("meme.png");
+
+        // Verify
+        verify(imageVariantRepository).deleteByImageId(2L);
+        verify(imageDataRepository).deleteByName("meme.png");
+        verify(blobReferenceService).release("original", true);
+        verify(blobReferenceService).release("small", true);
+        verify(blobReferenceService).release("legacy", false);
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    void getImageMetadata_WithWidth_ShouldPreferNearestVariant() {
+        // Arrange
+        ImageMetadata original = mock(ImageMetadata.class);
+        when(original.getId()).thenReturn(2L);
+        ImageMetadata variant = mock(ImageMetadata.class);
+        when(imageDataRepository.findMetadataByName("meme.png")).thenReturn(Optional.of(original));
+        when(imageVariantRepository.findAtLeast(eq(2L), eq(640), any(Pageable.class))).thenReturn(List.of(variant));
+        when(imageVariantRepository.findAtLeast(eq(2L), eq(4000), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        assertSame(variant, imageStorageService.getImageMetadata("meme.png", 640).orElse(null));
+        assertSame(original, imageStorageService.getImageMetadata("meme.png", 4000).orElse(null));
     }
 
     @Test
@@ -108,26 +291,27 @@ public class ImageStorageServiceTest {
     @Test
     void deleteImage_WhenImageExists_ShouldDeleteImage() {
         // Arrange
-        when(imageDataRepository.findByName("test-uuid.jpg")).thenReturn(Optional.of(imageData));
+        when(imageDataRepository.lockByName("test-uuid.jpg")).thenReturn(Optional.of(imageData));
 
         // Act
         imageStorageService.deleteImage("test-uuid.jpg");
 
         // Verify
-        verify(imageDataRepository).findByName("test-uuid.jpg");
-        verify(imageDataRepository).delete(imageData);
+        verify(imageDataRepository).lockByName("test-uuid.jpg");
+        verify(imageDataRepository).deleteByName("test-uuid.jpg");
+        verifyNoInteractions(imagePayloadRepository);
     }
 
     @Test
     void deleteImage_WhenImageDoesNotExist_ShouldDoNothing() {
         // Arrange
-        when(imageDataRepository.findByName("non-existent.jpg")).thenReturn(Optional.empty());
+        when(imageDataRepository.lockByName("non-existent.jpg")).thenReturn(Optional.empty());
 
         // Act
         imageStorageService.deleteImage("non-existent.jpg");
 
         // Verify
-        verify(imageDataRepository).findByName("non-existent.jpg");
-        verify(imageDataRepository, never()).delete(any(ImageData.class));
+        verify(imageDataRepository).lockByName("non-existent.jpg");
+        verify(imageDataRepository, never()).deleteByName(anyString());
     }
 }
@@ -0,0 +1,291 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.ImageVariant;
+import com.memevote.backend.model.VariantStatus;
+import com.memevote.backend.repository.ImageDataRepository;
+import com.memevote.backend.repository.ImageVariantRepository;
+import com.memevote.backend.repository.projection.ImageMetadata;
+import com.memevote.backend.service.storage.BlobStore;
+import com.memevote.backend.service.storage.StoredBlob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageVariantServiceTest {
+
+    @Mock
+    private ImageDataRepository imageDataRepository;
+
+    @Mock
+    private ImageVariantRepository variantRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private BlobReferenceService blobReferenceService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ImageVariantService variantService;
+
+    private final List<byte[]> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(variantService, "meterRegistry", new SimpleMeterRegistry());
+        variantService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        variantService.shutdown();
+    }
+
+    @Test
+    void generate_ShouldWriteVariantsNarrowerThanTheOriginal() throws IOException {
+        // Arrange
+        stubImage("image/png", encode(2000, 1000, "png"));
+        stubBlobWrites();
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.READY)).thenReturn(1);
+
+        // Act
+        variantService.generate(7L);
+
+        // Assert
+        List<ImageVariant> variants = savedVariants();
+        assertEquals(3, variants.size());
+        for (ImageVariant variant : variants) {
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(written.get(variants.indexOf(variant))));
+            assertEquals(variant.getWidth(), decoded.getWidth());
+            assertEquals(variant.getWidth() / 2, variant.getHeight());
+            assertEquals(variant.getHeight(), decoded.getHeight());
+            assertEquals(7L, variant.getImageId());
+            assertEquals("image/png", variant.getType());
+        }
+        assertEquals(List.of(1280, 640, 160), List.of(variants.get(0).getWidth(), variants.get(1).getWidth(),
+                variants.get(2).getWidth()));
+
+        // Verify
+        verify(imageDataRepository).updateDimensions(7L, 2000, 1000);
+        verify(variantRepository).deleteByImageId(7L);
+        for (ImageVariant variant : variants) {
+            assertTrue(variant.getBlobCounted());
+            verify(blobReferenceService).retain(eq(variant.getBlobKey()), eq(variant.getFileSize()), any());
+        }
+    }
+
+    @Test
+    void generate_WhenRegenerating_ShouldReleaseThePreviousVariants() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(variantService, "widths", new int[]{160});
+        stubImage("image/png", encode(400, 300, "png"));
+        stubBlobWrites();
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.READY)).thenReturn(1);
+        ImageVariant previous = ImageVariant.builder().imageId(7L).width(160).blobKey("old").blobCounted(true).build();
+        when(variantRepository.findByImageId(7L)).thenReturn(List.of(previous));
+
+        // Act
+        variantService.generate(7L);
+
+        // Verify
+        verify(blobReferenceService).release("old", true);
+        verify(blobReferenceService).retain(eq("blob-0"), any(), any());
+    }
+
+    @Test
+    void generate_ShouldKeepJpegsAsJpegs() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(variantService, "widths", new int[]{160});
+        stubImage("image/jpeg", encode(400, 300, "jpeg"));
+        stubBlobWrites();
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.READY)).thenReturn(1);
+
+        // Act
+        variantService.generate(7L);
+
+        // Assert
+        ImageVariant variant = savedVariants().get(0);
+        assertEquals("image/jpeg", variant.getType());
+        assertEquals(120, variant.getHeight());
+        assertEquals((byte) 0xFF, written.get(0)[0]);
+        assertEquals((byte) 0xD8, written.get(0)[1]);
+    }
+
+    @Test
+    void generate_WhenOriginalIsNarrow_ShouldBeReadyWithoutVariants() throws IOException {
+        // Arrange
+        stubImage("image/png", encode(100, 80, "png"));
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.READY)).thenReturn(1);
+
+        // Act
+        variantService.generate(7L);
+
+        // Assert
+        assertTrue(savedVariants().isEmpty());
+
+        // Verify
+        verify(blobStore, never()).put(any(InputStream.class));
+    }
+
+    @Test
+    void generate_ShouldDropVariantsNoSmallerThanTheOriginal() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(variantService, "widths", new int[]{160});
+        ImageMetadata image = stubImage("image/png", encode(400, 300, "png"));
+        when(image.getFileSize()).thenReturn(10L);
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.READY)).thenReturn(1);
+
+        // Act
+        variantService.generate(7L);
+
+        // Assert
+        assertTrue(savedVariants().isEmpty());
+
+        // Verify
+        verify(blobStore, never()).put(any(InputStream.class));
+    }
+
+    @Test
+    void generate_WhenImageIsAGif_ShouldSkipWithoutReadingIt() throws IOException {
+        // Arrange
+        ImageMetadata gif = mock(ImageMetadata.class);
+        when(gif.getBlobKey()).thenReturn("original");
+        when(gif.getType()).thenReturn("image/gif");
+        when(imageDataRepository.findMetadataById(7L)).thenReturn(Optional.of(gif));
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.SKIPPED)).thenReturn(1);
+
+        // Act
+        variantService.generate(7L);
+
+        // Verify
+        verify(imageDataRepository).updateVariantStatus(7L, VariantStatus.SKIPPED);
+        verify(blobStore, never()).get(anyString());
+    }
+
+    @Test
+    void generate_WhenBytesAreCorrupt_ShouldMarkFailed() throws IOException {
+        // Arrange
+        stubImage("image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 'I', 'H', 'D', 'R', 1, 2});
+
+        // Act
+        variantService.generate(7L);
+
+        // Verify
+        verify(imageDataRepository).updateVariantStatus(7L, VariantStatus.FAILED);
+        verify(variantRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void generate_WhenImageIsDeletedMeanwhile_ShouldRemoveTheNewBlobs() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(variantService, "widths", new int[]{160});
+        stubImage("image/png", encode(400, 300, "png"));
+        stubBlobWrites();
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.READY)).thenReturn(0);
+
+        // Act
+        variantService.generate(7L);
+
+        // Verify
+        verify(variantRepository, never()).saveAll(any());
+        verify(blobReferenceService, never()).retain(anyString(), any(), any());
+        verify(blobReferenceService).collect("blob-0");
+    }
+
+    @Test
+    void generate_WhenSavingFails_ShouldRemoveTheNewBlobsAndMarkFailed() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(variantService, "widths", new int[]{160});
+        stubImage("image/png", encode(400, 300, "png"));
+        stubBlobWrites();
+        when(imageDataRepository.updateVariantStatus(7L, VariantStatus.READY))
+                .thenThrow(new IllegalStateException("database down"));
+
+        // Act
+        variantService.generate(7L);
+
+        // Verify
+        verify(blobReferenceService).collect("blob-0");
+        verify(imageDataRepository).updateVariantStatus(7L, VariantStatus.FAILED);
+    }
+
+    @Test
+    void downscale_ShouldReachTheExactTargetSize() {
+        // Arrange
+        BufferedImage image = new BufferedImage(1000, 333, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        BufferedImage scaled = ImageVariantService.downscale(image, 160, 53, false);
+
+        // Assert
+        assertEquals(160, scaled.getWidth());
+        assertEquals(53, scaled.getHeight());
+    }
+
+    private ImageMetadata stubImage(String type, byte[] content) {
+        ImageMetadata image = mock(ImageMetadata.class);
+        lenient().when(image.getId()).thenReturn(7L);
+        lenient().when(image.getFileSize()).thenReturn(Long.MAX_VALUE);
+        when(image.getBlobKey()).thenReturn("original");
+        when(image.getType()).thenReturn(type);
+        when(imageDataRepository.findMetadataById(7L)).thenReturn(Optional.of(image));
+        when(blobStore.get("original")).thenReturn(Optional.of(new ByteArrayResource(content)));
+        return image;
+    }
+
+    private void stubBlobWrites() throws IOException {
+        when(blobStore.put(any(InputStream.class))).thenAnswer(invocation -> {
+            byte[] bytes = invocation.<InputStream>getArgument(0).readAllBytes();
+            String key = "blob-" + written.size();
+            written.add(bytes);
+            return new StoredBlob(key, bytes.length, key);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ImageVariant> savedVariants() {
+        ArgumentCaptor<List<ImageVariant>> captor = ArgumentCaptor.forClass(List.class);
+        verify(variantRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static byte[] encode(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
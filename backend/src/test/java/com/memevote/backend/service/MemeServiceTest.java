@@ -2,14 +2,26 @@ package com.memevote.backend.service;
 
 import com.memevote.backend.dto.request.MemeRequest;
 import com.memevote.backend.dto.response.CategoryDto;
+import com.memevote.backend.dto.response.CursorPage;
 import com.memevote.backend.dto.response.MemeResponse;
 import com.memevote.backend.dto.response.UserSummary;
 import com.memevote.backend.dto.response.VoterDto;
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.exception.BadRequestException;
 import com.memevote.backend.model.Category;
 import com.memevote.backend.model.Meme;
 import com.memevote.backend.model.User;
 import com.memevote.backend.repository.MemeRepository;
+import com.memevote.backend.repository.UserRepository;
 import com.memevote.backend.repository.VoteRepository;
+import com.memevote.backend.repository.feed.FeedCursor;
+import com.memevote.backend.repository.feed.FeedOrder;
+import com.memevote.backend.repository.projection.MemeCategory;
+import com.memevote.backend.repository.projection.MemeRow;
+import com.memevote.backend.repository.projection.MemeVoteCount;
+import com.memevote.backend.repository.projection.MemeVoteTotal;
+import com.memevote.backend.repository.projection.MemeVoter;
+import com.memevote.backend.repository.specification.CategoryMatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,12 +32,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.core.MessagePostProcessor;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -42,6 +59,9 @@ public class MemeServiceTest {
     @Mock
     private VoteRepository voteRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private UserService userService;
 
@@ -54,6 +74,30 @@ public class MemeServiceTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private HotRankingService hotRankingService;
+
+    @Mock
+    private MemeTitleIndex memeTitleIndex;
+
+    @Mock
+    private UserVoteCache userVoteCache;
+
+    @Mock
+    private FeedPageCache feedPageCache;
+
+    @Mock
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @Mock
+    private VoteCounter voteCounter;
+
+    @Mock
+    private VoteRollupService voteRollupService;
+
     @InjectMocks
     private MemeService memeService;
 
@@ -130,9 +174,8 @@ public class MemeServiceTest {
         when(memeRepository.save(any(Meme.class))).thenReturn(testMeme);
         when(userService.getUserSummary(any(User.class))).thenReturn(userSummary);
         when(categoryService.mapToCategoryDtoSet(anySet())).thenReturn(categoryDtos);
-        when(voteRepository.countByMemeId(anyLong())).thenReturn(0L);
-        when(voteRepository.existsByUserAndMeme(any(User.class), any(Meme.class))).thenReturn(false);
-        when(voteRepository.findVotersByMemeId(anyLong())).thenReturn(Collections.emptyList());
+        when(userVoteCache.hasVoted(1L, 1L)).thenReturn(false);
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
 
         // Act
         MemeResponse response = memeService.createMeme(memeRequest, mockFile);
@@ -153,21 +196,21 @@ public class MemeServiceTest {
         verify(categoryService).getCategoriesByNames(memeRequest.getCategories());
         verify(memeRepository).save(any(Meme.class));
         verify(messagingTemplate).convertAndSend(eq("/topic/memes"), any(Object.class));
+        verify(eventPublisher).publishEvent(any(MemeCreatedEvent.class));
     }
 
     @Test
     void getMemeById_ShouldReturnMemeResponse() {
         // Arrange
         when(userService.getCurrentUser()).thenReturn(testUser);
+        testMeme.setVoteCount(5L);
         when(memeRepository.findById(1L)).thenReturn(Optional.of(testMeme));
         when(userService.getUserSummary(any(User.class))).thenReturn(userSummary);
         when(categoryService.mapToCategoryDtoSet(anySet())).thenReturn(categoryDtos);
-        when(voteRepository.countByMemeId(anyLong())).thenReturn(5L);
-        when(voteRepository.existsByUserAndMeme(any(User.class), any(Meme.class))).thenReturn(true);
+        when(userVoteCache.hasVoted(1L, 1L)).thenReturn(true);
 
-        List<User> voters = new ArrayList<>();
-        voters.add(testUser);
-        when(voteRepository.findVotersByMemeId(anyLong())).thenReturn(voters);
+        when(voteRepository.findRecentVoters(Collections.singletonList(1L), 5))
+                .thenReturn(Collections.singletonList(voter(1L, testUser)));
 
         // Act
         MemeResponse response = memeService.getMemeById(1L);
@@ -187,28 +230,29 @@ public class MemeServiceTest {
         verify(memeRepository).findById(1L);
         verify(userService).getUserSummary(testUser);
         verify(categoryService).mapToCategoryDtoSet(categories);
-        verify(voteRepository).countByMemeId(1L);
-        verify(voteRepository).existsByUserAndMeme(testUser, testMeme);
-        verify(voteRepository).findVotersByMemeId(1L);
+        verify(voteRepository, never()).countByMemeId(anyLong());
+        verify(userVoteCache).hasVoted(1L, 1L);
+        verify(voteRepository, never()).existsByUserAndMeme(any(User.class), any(Meme.class));
+        verify(voteRepository).findRecentVoters(Collections.singletonList(1L), 5);
     }
 
     @Test
     void getMemes_ShouldReturnPageOfMemeResponses() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        List<Meme> memes = Collections.singletonList(testMeme);
-        Page<Meme> memePage = new PageImpl<>(memes, pageable, 1);
+        testMeme.setVoteCount(5L);
+        Page<MemeRow> rowPage = new PageImpl<>(Collections.singletonList(row(testMeme)), pageable, 1);
 
         when(userService.getCurrentUser()).thenReturn(testUser);
-        when(memeRepository.findAll(pageable)).thenReturn(memePage);
-        when(userService.getUserSummary(any(User.class))).thenReturn(userSummary);
-        when(categoryService.mapToCategoryDtoSet(anySet())).thenReturn(categoryDtos);
-        when(voteRepository.countByMemeId(anyLong())).thenReturn(5L);
-        when(voteRepository.existsByUserAndMeme(any(User.class), any(Meme.class))).thenReturn(true);
-        when(voteRepository.findVotersByMemeId(anyLong())).thenReturn(Collections.singletonList(testUser));
+        when(memeRepository.findRows(null, pageable)).thenReturn(rowPage);
+        when(memeRepository.findCategoriesByMemeIds(Collections.singletonList(1L)))
+                .thenReturn(Collections.singletonList(category(1L, 1L, "Funny")));
+        when(userVoteCache.votedAmong(eq(1L), anyCollection())).thenReturn(Collections.singleton(1L));
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt()))
+                .thenReturn(Collections.singletonList(voter(1L, testUser)));
 
         // Act
-        Page<MemeResponse> responsePage = memeService.getMemes(null, null, null, pageable);
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, null, null, pageable);
 
         // Assert
         assertNotNull(responsePage);
@@ -216,8 +260,485 @@ public class MemeServiceTest {
         MemeResponse response = responsePage.getContent().get(0);
         assertEquals(1L, response.getId());
         assertEquals("Test Meme", response.getTitle());
+        assertEquals("testuser", response.getUser().getUsername());
+        assertEquals(Collections.singleton(new CategoryDto(1L, "Funny")), response.getCategories());
+        assertEquals(5L, response.getVoteCount());
+        assertTrue(response.getUserVoted());
+        assertEquals(1, response.getVoters().size());
+        assertEquals("testuser", response.getVoters().get(0).getUsername());
+
+        // Verify
+        verify(memeRepository).findRows(null, pageable);
+        verify(memeRepository, never()).findAll(any(Pageable.class));
+        verify(userService, never()).getUserSummary(any(User.class));
+        verify(voteRepository, never()).countByMemeId(anyLong());
+        verify(voteRepository, never()).existsByUserAndMeme(any(User.class), any(Meme.class));
+    }
+
+    @Test
+    void getMemes_ShouldUseGroupedVoteQueriesForWholePage() {
+        // Arrange
+        Meme otherMeme = new Meme();
+        otherMeme.setId(2L);
+        otherMeme.setTitle("Other Meme");
+        otherMeme.setUrl("other-meme.jpg");
+        otherMeme.setUser(testUser);
+        otherMeme.setCategories(categories);
+        otherMeme.setVoteCount(3L);
+
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<MemeRow> rowPage = new PageImpl<>(Arrays.asList(row(testMeme), row(otherMeme)), pageable, 2);
+
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(memeRepository.findRows(null, pageable)).thenReturn(rowPage);
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, null, null, pageable);
+
+        // Assert
+        assertEquals(2, responsePage.getContent().size());
+        assertEquals(0L, responsePage.getContent().get(0).getVoteCount());
+        assertEquals(3L, responsePage.getContent().get(1).getVoteCount());
+        assertFalse(responsePage.getContent().get(1).getUserVoted());
+        assertTrue(responsePage.getContent().get(1).getVoters().isEmpty());
+
+        // Verify
+        verify(voteRepository, never()).countByMemeId(anyLong());
+        verify(memeRepository).findCategoriesByMemeIds(Arrays.asList(1L, 2L));
+        verify(voteRepository).findRecentVoters(Arrays.asList(1L, 2L), 5);
+        verify(userVoteCache, never()).votedAmong(anyLong(), anyCollection());
+    }
+
+    @Test
+    void getMemes_WithStripedMemes_ShouldSumTheirShardsInOneQuery() {
+        // Arrange
+        Meme otherMeme = new Meme();
+        otherMeme.setId(2L);
+        otherMeme.setTitle("Other Meme");
+        otherMeme.setUser(testUser);
+        otherMeme.setVoteCount(3L);
+        Meme coldMeme = new Meme();
+        coldMeme.setId(3L);
+        coldMeme.setTitle("Cold Meme");
+        coldMeme.setUser(testUser);
+        coldMeme.setVoteCount(4L);
+
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<MemeRow> rowPage = new PageImpl<>(Arrays.asList(row(testMeme), row(otherMeme), row(coldMeme)), pageable, 3);
+
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(memeRepository.findRows(null, pageable)).thenReturn(rowPage);
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+        when(voteCounter.shardCount(anyLong())).thenReturn(1);
+        when(voteCounter.shardCount(1L)).thenReturn(4);
+        when(voteCounter.shardCount(2L)).thenReturn(8);
+        when(memeRepository.findVoteCountsByIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(count(1L, 10L), count(2L, 20L)));
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, null, null, pageable);
+
+        // Assert
+        assertEquals(10L, responsePage.getContent().get(0).getVoteCount());
+        assertEquals(20L, responsePage.getContent().get(1).getVoteCount());
+        assertEquals(4L, responsePage.getContent().get(2).getVoteCount());
+
+        // Verify
+        verify(memeRepository).findVoteCountsByIds(anyCollection());
+        verify(memeRepository, never()).findVoteCountById(anyLong());
+    }
+
+    @Test
+    void getMemes_SortedHot_ShouldServePageFromRanking() {
+        // Arrange
+        Meme otherMeme = new Meme();
+        otherMeme.setId(2L);
+        otherMeme.setTitle("Other Meme");
+        otherMeme.setUrl("other-meme.jpg");
+        otherMeme.setUser(testUser);
+        Pageable pageable = PageRequest.of(1, 2, Sort.by(MemeService.HOT_SORT));
+
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(hotRankingService.getHotMemeIds(2L, 2)).thenReturn(Arrays.asList(2L, 1L));
+        when(hotRankingService.size()).thenReturn(4);
+        when(memeRepository.findRowsByIds(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(row(testMeme), row(otherMeme)));
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, null, null, pageable);
+
+        // Assert
+        assertEquals(4, responsePage.getTotalElements());
+        assertEquals(2L, responsePage.getContent().get(0).getId());
+        assertEquals(1L, responsePage.getContent().get(1).getId());
+
+        // Verify
+        verify(memeRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getMemes_SortedHotWithSelectiveFilter_ShouldOrderSqlMatchesByHotness() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1, Sort.by(MemeService.HOT_SORT));
+
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(memeRepository.findMatchingIds(any(), eq(10001))).thenReturn(Arrays.asList(1L, 2L, 3L));
+        when(hotRankingService.sortByHotness(Arrays.asList(1L, 2L, 3L))).thenReturn(Arrays.asList(3L, 1L));
+        when(memeRepository.findRowsByIds(Collections.singletonList(3L))).thenReturn(Collections.emptyList());
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, "testuser", null, pageable);
+
+        // Assert
+        assertEquals(2, responsePage.getTotalElements());
+
+        // Verify
+        verify(memeRepository).findRowsByIds(Collections.singletonList(3L));
+        verify(hotRankingService, never()).iterateHotMemeIds();
+        verify(memeRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void getMemes_SortedHotWithBroadFilter_ShouldMatchRankedChunks() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1, Sort.by(MemeService.HOT_SORT));
+        ReflectionTestUtils.setField(memeService, "hotFilterFetchLimit", 1);
+
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(memeRepository.findMatchingIds(any(), eq(2))).thenReturn(Arrays.asList(1L, 2L));
+        when(hotRankingService.iterateHotMemeIds()).thenReturn(Arrays.asList(3L, 2L, 1L).iterator());
+        when(memeRepository.findMatchingIds(any(), eq(Arrays.asList(3L, 2L, 1L)))).thenReturn(Arrays.asList(1L, 2L));
+        when(memeRepository.count(any(Specification.class))).thenReturn(2L);
+        when(memeRepository.findRowsByIds(Collections.singletonList(2L))).thenReturn(Collections.emptyList());
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, null, "meme", pageable);
+
+        // Assert
+        assertEquals(2, responsePage.getTotalElements());
+        verify(memeRepository).findRowsByIds(Collections.singletonList(2L));
+    }
+
+    @Test
+    void getMemes_WithTitle_ShouldPageThroughIndexRanking() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(memeTitleIndex.search("test")).thenReturn(Arrays.asList(1L, 2L));
+        when(memeRepository.findRowsByIds(Collections.singletonList(1L))).thenReturn(Collections.singletonList(row(testMeme)));
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(userVoteCache.votedAmong(eq(1L), anyCollection())).thenReturn(Collections.emptySet());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, null, "test", pageable);
+
+        // Assert
+        assertEquals(2, responsePage.getTotalElements());
+        assertEquals(1, responsePage.getContent().size());
+        assertEquals(1L, responsePage.getContent().get(0).getId());
+
+        // Verify
+        verify(memeRepository, never()).findRows(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getMemes_WithTitleAndFilters_ShouldCountMatchesBeyondOneIdList() {
+        // Arrange
+        ReflectionTestUtils.setField(memeService, "maxIdFilter", 2);
+        Pageable pageable = PageRequest.of(1, 1);
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(memeTitleIndex.search("test")).thenReturn(Arrays.asList(3L, 2L, 1L));
+        when(memeRepository.findMatchingIds(any(), eq(Arrays.asList(3L, 2L)))).thenReturn(Collections.singletonList(2L));
+        when(memeRepository.findMatchingIds(any(), eq(Collections.singletonList(1L)))).thenReturn(Collections.singletonList(1L));
+        when(memeRepository.findRowsByIds(Collections.singletonList(1L))).thenReturn(Collections.singletonList(row(testMeme)));
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(userVoteCache.votedAmong(eq(1L), anyCollection())).thenReturn(Collections.emptySet());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, "testuser", "test", pageable);
+
+        // Assert
+        assertEquals(2, responsePage.getTotalElements());
+        assertEquals(1L, responsePage.getContent().get(0).getId());
+    }
+
+    @Test
+    void getMemes_SortedWithTitle_ShouldFilterByIndexMatchesBeyondOneIdList() {
+        // Arrange
+        ReflectionTestUtils.setField(memeService, "maxIdFilter", 2);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(memeTitleIndex.search("test")).thenReturn(Arrays.asList(3L, 2L, 1L));
+        when(memeRepository.findRows(any(), eq(pageable))).thenReturn(new PageImpl<>(Collections.emptyList(), pageable, 0));
+
+        // Act
+        memeService.getMemes(null, CategoryMatch.ANY, null, "test", pageable);
+
+        // Verify
+        verify(memeTitleIndex).search("test");
+        verify(memeRepository).findRows(notNull(), eq(pageable));
+    }
+
+    @Test
+    void getMemes_WithCategoriesAndUsername_ShouldUseSingleSpecificationQuery() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<MemeRow> rowPage = new PageImpl<>(Collections.singletonList(row(testMeme)), pageable, 1);
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(memeRepository.findRows(any(Specification.class), eq(pageable))).thenReturn(rowPage);
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(userVoteCache.votedAmong(eq(1L), anyCollection())).thenReturn(Collections.emptySet());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(
+                new HashSet<>(Arrays.asList("Funny", "Test")), CategoryMatch.ALL, "testuser", null, pageable);
+
+        // Assert
+        assertEquals(1, responsePage.getTotalElements());
+        assertEquals(1L, responsePage.getContent().get(0).getId());
+
+        // Verify
+        verify(categoryService, never()).getCategoriesByNames(anySet());
+        verify(memeRepository, never()).findRows(isNull(), any(Pageable.class));
+    }
+
+    @Test
+    void getMemes_WhenPageIsCached_ShouldOverlayCurrentUserVotes() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        FeedPageCache.Key key = new FeedPageCache().key(null, CategoryMatch.ANY, null, null, pageable);
+        MemeResponse shared = new MemeResponse(1L, "Test Meme", "test-meme.jpg", testMeme.getCreatedAt(),
+                userSummary, categoryDtos, 5L, false, Collections.emptyList());
+        Page<MemeResponse> sharedPage = new PageImpl<>(Collections.singletonList(shared), pageable, 1);
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(feedPageCache.key(null, CategoryMatch.ANY, null, null, pageable)).thenReturn(key);
+        when(feedPageCache.getOrLoad(eq(key), any())).thenReturn(sharedPage);
+        when(userVoteCache.votedAmong(1L, Collections.singletonList(1L))).thenReturn(Collections.singleton(1L));
+
+        // Act
+        Page<MemeResponse> responsePage = memeService.getMemes(null, CategoryMatch.ANY, null, null, pageable);
+
+        // Assert
+        assertEquals(1, responsePage.getTotalElements());
+        assertTrue(responsePage.getContent().get(0).getUserVoted());
+        assertEquals(5L, responsePage.getContent().get(0).getVoteCount());
+        assertFalse(shared.getUserVoted());
+
+        // Verify
+        verify(memeRepository, never()).findRows(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getMemeFeed_ShouldReturnSliceWithNextCursor() {
+        // Arrange
+        Meme olderMeme = new Meme();
+        olderMeme.setId(2L);
+        olderMeme.setTitle("Older Meme");
+        olderMeme.setUrl("older-meme.jpg");
+        olderMeme.setUser(testUser);
+        olderMeme.setCreatedAt(testMeme.getCreatedAt().minusMinutes(1));
+
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(memeRepository.findFeedSlice(any(), eq(FeedOrder.NEW), eq(2)))
+                .thenReturn(new ArrayList<>(Arrays.asList(row(testMeme), row(olderMeme))));
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        CursorPage<MemeResponse> slice = memeService.getMemeFeed(null, CategoryMatch.ANY, null, null, Sort.unsorted(), "", 1);
+
+        // Assert
+        assertEquals(1, slice.getContent().size());
+        assertEquals(1L, slice.getContent().get(0).getId());
+        assertTrue(slice.isHasNext());
+        FeedCursor next = FeedCursor.decode(slice.getNextCursor());
+        assertEquals(FeedOrder.NEW, next.getOrder());
+        assertEquals(1L, next.getId());
+        assertEquals(testMeme.getCreatedAt(), next.getCreatedAt());
 
         // Verify
-        verify(memeRepository).findAll(pageable);
+        verify(memeRepository, never()).findRows(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getMemeFeed_ShouldKeepOrderingOfCursor() {
+        // Arrange
+        String cursor = FeedCursor.of(FeedOrder.TOP, null, 7L, 3L).encode();
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(memeRepository.findFeedSlice(any(), eq(FeedOrder.TOP), eq(11))).thenReturn(new ArrayList<>());
+
+        // Act
+        CursorPage<MemeResponse> slice = memeService.getMemeFeed(
+                null, CategoryMatch.ANY, null, null, Sort.unsorted(), cursor, 10);
+
+        // Assert
+        assertTrue(slice.getContent().isEmpty());
+        assertFalse(slice.isHasNext());
+        assertNull(slice.getNextCursor());
+    }
+
+    @Test
+    void getMemeFeed_WithMalformedCursor_ShouldThrowBadRequest() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () ->
+                memeService.getMemeFeed(null, CategoryMatch.ANY, null, null, Sort.unsorted(), "not-a-cursor", 10));
+        verify(memeRepository, never()).findFeedSlice(any(), any(), anyInt());
+    }
+
+    @Test
+    void getMemeFeed_WithSortWithoutKeysetOrdering_ShouldThrowBadRequest() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> memeService.getMemeFeed(
+                null, CategoryMatch.ANY, null, null, Sort.by(Sort.Direction.ASC, "createdAt"), "", 10));
+        assertThrows(BadRequestException.class, () -> memeService.getMemeFeed(
+                null, CategoryMatch.ANY, null, null, Sort.by(Sort.Direction.DESC, MemeService.HOT_SORT), "", 10));
+        verify(memeRepository, never()).findFeedSlice(any(), any(), anyInt());
+    }
+
+    @Test
+    void getMemeFeed_WithCursorOfAnotherSort_ShouldThrowBadRequest() {
+        // Arrange
+        String cursor = FeedCursor.of(FeedOrder.TOP, null, 7L, 3L).encode();
+        when(userService.getCurrentUser()).thenReturn(testUser);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> memeService.getMemeFeed(
+                null, CategoryMatch.ANY, null, null, Sort.by(Sort.Direction.DESC, "createdAt"), cursor, 10));
+        verify(memeRepository, never()).findFeedSlice(any(), any(), anyInt());
+    }
+
+    @Test
+    void getTrendingMemes_ShouldReturnMemesInRollupOrder() {
+        // Arrange
+        Meme otherMeme = new Meme();
+        otherMeme.setId(2L);
+        otherMeme.setTitle("Other Meme");
+        otherMeme.setUser(testUser);
+        otherMeme.setCreatedAt(LocalDateTime.now());
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(voteRollupService.topMemes(Duration.ofHours(6), 2)).thenReturn(Arrays.asList(total(2L, 9L), total(1L, 4L)));
+        when(memeRepository.findRowsByIds(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(row(testMeme), row(otherMeme)));
+        when(memeRepository.findCategoriesByMemeIds(anyCollection())).thenReturn(Collections.emptyList());
+        when(voteRepository.findRecentVoters(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        List<MemeResponse> trending = memeService.getTrendingMemes(6, 2);
+
+        // Assert
+        assertEquals(2, trending.size());
+        assertEquals(2L, trending.get(0).getId());
+        assertEquals(1L, trending.get(1).getId());
+    }
+
+    @Test
+    void getTrendingMemes_WithInvalidWindow_ShouldThrowBadRequest() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> memeService.getTrendingMemes(0, 20));
+        verifyNoInteractions(voteRollupService);
+    }
+
+    private MemeVoteCount count(Long memeId, Long voteCount) {
+        return new MemeVoteCount() {
+            @Override
+            public Long getId() {
+                return memeId;
+            }
+
+            @Override
+            public Long getVoteCount() {
+                return voteCount;
+            }
+        };
+    }
+
+    private MemeVoteTotal total(Long memeId, Long votes) {
+        return new MemeVoteTotal() {
+            @Override
+            public Long getMemeId() {
+                return memeId;
+            }
+
+            @Override
+            public Long getVotes() {
+                return votes;
+            }
+        };
+    }
+
+    private MemeRow row(Meme meme) {
+        User owner = meme.getUser();
+        return new MemeRow(meme.getId(), meme.getTitle(), meme.getUrl(), meme.getCreatedAt(), meme.getVoteCount(),
+                owner != null ? owner.getId() : null,
+                owner != null ? owner.getUsername() : null,
+                owner != null ? owner.getEmail() : null,
+                owner != null ? owner.getProfilePicture() : null);
+    }
+
+    private MemeCategory category(Long memeId, Long id, String name) {
+        return new MemeCategory() {
+            @Override
+            public Long getMemeId() {
+                return memeId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private MemeVoter voter(Long memeId, User user) {
+        return new MemeVoter() {
+            @Override
+            public Long getVoteId() {
+                return memeId * 1000 + user.getId();
+            }
+
+            @Override
+            public Long getMemeId() {
+                return memeId;
+            }
+
+            @Override
+            public Long getId() {
+                return user.getId();
+            }
+
+            @Override
+            public String getUsername() {
+                return user.getUsername();
+            }
+
+            @Override
+            public String getProfilePicture() {
+                return user.getProfilePicture();
+            }
+        };
     }
 }
@@ -0,0 +1,182 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.MemeCreatedEvent;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.event.MemeUpdatedEvent;
+import com.memevote.backend.repository.MemeRepository;
+import com.memevote.backend.repository.projection.MemeTitle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MemeTitleIndexTest {
+
+    @Mock
+    private MemeRepository memeRepository;
+
+    @InjectMocks
+    private MemeTitleIndex memeTitleIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(memeRepository.findAllTitles()).thenReturn(Arrays.asList(
+                title(1L, "Grumpy cat on Monday"),
+                title(2L, "Distracted boyfriend"),
+                title(3L, "Cat vs cucumber"),
+                title(4L, "Catastrophic deploy Friday")));
+        memeTitleIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldMarkIndexReady() {
+        // Assert
+        assertTrue(memeTitleIndex.isReady());
+    }
+
+    @Test
+    void search_ShouldRankExactMatchesBeforePrefixMatches() {
+        // Act & Assert
+        assertEquals(Arrays.asList(3L, 1L, 4L), memeTitleIndex.search("cat"));
+    }
+
+    @Test
+    void search_ShouldRequireEveryQueryToken() {
+        // Act & Assert
+        assertEquals(Collections.singletonList(1L), memeTitleIndex.search("grumpy CAT"));
+        assertTrue(memeTitleIndex.search("grumpy cucumber").isEmpty());
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        // Act & Assert
+        assertEquals(Collections.singletonList(2L), memeTitleIndex.search("distracetd"));
+        assertEquals(Collections.singletonList(3L), memeTitleIndex.search("cucmber"));
+    }
+
+    @Test
+    void events_ShouldKeepIndexCurrent() {
+        // Act
+        memeTitleIndex.onMemeCreated(new MemeCreatedEvent(5L, "Surprised Pikachu", LocalDateTime.now()));
+        memeTitleIndex.onMemeUpdated(new MemeUpdatedEvent(2L, "Distracted pikachu"));
+        memeTitleIndex.onMemeDeleted(new MemeDeletedEvent(3L));
+
+        // Assert
+        assertEquals(Arrays.asList(5L, 2L), memeTitleIndex.search("pikachu"));
+        assertTrue(memeTitleIndex.search("boyfriend").isEmpty());
+        assertTrue(memeTitleIndex.search("cucumber").isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldKeepChangesMadeWhileReadingTitles() {
+        // Arrange: the events land after the title snapshot was read
+        when(memeRepository.findAllTitles()).thenAnswer(invocation -> {
+            memeTitleIndex.onMemeCreated(new MemeCreatedEvent(5L, "Surprised Pikachu", LocalDateTime.now()));
+            memeTitleIndex.onMemeDeleted(new MemeDeletedEvent(3L));
+            return Arrays.asList(title(1L, "Grumpy cat on Monday"), title(3L, "Cat vs cucumber"));
+        });
+
+        // Act
+        memeTitleIndex.rebuild();
+
+        // Assert
+        assertEquals(Collections.singletonList(5L), memeTitleIndex.search("pikachu"));
+        assertTrue(memeTitleIndex.search("cucumber").isEmpty());
+        assertEquals(Collections.singletonList(1L), memeTitleIndex.search("cat"));
+    }
+
+    @Test
+    void search_ShouldReturnEveryMatch() {
+        // Arrange
+        List<MemeTitle> titles = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            titles.add(title(id, "Cat number " + id));
+        }
+        when(memeRepository.findAllTitles()).thenReturn(titles);
+        memeTitleIndex.rebuild();
+
+        // Act
+        List<Long> ids = memeTitleIndex.search("cat");
+
+        // Assert
+        assertEquals(2500, ids.size());
+        assertEquals(2500L, ids.get(0));
+    }
+
+    @Test
+    void search_ShouldMatchWordsNotSubstrings() {
+        // Arrange
+        memeTitleIndex.index(5L, "Bobcat in the snow");
+
+        // Act & Assert
+        assertFalse(memeTitleIndex.search("cat").contains(5L));
+        assertEquals(Collections.singletonList(5L), memeTitleIndex.search("bobcat"));
+    }
+
+    @Test
+    void search_WhenExpansionsExceedCap_ShouldKeepMostFrequentTokens() {
+        // Arrange: "zoa" sorts first but is the rarest word starting with "zo"
+        ReflectionTestUtils.setField(memeTitleIndex, "maxExpansions", 2);
+        memeTitleIndex.index(10L, "zoa ride");
+        memeTitleIndex.index(11L, "zoy one");
+        memeTitleIndex.index(12L, "zoy two");
+        memeTitleIndex.index(13L, "zoz one");
+        memeTitleIndex.index(14L, "zoz two");
+        memeTitleIndex.index(15L, "zoz three");
+
+        // Act
+        List<Long> ids = memeTitleIndex.search("zo");
+
+        // Assert
+        assertTrue(ids.containsAll(Arrays.asList(11L, 12L, 13L, 14L, 15L)));
+        assertFalse(ids.contains(10L));
+    }
+
+    @Test
+    void search_BeforeFirstBuild_ShouldBuildIndexAndKeepEarlierChanges() {
+        // Arrange
+        MemeTitleIndex unbuilt = new MemeTitleIndex();
+        ReflectionTestUtils.setField(unbuilt, "memeRepository", memeRepository);
+        unbuilt.index(9L, "Grumpy doge");
+
+        // Act
+        List<Long> ids = unbuilt.search("grumpy");
+
+        // Assert
+        assertTrue(unbuilt.isReady());
+        assertEquals(Arrays.asList(9L, 1L), ids);
+    }
+
+    @Test
+    void search_WithOnlySeparators_ShouldReturnNothing() {
+        // Act & Assert
+        assertTrue(memeTitleIndex.search("  --  ").isEmpty());
+    }
+
+    private MemeTitle title(Long id, String value) {
+        return new MemeTitle() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return value;
+            }
+        };
+    }
+}
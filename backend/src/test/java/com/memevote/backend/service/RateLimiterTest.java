@@ -0,0 +1,142 @@
+package com.memevote.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @InjectMocks
+    private RateLimiter rateLimiter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(rateLimiter, "voteCapacity", 3.0);
+        ReflectionTestUtils.setField(rateLimiter, "voteRefillPerSecond", 1.0);
+        ReflectionTestUtils.setField(rateLimiter, "uploadCapacity", 1000.0);
+        ReflectionTestUtils.setField(rateLimiter, "uploadRefillPerSecond", 100.0);
+        rateLimiter.init();
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenRejectUntilRefilled() {
+        // Act
+        long first = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, 0);
+        long second = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, 0);
+        long third = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, 0);
+        long rejected = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, 0);
+        long refilled = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, SECOND);
+
+        // Assert
+        assertEquals(0, first + second + third);
+        assertEquals(1, rejected);
+        assertEquals(0, refilled);
+        assertEquals(1.0, meterRegistry.get("memevote.rate-limit.rejections").tag("endpoint", "votes")
+                .counter().count());
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepUsersAndEndpointsApart() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, 0);
+        }
+
+        // Act
+        long otherUser = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 2L, "10.0.0.1", 1, 0);
+        long comment = rateLimiter.tryAcquire(RateLimiter.Endpoint.COMMENT, 1L, "10.0.0.1", 1, 0);
+
+        // Assert
+        assertEquals(0, otherUser);
+        assertEquals(0, comment);
+    }
+
+    @Test
+    void tryAcquire_WhenIpIsExhausted_ShouldRejectAndRefundUser() {
+        // Arrange
+        ReflectionTestUtils.setField(rateLimiter, "ipFactor", 1.0);
+        rateLimiter.init();
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, null, "10.0.0.1", 1, 0);
+        }
+
+        // Act
+        long sameIp = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, 0);
+        long otherIp = rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.2", 1, 0);
+
+        // Assert
+        assertTrue(sameIp > 0);
+        assertEquals(0, otherIp);
+    }
+
+    @Test
+    void tryAcquire_ShouldWeighUploadsByBytes() {
+        // Act
+        long small = rateLimiter.tryAcquire(RateLimiter.Endpoint.UPLOAD, 1L, "10.0.0.1", 400, 0);
+        long large = rateLimiter.tryAcquire(RateLimiter.Endpoint.UPLOAD, 1L, "10.0.0.1", 800, 0);
+        long oversized = rateLimiter.tryAcquire(RateLimiter.Endpoint.UPLOAD, 2L, "10.0.0.2", Long.MAX_VALUE, 0);
+        long afterOversized = rateLimiter.tryAcquire(RateLimiter.Endpoint.UPLOAD, 2L, "10.0.0.2", 1, 0);
+
+        // Assert
+        assertEquals(0, small);
+        // 200 bytes missing at 100 bytes per second
+        assertEquals(2, large);
+        assertEquals(0, oversized);
+        assertTrue(afterOversized > 0);
+    }
+
+    @Test
+    void sweep_ShouldDropRefilledBuckets() {
+        // Arrange
+        rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, System.nanoTime() - 10 * SECOND);
+
+        // Act
+        int before = rateLimiter.bucketCount();
+        rateLimiter.sweep();
+
+        // Assert
+        assertEquals(2, before);
+        assertEquals(0, rateLimiter.bucketCount());
+    }
+
+    @Test
+    void tryAcquire_WhenMapIsFull_ShouldEvictToStayBounded() {
+        // Arrange
+        ReflectionTestUtils.setField(rateLimiter, "maxKeys", 2);
+
+        // Act
+        for (long userId = 1; userId <= 5; userId++) {
+            assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, userId, "10.0.0." + userId, 1, 0));
+        }
+
+        // Assert
+        assertTrue(rateLimiter.bucketCount() <= 4);
+    }
+
+    @Test
+    void tryAcquire_WhenDisabled_ShouldAlwaysAllow() {
+        // Arrange
+        ReflectionTestUtils.setField(rateLimiter, "enabled", false);
+
+        // Act & Assert
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Endpoint.VOTE, 1L, "10.0.0.1", 1, 0));
+        }
+        assertEquals(0, rateLimiter.bucketCount());
+    }
+}
@@ -0,0 +1,158 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserVoteCacheTest {
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @InjectMocks
+    private UserVoteCache userVoteCache;
+
+    @BeforeEach
+    void setUp() {
+        // Nothing is buffered unless a test says otherwise
+        lenient().when(voteWriteBuffer.pendingState(anyLong(), anyLong())).thenReturn(null);
+    }
+
+    @Test
+    void votedAmong_ShouldLoadUserOnceAndAnswerFromMemory() {
+        // Arrange
+        when(voteRepository.findMemeIdsByUserId(1L)).thenReturn(Arrays.asList(10L, 30L));
+
+        // Act
+        boolean voted = userVoteCache.hasVoted(1L, 10L);
+        Set<Long> votedAmong = userVoteCache.votedAmong(1L, Arrays.asList(10L, 20L, 30L));
+
+        // Assert
+        assertTrue(voted);
+        assertEquals(new HashSet<>(Arrays.asList(10L, 30L)), votedAmong);
+        assertEquals(1, userVoteCache.size());
+
+        // Verify
+        verify(voteRepository, times(1)).findMemeIdsByUserId(1L);
+    }
+
+    @Test
+    void onVoteChanged_ShouldKeepCachedSetCurrent() {
+        // Arrange
+        when(voteRepository.findMemeIdsByUserId(1L)).thenReturn(Collections.singletonList(10L));
+        userVoteCache.hasVoted(1L, 10L);
+
+        // Act
+        userVoteCache.onVoteChanged(new VoteChangedEvent(20L, 1L, true, 1L));
+        userVoteCache.onVoteChanged(new VoteChangedEvent(10L, 1L, false, 0L));
+
+        // Assert
+        assertTrue(userVoteCache.hasVoted(1L, 20L));
+        assertFalse(userVoteCache.hasVoted(1L, 10L));
+        verify(voteRepository, times(1)).findMemeIdsByUserId(1L);
+    }
+
+    @Test
+    void onVoteChanged_ForUncachedUser_ShouldNotLoad() {
+        // Act
+        userVoteCache.onVoteChanged(new VoteChangedEvent(20L, 2L, true, 1L));
+
+        // Assert
+        assertEquals(0, userVoteCache.size());
+        verifyNoInteractions(voteRepository);
+    }
+
+    @Test
+    void cache_ShouldEvictLeastRecentlyUsedUser() {
+        // Arrange
+        ReflectionTestUtils.setField(userVoteCache, "maxUsers", 2);
+        when(voteRepository.findMemeIdsByUserId(anyLong())).thenReturn(Collections.emptyList());
+
+        // Act
+        userVoteCache.hasVoted(1L, 10L);
+        userVoteCache.hasVoted(2L, 10L);
+        userVoteCache.hasVoted(1L, 10L);
+        userVoteCache.hasVoted(3L, 10L);
+        userVoteCache.hasVoted(1L, 10L);
+        userVoteCache.hasVoted(2L, 10L);
+
+        // Assert
+        assertEquals(2, userVoteCache.size());
+        verify(voteRepository, times(1)).findMemeIdsByUserId(1L);
+        verify(voteRepository, times(2)).findMemeIdsByUserId(2L);
+        verify(voteRepository, times(1)).findMemeIdsByUserId(3L);
+    }
+
+    @Test
+    void votedAmong_WhenVoteArrivesDuringOverlappingLoads_ShouldNotKeepEarlierSnapshot() throws Exception {
+        // Arrange: the first load reads its snapshot, a vote commits, then a second load starts
+        CountDownLatch firstQueried = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        when(voteRepository.findMemeIdsByUserId(1L))
+                .thenAnswer(invocation -> {
+                    firstQueried.countDown();
+                    releaseFirst.await(10, TimeUnit.SECONDS);
+                    return Collections.singletonList(10L);
+                })
+                .thenAnswer(invocation -> {
+                    releaseSecond.await(10, TimeUnit.SECONDS);
+                    return Arrays.asList(10L, 20L);
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<Set<Long>> first = executor.submit(() -> userVoteCache.votedAmong(1L, Arrays.asList(10L, 20L)));
+            assertTrue(firstQueried.await(10, TimeUnit.SECONDS));
+            userVoteCache.onVoteChanged(new VoteChangedEvent(20L, 1L, true, 1L));
+            Future<Set<Long>> second = executor.submit(() -> userVoteCache.votedAmong(1L, Arrays.asList(10L, 20L)));
+            verify(voteRepository, timeout(10000).times(2)).findMemeIdsByUserId(1L);
+            releaseFirst.countDown();
+            first.get(10, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals(0, userVoteCache.size());
+
+            releaseSecond.countDown();
+            assertEquals(new HashSet<>(Arrays.asList(10L, 20L)), second.get(10, TimeUnit.SECONDS));
+        } finally {
+            releaseFirst.countDown();
+            releaseSecond.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void hasVoted_ShouldPreferBufferedVote() {
+        // Arrange
+        when(voteWriteBuffer.pendingState(1L, 10L)).thenReturn(true);
+
+        // Act & Assert
+        assertTrue(userVoteCache.hasVoted(1L, 10L));
+        verifyNoInteractions(voteRepository);
+    }
+}
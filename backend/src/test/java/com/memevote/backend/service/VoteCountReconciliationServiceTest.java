@@ -0,0 +1,57 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.repository.MemeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VoteCountReconciliationServiceTest {
+
+    @Mock
+    private MemeRepository memeRepository;
+
+    @InjectMocks
+    private VoteCountReconciliationService reconciliationService;
+
+    @Test
+    void reconcileVoteCounts_ShouldRepairInIdRanges() {
+        // Arrange
+        ReflectionTestUtils.setField(reconciliationService, "batchSize", 100);
+        when(memeRepository.findMaxId()).thenReturn(250L);
+        when(memeRepository.reconcileVoteCounts(1L, 100L)).thenReturn(2);
+        when(memeRepository.reconcileVoteCounts(101L, 200L)).thenReturn(0);
+        when(memeRepository.reconcileVoteCounts(201L, 300L)).thenReturn(1);
+
+        // Act
+        int repaired = reconciliationService.reconcileVoteCounts();
+
+        // Assert
+        assertEquals(3, repaired);
+
+        // Verify
+        verify(memeRepository, times(3)).reconcileVoteCounts(anyLong(), anyLong());
+    }
+
+    @Test
+    void reconcileVoteCounts_WhenNoMemes_ShouldDoNothing() {
+        // Arrange
+        when(memeRepository.findMaxId()).thenReturn(null);
+
+        // Act
+        int repaired = reconciliationService.reconcileVoteCounts();
+
+        // Assert
+        assertEquals(0, repaired);
+
+        // Verify
+        verify(memeRepository, never()).reconcileVoteCounts(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,153 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.model.MemeVoteShard;
+import com.memevote.backend.repository.MemeRepository;
+import com.memevote.backend.repository.MemeVoteShardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VoteCounterTest {
+
+    @Mock
+    private MemeRepository memeRepository;
+
+    @Mock
+    private MemeVoteShardRepository shardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private VoteCounter voteCounter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(voteCounter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(voteCounter, "hotVotesPerSecond", 3);
+        voteCounter.registerMetrics();
+    }
+
+    @Test
+    void adjust_WhenMemeIsNotHot_ShouldUpdateMemeRow() {
+        // Act
+        voteCounter.adjust(1L, 1);
+        voteCounter.adjust(1L, -1);
+
+        // Assert
+        assertEquals(1, voteCounter.shardCount(1L));
+
+        // Verify
+        verify(memeRepository).adjustVoteCount(1L, 1);
+        verify(memeRepository).adjustVoteCount(1L, -1);
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    void adjust_WhenMemeGetsHot_ShouldCreateShardsAndSpreadIncrements() {
+        // Arrange
+        when(shardRepository.addToShard(eq(1L), anyInt(), eq(1L))).thenReturn(1);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            voteCounter.adjust(1L, 1);
+        }
+
+        // Assert
+        assertTrue(voteCounter.shardCount(1L) >= 2);
+
+        // Verify
+        verify(memeRepository, times(2)).adjustVoteCount(1L, 1);
+        verify(shardRepository).insertIfAbsent(1L, 0);
+        verify(shardRepository).insertIfAbsent(1L, 1);
+        verify(shardRepository, times(8)).addToShard(eq(1L), intThat(shard -> shard >= 0 && shard < 16), eq(1L));
+    }
+
+    @Test
+    void adjust_WhenShardIsGone_ShouldFallBackToMemeRow() {
+        // Arrange
+        when(shardRepository.addToShard(eq(1L), anyInt(), eq(1L))).thenReturn(0);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            voteCounter.adjust(1L, 1);
+        }
+
+        // Assert
+        assertEquals(1, voteCounter.shardCount(1L));
+        verify(memeRepository, times(3)).adjustVoteCount(1L, 1);
+    }
+
+    @Test
+    void compact_ShouldFoldShardDeltasIntoMemeRow() {
+        // Arrange
+        when(shardRepository.findUncompactedMemeIds()).thenReturn(Arrays.asList(1L, 1L));
+        when(memeRepository.lockById(1L)).thenReturn(Optional.of(1L));
+        when(shardRepository.lockByMemeId(1L)).thenReturn(Arrays.asList(
+                new MemeVoteShard(10L, 1L, 0, 3L), new MemeVoteShard(11L, 1L, 1, -1L), new MemeVoteShard(12L, 1L, 2, 0L)));
+        when(memeRepository.adjustVoteCount(1L, 2L)).thenReturn(1);
+
+        // Act
+        int compacted = voteCounter.compact();
+
+        // Assert
+        assertEquals(2, compacted);
+
+        // Verify
+        InOrder inOrder = inOrder(memeRepository, shardRepository);
+        inOrder.verify(memeRepository).lockById(1L);
+        inOrder.verify(shardRepository).lockByMemeId(1L);
+        verify(shardRepository).subtractCompacted(10L, 3L);
+        verify(shardRepository).subtractCompacted(11L, -1L);
+        verify(shardRepository, never()).subtractCompacted(eq(12L), anyLong());
+    }
+
+    @Test
+    void compact_WhenMemeWasDeleted_ShouldDropItsShards() {
+        // Arrange
+        when(shardRepository.findUncompactedMemeIds()).thenReturn(Collections.singletonList(1L));
+        when(memeRepository.lockById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        int compacted = voteCounter.compact();
+
+        // Assert
+        assertEquals(0, compacted);
+        verify(shardRepository).deleteByMemeId(1L);
+        verify(shardRepository, never()).subtractCompacted(anyLong(), anyLong());
+        verify(memeRepository, never()).adjustVoteCount(anyLong(), anyLong());
+    }
+
+    @Test
+    void compact_WhenHotMemeCooledDown_ShouldDeleteEmptyShards() {
+        // Arrange
+        when(shardRepository.addToShard(eq(1L), anyInt(), eq(1L))).thenReturn(1);
+        for (int i = 0; i < 3; i++) {
+            voteCounter.adjust(1L, 1);
+        }
+        ReflectionTestUtils.setField(voteCounter, "coolDownMillis", -1L);
+
+        // Act
+        voteCounter.compact();
+
+        // Assert
+        assertEquals(1, voteCounter.shardCount(1L));
+        verify(shardRepository).deleteEmptyShards(Collections.singletonList(1L));
+    }
+}
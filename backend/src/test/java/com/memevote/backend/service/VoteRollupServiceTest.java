@@ -0,0 +1,175 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.dto.response.VoteHistoryResponse;
+import com.memevote.backend.event.MemeDeletedEvent;
+import com.memevote.backend.exception.BadRequestException;
+import com.memevote.backend.model.RollupResolution;
+import com.memevote.backend.model.VoteRollup;
+import com.memevote.backend.repository.VoteRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VoteRollupServiceTest {
+
+    @Mock
+    private VoteRollupRepository rollupRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private VoteRollupService voteRollupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(voteRollupService, "meterRegistry", new SimpleMeterRegistry());
+        voteRollupService.registerMetrics();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void flush_ShouldWriteNetVotesPerMinuteBucket() {
+        // Arrange
+        LocalDateTime minute = LocalDateTime.of(2024, 5, 1, 12, 30);
+        voteRollupService.record(1L, minute.plusSeconds(5), 1);
+        voteRollupService.record(1L, minute.plusSeconds(40), 1);
+        voteRollupService.record(1L, minute.plusSeconds(50), -1);
+        voteRollupService.record(1L, minute.plusMinutes(1), 1);
+        voteRollupService.record(2L, minute, 1);
+
+        // Act
+        int written = voteRollupService.flush();
+
+        // Assert
+        assertEquals(3, written);
+        assertEquals(0, voteRollupService.flush());
+
+        // Verify
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO vote_rollups"), anyList());
+        ArgumentCaptor<List<Object[]>> additions = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE vote_rollups"), additions.capture());
+        List<Object[]> rows = additions.getValue();
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[]{1L, 1L, "MINUTE", Timestamp.valueOf(minute)}, rows.get(0));
+        assertArrayEquals(new Object[]{1L, 1L, "MINUTE", Timestamp.valueOf(minute.plusMinutes(1))}, rows.get(1));
+        assertArrayEquals(new Object[]{1L, 2L, "MINUTE", Timestamp.valueOf(minute)}, rows.get(2));
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldKeepVotesPending() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        voteRollupService.record(1L, now, 1);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO vote_rollups"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+        when(rollupRepository.sumVotes(eq(1L), any(), any())).thenReturn(4L);
+
+        // Act
+        int written = voteRollupService.flush();
+
+        // Assert
+        assertEquals(0, written);
+        assertEquals(5L, voteRollupService.votesInWindow(1L, Duration.ofHours(1)));
+
+        // Verify
+        verify(transactionManager).rollback(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void history_ShouldReturnBucketsAndWindowTotalIncludingPendingVotes() {
+        // Arrange
+        LocalDateTime hour = RollupResolution.HOUR.bucketStart(LocalDateTime.now()).minusHours(1);
+        voteRollupService.record(1L, LocalDateTime.now(), 1);
+        when(rollupRepository.findSeries(eq(1L), eq(RollupResolution.HOUR), any(), any())).thenReturn(Arrays.asList(
+                new VoteRollup(1L, 1L, RollupResolution.HOUR, hour.minusHours(1), 2L),
+                new VoteRollup(2L, 1L, RollupResolution.HOUR, hour, 3L)));
+        when(rollupRepository.sumVotes(eq(1L), any(), any())).thenReturn(5L);
+
+        // Act
+        VoteHistoryResponse history = voteRollupService.history(1L, RollupResolution.HOUR, Duration.ofHours(3));
+
+        // Assert
+        assertEquals("HOUR", history.getResolution());
+        assertEquals(6L, history.getVotes());
+        assertEquals(2, history.getBuckets().size());
+        assertEquals(hour.minusHours(1), history.getBuckets().get(0).getBucketStart());
+        assertEquals(3L, history.getBuckets().get(1).getVotes());
+    }
+
+    @Test
+    void window_OutsideSupportedRange_ShouldThrowBadRequest() {
+        // Act & Assert
+        assertEquals(Duration.ofHours(24), VoteRollupService.window(24));
+        assertThrows(BadRequestException.class, () -> VoteRollupService.window(0));
+        assertThrows(BadRequestException.class, () -> VoteRollupService.window(VoteRollupService.MAX_WINDOW_HOURS + 1));
+    }
+
+    @Test
+    void downsample_ShouldMergeExpiredMinutesIntoHoursAndDeleteThem() {
+        // Arrange
+        LocalDateTime hour = LocalDateTime.now().minusDays(3).withMinute(0).withSecond(0).withNano(0);
+        List<VoteRollup> minutes = Arrays.asList(
+                new VoteRollup(1L, 7L, RollupResolution.MINUTE, hour.plusMinutes(1), 3L),
+                new VoteRollup(2L, 7L, RollupResolution.MINUTE, hour.plusMinutes(59), -1L),
+                new VoteRollup(3L, 7L, RollupResolution.MINUTE, hour.plusHours(1), 2L));
+        when(rollupRepository.findOlderThan(eq(RollupResolution.MINUTE), any(), any())).thenReturn(minutes);
+        when(rollupRepository.findOlderThan(eq(RollupResolution.HOUR), any(), any())).thenReturn(Collections.emptyList());
+
+        // Act
+        int merged = voteRollupService.downsample();
+
+        // Assert
+        assertEquals(3, merged);
+
+        // Verify
+        ArgumentCaptor<List<Object[]>> additions = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE vote_rollups"), additions.capture());
+        List<Object[]> rows = additions.getValue();
+        assertEquals(2, rows.size());
+        assertArrayEquals(new Object[]{2L, 7L, "HOUR", Timestamp.valueOf(hour)}, rows.get(0));
+        assertArrayEquals(new Object[]{2L, 7L, "HOUR", Timestamp.valueOf(hour.plusHours(1))}, rows.get(1));
+        verify(rollupRepository).deleteByIds(Arrays.asList(1L, 2L, 3L));
+    }
+
+    @Test
+    void onMemeDeleted_ShouldDropPendingAndStoredBuckets() {
+        // Arrange
+        voteRollupService.record(7L, LocalDateTime.now(), 1);
+
+        // Act
+        voteRollupService.onMemeDeleted(new MemeDeletedEvent(7L));
+
+        // Assert
+        assertEquals(0, voteRollupService.flush());
+
+        // Verify
+        verify(rollupRepository).deleteByMemeId(7L);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -1,12 +1,18 @@
 package com.memevote.backend.service;
 
+import com.memevote.backend.dto.response.CursorPage;
 import com.memevote.backend.dto.response.MessageResponse;
-import com.memevote.backend.dto.websocket.WebSocketEvent;
+import com.memevote.backend.dto.response.VoteStateResponse;
+import com.memevote.backend.dto.response.VoterDto;
+import com.memevote.backend.event.VoteChangedEvent;
+import com.memevote.backend.exception.BadRequestException;
 import com.memevote.backend.model.Meme;
 import com.memevote.backend.model.User;
 import com.memevote.backend.model.Vote;
 import com.memevote.backend.repository.MemeRepository;
 import com.memevote.backend.repository.VoteRepository;
+import com.memevote.backend.repository.projection.MemeVoteCount;
+import com.memevote.backend.repository.projection.MemeVoter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,10 +20,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.messaging.core.MessagePostProcessor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,7 +48,19 @@ public class VoteServiceTest {
     private UserService userService;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private VoteCounter voteCounter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @Mock
+    private UserVoteCache userVoteCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private VoteService voteService;
@@ -74,7 +97,7 @@ public class VoteServiceTest {
         when(userService.getCurrentUser()).thenReturn(testUser);
         when(memeRepository.findById(1L)).thenReturn(Optional.of(testMeme));
         when(voteRepository.findByUserAndMeme(testUser, testMeme)).thenReturn(Optional.empty());
-        when(voteRepository.countByMemeId(1L)).thenReturn(1L);
+        when(memeRepository.findVoteCountById(1L)).thenReturn(1L);
 
         // Act
         MessageResponse response = voteService.toggleVote(1L);
@@ -88,20 +111,12 @@ public class VoteServiceTest {
         verify(memeRepository).findById(1L);
         verify(voteRepository).findByUserAndMeme(testUser, testMeme);
         verify(voteRepository).save(any(Vote.class));
-        verify(voteRepository).countByMemeId(1L);
-
-        // Verify WebSocket message
-        ArgumentCaptor<WebSocketEvent> eventCaptor = ArgumentCaptor.forClass(WebSocketEvent.class);
-        verify(messagingTemplate).convertAndSend(eq("/topic/memes/1/votes"), eventCaptor.capture());
-
-        WebSocketEvent capturedEvent = eventCaptor.getValue();
-        assertEquals("VOTE_UPDATED", capturedEvent.getType());
-
-        @SuppressWarnings("unchecked")
-        Map<String, Object> payload = (Map<String, Object>) capturedEvent.getPayload();
-        assertEquals(1L, payload.get("memeId"));
-        assertEquals(1L, payload.get("voteCount"));
-        assertEquals(true, payload.get("userVoted"));
+        verify(voteCounter).adjust(1L, 1);
+        verify(memeRepository).findVoteCountById(1L);
+        ArgumentCaptor<VoteChangedEvent> changeCaptor = ArgumentCaptor.forClass(VoteChangedEvent.class);
+        verify(eventPublisher).publishEvent(changeCaptor.capture());
+        assertTrue(changeCaptor.getValue().isVoted());
+        assertEquals(1L, changeCaptor.getValue().getVoteCount());
     }
 
     @Test
@@ -110,7 +125,7 @@ public class VoteServiceTest {
         when(userService.getCurrentUser()).thenReturn(testUser);
         when(memeRepository.findById(1L)).thenReturn(Optional.of(testMeme));
         when(voteRepository.findByUserAndMeme(testUser, testMeme)).thenReturn(Optional.of(testVote));
-        when(voteRepository.countByMemeId(1L)).thenReturn(0L);
+        when(memeRepository.findVoteCountById(1L)).thenReturn(0L);
 
         // Act
         MessageResponse response = voteService.toggleVote(1L);
@@ -124,20 +139,12 @@ public class VoteServiceTest {
         verify(memeRepository).findById(1L);
         verify(voteRepository).findByUserAndMeme(testUser, testMeme);
         verify(voteRepository).delete(testVote);
-        verify(voteRepository).countByMemeId(1L);
-
-        // Verify WebSocket message
-        ArgumentCaptor<WebSocketEvent> eventCaptor = ArgumentCaptor.forClass(WebSocketEvent.class);
-        verify(messagingTemplate).convertAndSend(eq("/topic/memes/1/votes"), eventCaptor.capture());
-
-        WebSocketEvent capturedEvent = eventCaptor.getValue();
-        assertEquals("VOTE_UPDATED", capturedEvent.getType());
-
-        @SuppressWarnings("unchecked")
-        Map<String, Object> payload = (Map<String, Object>) capturedEvent.getPayload();
-        assertEquals(1L, payload.get("memeId"));
-        assertEquals(0L, payload.get("voteCount"));
-        assertEquals(false, payload.get("userVoted"));
+        verify(voteCounter).adjust(1L, -1);
+        verify(memeRepository).findVoteCountById(1L);
+        ArgumentCaptor<VoteChangedEvent> changeCaptor = ArgumentCaptor.forClass(VoteChangedEvent.class);
+        verify(eventPublisher).publishEvent(changeCaptor.capture());
+        assertFalse(changeCaptor.getValue().isVoted());
+        assertEquals(0L, changeCaptor.getValue().getVoteCount());
     }
 
     @Test
@@ -159,6 +166,228 @@ public class VoteServiceTest {
         verify(voteRepository, never()).findByUserAndMeme(any(), any());
         verify(voteRepository, never()).save(any());
         verify(voteRepository, never()).delete(any());
-        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        verify(voteCounter, never()).adjust(anyLong(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void setVote_WhenVoteIsInserted_ShouldAdjustCountAndNotify() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(voteRepository.insertIfAbsent(eq(1L), eq(1L), any())).thenReturn(1);
+        when(memeRepository.findVoteCountById(1L)).thenReturn(4L);
+
+        // Act
+        MessageResponse response = voteService.setVote(1L, true);
+
+        // Assert
+        assertEquals("Vote added successfully", response.getMessage());
+
+        // Verify
+        verify(voteCounter).adjust(1L, 1);
+        ArgumentCaptor<VoteChangedEvent> changeCaptor = ArgumentCaptor.forClass(VoteChangedEvent.class);
+        verify(eventPublisher).publishEvent(changeCaptor.capture());
+        assertTrue(changeCaptor.getValue().isVoted());
+        assertEquals(4L, changeCaptor.getValue().getVoteCount());
+        verify(voteRepository, never()).findByUserAndMeme(any(), any());
+    }
+
+    @Test
+    void setVote_WhenVoteAlreadyPresent_ShouldNotTouchCounter() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(voteRepository.insertIfAbsent(eq(1L), eq(1L), any())).thenReturn(0);
+        when(memeRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        MessageResponse response = voteService.setVote(1L, true);
+
+        // Assert
+        assertEquals("Vote already present", response.getMessage());
+
+        // Verify
+        verify(voteCounter, never()).adjust(anyLong(), anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void setVote_WhenRemovingExistingVote_ShouldDecrementCount() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(voteRepository.deleteByUserIdAndMemeId(1L, 1L)).thenReturn(1);
+        when(memeRepository.findVoteCountById(1L)).thenReturn(0L);
+
+        // Act
+        MessageResponse response = voteService.setVote(1L, false);
+
+        // Assert
+        assertEquals("Vote removed successfully", response.getMessage());
+
+        // Verify
+        verify(voteCounter).adjust(1L, -1);
+    }
+
+    @Test
+    void setVote_WhenConcurrentInsertWins_ShouldRetryAndReportVotePresent() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(voteRepository.insertIfAbsent(eq(1L), eq(1L), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenReturn(0);
+        when(memeRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        MessageResponse response = voteService.setVote(1L, true);
+
+        // Assert
+        assertEquals("Vote already present", response.getMessage());
+
+        // Verify
+        verify(voteRepository, times(2)).insertIfAbsent(eq(1L), eq(1L), any());
+        verify(transactionManager).rollback(any());
+        verify(voteCounter, never()).adjust(anyLong(), anyLong());
+    }
+
+    @Test
+    void setVote_WhenMemeNotFound_ShouldThrowException() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(voteRepository.deleteByUserIdAndMemeId(1L, 99L)).thenReturn(0);
+        when(memeRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> voteService.setVote(99L, false));
+        assertEquals("Meme not found", exception.getMessage());
+    }
+
+    @Test
+    void getVoteStates_ShouldCombineCountsAndCachedUserVotes() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(memeRepository.findVoteCountsByIds(any())).thenReturn(Arrays.asList(voteCount(2L, 7L), voteCount(1L, 3L)));
+        when(userVoteCache.votedAmong(eq(1L), any())).thenReturn(Collections.singleton(2L));
+
+        // Act
+        List<VoteStateResponse> states = voteService.getVoteStates(Arrays.asList(1L, 2L, 99L, 1L));
+
+        // Assert
+        assertEquals(2, states.size());
+        assertEquals(new VoteStateResponse(1L, 3L, false), states.get(0));
+        assertEquals(new VoteStateResponse(2L, 7L, true), states.get(1));
+
+        // Verify
+        verify(memeRepository).findVoteCountsByIds(any());
+        verify(voteRepository, never()).existsByUserAndMeme(any(), any());
+    }
+
+    @Test
+    void getVoteStates_WhenAnonymous_ShouldReturnCountsOnly() {
+        // Arrange
+        when(userService.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
+        when(memeRepository.findVoteCountsByIds(any())).thenReturn(Collections.singletonList(voteCount(1L, 3L)));
+
+        // Act
+        List<VoteStateResponse> states = voteService.getVoteStates(Collections.singletonList(1L));
+
+        // Assert
+        assertEquals(Collections.singletonList(new VoteStateResponse(1L, 3L, false)), states);
+        verifyNoInteractions(userVoteCache);
+    }
+
+    @Test
+    void getVoters_ShouldReturnPageWithCursorOfLastVote() {
+        // Arrange
+        when(memeRepository.existsById(1L)).thenReturn(true);
+        when(voteRepository.findVotersBefore(1L, Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(voter(30L, testUser), voter(20L, testUser), voter(10L, testUser)));
+
+        // Act
+        CursorPage<VoterDto> page = voteService.getVoters(1L, null, 2);
+
+        // Assert
+        assertEquals(2, page.getContent().size());
+        assertEquals("testuser", page.getContent().get(0).getUsername());
+        assertEquals("default-avatar.png", page.getContent().get(0).getProfilePicture());
+        assertTrue(page.isHasNext());
+        assertEquals("20", page.getNextCursor());
+    }
+
+    @Test
+    void getVoters_WithCursor_ShouldContinueBeforeThatVote() {
+        // Arrange
+        when(memeRepository.existsById(1L)).thenReturn(true);
+        when(voteRepository.findVotersBefore(1L, 20L, PageRequest.of(0, 3)))
+                .thenReturn(Collections.singletonList(voter(10L, testUser)));
+
+        // Act
+        CursorPage<VoterDto> page = voteService.getVoters(1L, "20", 2);
+
+        // Assert
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getVoters_WithMalformedCursor_ShouldThrowBadRequest() {
+        // Arrange
+        when(memeRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> voteService.getVoters(1L, "abc", 10));
+        verify(voteRepository, never()).findVotersBefore(anyLong(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getVoters_WhenMemeDoesNotExist_ShouldThrowException() {
+        // Arrange
+        when(memeRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> voteService.getVoters(99L, null, 10));
+        assertEquals("Meme not found", exception.getMessage());
+    }
+
+    private MemeVoter voter(Long voteId, User user) {
+        return new MemeVoter() {
+            @Override
+            public Long getVoteId() {
+                return voteId;
+            }
+
+            @Override
+            public Long getMemeId() {
+                return testMeme.getId();
+            }
+
+            @Override
+            public Long getId() {
+                return user.getId();
+            }
+
+            @Override
+            public String getUsername() {
+                return user.getUsername();
+            }
+
+            @Override
+            public String getProfilePicture() {
+                return user.getProfilePicture();
+            }
+        };
+    }
+
+    private MemeVoteCount voteCount(Long memeId, Long voteCount) {
+        return new MemeVoteCount() {
+            @Override
+            public Long getId() {
+                return memeId;
+            }
+
+            @Override
+            public Long getVoteCount() {
+                return voteCount;
+            }
+        };
     }
 }
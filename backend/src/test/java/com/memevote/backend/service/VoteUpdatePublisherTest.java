@@ -0,0 +1,109 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.dto.websocket.WebSocketEvent;
+import com.memevote.backend.event.VoteChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VoteUpdatePublisherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private VoteUpdatePublisher voteUpdatePublisher;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(voteUpdatePublisher, "meterRegistry", meterRegistry);
+        voteUpdatePublisher.registerMetrics();
+    }
+
+    @Test
+    void broadcast_ShouldSendLatestCountOncePerMeme() {
+        // Arrange
+        voteUpdatePublisher.voteCountChanged(1L, 5L);
+        voteUpdatePublisher.voteCountChanged(1L, 6L);
+        voteUpdatePublisher.voteCountChanged(1L, 7L);
+        voteUpdatePublisher.voteCountChanged(2L, 1L);
+
+        // Act
+        voteUpdatePublisher.broadcast();
+
+        // Assert
+        ArgumentCaptor<WebSocketEvent> eventCaptor = ArgumentCaptor.forClass(WebSocketEvent.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/memes/1/votes"), eventCaptor.capture());
+        verify(messagingTemplate).convertAndSend(eq("/topic/memes/2/votes"), any(WebSocketEvent.class));
+        assertEquals("VOTE_UPDATED", eventCaptor.getValue().getType());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> payload = (Map<String, Object>) eventCaptor.getValue().getPayload();
+        assertEquals(1L, payload.get("memeId"));
+        assertEquals(7L, payload.get("voteCount"));
+
+        assertEquals(2.0, meterRegistry.get("memevote.votes.broadcasts").tag("result", "sent").counter().count());
+        assertEquals(2.0, meterRegistry.get("memevote.votes.broadcasts").tag("result", "suppressed").counter().count());
+    }
+
+    @Test
+    void onVoteChanged_ShouldQueueTheCommittedCount() {
+        // Act
+        voteUpdatePublisher.onVoteChanged(new VoteChangedEvent(1L, 2L, true, 5L));
+        voteUpdatePublisher.onVoteChanged(new VoteChangedEvent(2L, 2L, true, null));
+        voteUpdatePublisher.broadcast();
+
+        // Assert
+        verify(messagingTemplate).convertAndSend(eq("/topic/memes/1/votes"), any(WebSocketEvent.class));
+        verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void broadcast_WithNothingPending_ShouldSendNothing() {
+        // Arrange
+        voteUpdatePublisher.voteCountChanged(1L, 5L);
+        voteUpdatePublisher.broadcast();
+
+        // Act
+        voteUpdatePublisher.broadcast();
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+        assertEquals(0, voteUpdatePublisher.pendingCount());
+    }
+
+    @Test
+    void init_ShouldBroadcastFromItsOwnThread() {
+        // Arrange
+        ReflectionTestUtils.setField(voteUpdatePublisher, "broadcastIntervalMs", 10L);
+        voteUpdatePublisher.init();
+
+        try {
+            // Act
+            voteUpdatePublisher.voteCountChanged(1L, 5L);
+
+            // Verify
+            verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/memes/1/votes"), any(Object.class));
+        } finally {
+            voteUpdatePublisher.shutdown();
+        }
+    }
+}
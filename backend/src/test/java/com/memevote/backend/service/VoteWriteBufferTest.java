@@ -0,0 +1,153 @@
+package com.memevote.backend.service;
+
+import com.memevote.backend.event.VotesFlushedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VoteWriteBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private VoteWriteBuffer voteWriteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(voteWriteBuffer, "meterRegistry", new SimpleMeterRegistry());
+        voteWriteBuffer.registerMetrics();
+    }
+
+    @Test
+    void toggle_Twice_ShouldCollapseToNothing() {
+        // Act
+        boolean first = voteWriteBuffer.toggle(1L, 10L, () -> false);
+        boolean second = voteWriteBuffer.toggle(1L, 10L, () -> false);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(0, voteWriteBuffer.pendingCount());
+        assertEquals(0L, voteWriteBuffer.pendingDelta(10L));
+        assertNull(voteWriteBuffer.pendingState(1L, 10L));
+        assertEquals(0, voteWriteBuffer.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void toggle_ShouldAnswerReadsFromBuffer() {
+        // Act
+        voteWriteBuffer.toggle(1L, 10L, () -> false);
+        voteWriteBuffer.toggle(2L, 10L, () -> false);
+        voteWriteBuffer.toggle(3L, 10L, () -> true);
+
+        // Assert
+        assertEquals(3, voteWriteBuffer.pendingCount());
+        assertEquals(1L, voteWriteBuffer.pendingDelta(10L));
+        assertTrue(voteWriteBuffer.pendingState(1L, 10L));
+        assertFalse(voteWriteBuffer.pendingState(3L, 10L));
+    }
+
+    @Test
+    void set_ShouldOnlyChangeStateOnce() {
+        // Act
+        boolean first = voteWriteBuffer.set(1L, 10L, true, () -> false);
+        boolean second = voteWriteBuffer.set(1L, 10L, true, () -> false);
+        boolean alreadyRemoved = voteWriteBuffer.set(2L, 10L, false, () -> false);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertFalse(alreadyRemoved);
+        assertEquals(1, voteWriteBuffer.pendingCount());
+        assertEquals(1L, voteWriteBuffer.pendingDelta(10L));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void flush_ShouldBatchVotesAndAdjustCountersByChangedRows() {
+        // Arrange
+        voteWriteBuffer.toggle(1L, 10L, () -> false);
+        voteWriteBuffer.toggle(2L, 10L, () -> false);
+        voteWriteBuffer.toggle(3L, 20L, () -> true);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO votes"), anyList())).thenReturn(new int[]{1, 0});
+        when(jdbcTemplate.batchUpdate(startsWith("DELETE FROM votes"), anyList())).thenReturn(new int[]{1});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE memes"), anyList())).thenReturn(new int[]{1, 1});
+
+        // Act
+        int written = voteWriteBuffer.flush();
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals(0, voteWriteBuffer.pendingCount());
+        assertEquals(0L, voteWriteBuffer.pendingDelta(10L));
+
+        // Verify
+        verify(eventPublisher).publishEvent(any(VotesFlushedEvent.class));
+        ArgumentCaptor<List<Object[]>> adjustments = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE memes"), adjustments.capture());
+        assertEquals(2, adjustments.getValue().size());
+        for (Object[] adjustment : adjustments.getValue()) {
+            assertEquals(adjustment[1].equals(10L) ? 1L : -1L, adjustment[0]);
+        }
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldKeepVotesBuffered() {
+        // Arrange
+        voteWriteBuffer.toggle(1L, 10L, () -> false);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO votes"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+
+        // Act
+        int written = voteWriteBuffer.flush();
+
+        // Assert
+        assertEquals(0, written);
+        assertEquals(1, voteWriteBuffer.pendingCount());
+        assertEquals(1L, voteWriteBuffer.pendingDelta(10L));
+        assertTrue(voteWriteBuffer.pendingState(1L, 10L));
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void toggle_WhenBufferIsFull_ShouldFlushImmediately() {
+        // Arrange
+        ReflectionTestUtils.setField(voteWriteBuffer, "maxPending", 2);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO votes"), anyList())).thenReturn(new int[]{1, 1});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE memes"), anyList())).thenReturn(new int[]{1});
+
+        // Act
+        voteWriteBuffer.toggle(1L, 10L, () -> false);
+        voteWriteBuffer.toggle(2L, 10L, () -> false);
+
+        // Assert
+        assertEquals(0, voteWriteBuffer.pendingCount());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO votes"), anyList());
+    }
+}
@@ -0,0 +1,85 @@
+package com.memevote.backend.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobStore = new FileSystemBlobStore();
+        ReflectionTestUtils.setField(blobStore, "root", root.toString());
+        blobStore.init();
+    }
+
+    @Test
+    void put_ShouldStoreUnderSha256AndReadBack() throws IOException {
+        // Arrange
+        byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        StoredBlob blob = blobStore.put(new ByteArrayInputStream(content));
+        Optional<Resource> resource = blobStore.get(blob.getKey());
+
+        // Assert
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", blob.getKey());
+        assertEquals(blob.getKey(), blob.getSha256());
+        assertEquals(5, blob.getSize());
+        assertTrue(Files.isRegularFile(root.resolve("2c").resolve("f2").resolve(blob.getKey())));
+        try (InputStream in = resource.orElseThrow().getInputStream()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        try (Stream<Path> temp = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, temp.count());
+        }
+    }
+
+    @Test
+    void put_SameContentTwice_ShouldReturnSameKey() throws IOException {
+        // Act
+        StoredBlob first = blobStore.put(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        StoredBlob second = blobStore.put(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        // Assert
+        assertEquals(first.getKey(), second.getKey());
+    }
+
+    @Test
+    void delete_ShouldRemoveBlob() throws IOException {
+        // Arrange
+        StoredBlob blob = blobStore.put(new ByteArrayInputStream(new byte[]{1}));
+
+        // Act
+        boolean deleted = blobStore.delete(blob.getKey());
+
+        // Assert
+        assertTrue(deleted);
+        assertFalse(blobStore.get(blob.getKey()).isPresent());
+        assertFalse(blobStore.delete(blob.getKey()));
+    }
+
+    @Test
+    void get_WithInvalidKey_ShouldNotResolvePath() {
+        assertFalse(blobStore.get("../../etc/passwd").isPresent());
+        assertFalse(blobStore.get(null).isPresent());
+    }
+}
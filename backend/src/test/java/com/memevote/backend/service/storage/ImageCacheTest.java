@@ -0,0 +1,184 @@
+package com.memevote.backend.service.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageCacheTest {
+
+    private static final int MB = 1024 * 1024;
+
+    private ImageCache imageCache;
+    private final Map<String, byte[]> blobs = new HashMap<>();
+    private final Map<String, Integer> loads = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        imageCache = new ImageCache();
+        ReflectionTestUtils.setField(imageCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(imageCache, "maxBytes", (long) ImageCache.SLAB_SIZE);
+        imageCache.registerMetrics();
+    }
+
+    @Test
+    void open_ShouldServeRepeatedReadsFromTheCache() throws IOException {
+        // Arrange
+        byte[] content = blob("a", 150 * 1024);
+
+        // Act
+        byte[] first = read(imageCache.open("a", loader("a")).orElseThrow());
+        byte[] second = read(imageCache.open("a", loader("a")).orElseThrow());
+
+        // Assert
+        assertArrayEquals(content, first);
+        assertArrayEquals(content, second);
+        assertEquals(1, loads.get("a"));
+        assertEquals(0.5, imageCache.hitRatio());
+        assertEquals(content.length, imageCache.cachedBytes());
+        assertEquals(ImageCache.SLAB_SIZE, imageCache.allocatedBytes());
+    }
+
+    @Test
+    void open_WhenFull_ShouldEvictOneOffImagesBeforePopularOnes() throws IOException {
+        // Arrange: a popular image, then a scan of one-off images that overflows the cache
+        blob("popular", MB);
+        read(imageCache.open("popular", loader("popular")).orElseThrow());
+        read(imageCache.open("popular", loader("popular")).orElseThrow());
+        for (String key : new String[]{"b", "c", "d", "e"}) {
+            blob(key, MB);
+            read(imageCache.open(key, loader(key)).orElseThrow());
+        }
+
+        // Act
+        read(imageCache.open("popular", loader("popular")).orElseThrow());
+        read(imageCache.open("b", loader("b")).orElseThrow());
+
+        // Assert
+        assertEquals(1, loads.get("popular"));
+        assertEquals(2, loads.get("b"));
+        assertTrue(imageCache.cachedBytes() <= ImageCache.SLAB_SIZE);
+    }
+
+    @Test
+    void open_WhenFull_ShouldNotEvictEntriesBeingStreamed() throws IOException {
+        // Arrange
+        byte[] content = blob("a", 2 * MB);
+        blob("b", 2 * MB);
+        blob("c", 2 * MB);
+        InputStream streaming = imageCache.open("a", loader("a")).orElseThrow().getInputStream();
+        read(imageCache.open("b", loader("b")).orElseThrow());
+
+        // Act: a is older, but only b's pages can be reused
+        byte[] c = read(imageCache.open("c", loader("c")).orElseThrow());
+        byte[] a;
+        try (InputStream in = streaming) {
+            a = in.readAllBytes();
+        }
+        read(imageCache.open("a", loader("a")).orElseThrow());
+
+        // Assert
+        assertArrayEquals(content, a);
+        assertArrayEquals(blobs.get("c"), c);
+        assertEquals(1, loads.get("a"));
+        assertEquals(4 * MB, imageCache.cachedBytes());
+    }
+
+    @Test
+    void open_WhenStreamsHoldTheRoomNeeded_ShouldSkipCachingAndKeepOtherEntries() throws IOException {
+        // Arrange: a popular image and a streamed one fill the cache
+        blob("popular", MB);
+        read(imageCache.open("popular", loader("popular")).orElseThrow());
+        read(imageCache.open("popular", loader("popular")).orElseThrow());
+        blob("streamed", 3 * MB);
+        InputStream streaming = imageCache.open("streamed", loader("streamed")).orElseThrow().getInputStream();
+        byte[] content = blob("c", 2 * MB);
+
+        // Act
+        byte[] c;
+        try (InputStream in = streaming) {
+            c = read(imageCache.open("c", loader("c")).orElseThrow());
+        }
+        read(imageCache.open("popular", loader("popular")).orElseThrow());
+
+        // Assert
+        assertArrayEquals(content, c);
+        assertEquals(1, loads.get("popular"));
+        assertEquals(4 * MB, imageCache.cachedBytes());
+    }
+
+    @Test
+    void open_WhenEvictedBeforeRead_ShouldFallBackToLoader() throws IOException {
+        // Arrange
+        byte[] content = blob("a", 1000);
+        Resource resource = imageCache.open("a", loader("a")).orElseThrow();
+
+        // Act
+        imageCache.invalidate("a");
+
+        // Assert
+        assertArrayEquals(content, read(resource));
+        assertEquals(2, loads.get("a"));
+    }
+
+    @Test
+    void open_WhenBlobIsTooLarge_ShouldNotCacheIt() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(imageCache, "maxEntryBytes", 1000L);
+        blob("large", 1001);
+
+        // Act
+        read(imageCache.open("large", loader("large")).orElseThrow());
+        read(imageCache.open("large", loader("large")).orElseThrow());
+
+        // Assert
+        assertEquals(2, loads.get("large"));
+        assertEquals(0, imageCache.cachedBytes());
+    }
+
+    @Test
+    void invalidate_ShouldDropTheEntry() throws IOException {
+        // Arrange
+        blob("a", 1000);
+        read(imageCache.open("a", loader("a")).orElseThrow());
+
+        // Act
+        imageCache.invalidate("a");
+        Optional<Resource> reopened = imageCache.open("a", () -> Optional.empty());
+
+        // Assert
+        assertFalse(reopened.isPresent());
+    }
+
+    private byte[] blob(String key, int size) {
+        byte[] content = new byte[size];
+        new Random(key.hashCode()).nextBytes(content);
+        blobs.put(key, content);
+        return content;
+    }
+
+    private Supplier<Optional<Resource>> loader(String key) {
+        return () -> {
+            loads.merge(key, 1, Integer::sum);
+            return Optional.of(new ByteArrayResource(blobs.get(key)));
+        };
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
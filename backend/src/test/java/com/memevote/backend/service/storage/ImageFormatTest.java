@@ -0,0 +1,34 @@
+package com.memevote.backend.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageFormatTest {
+
+    @Test
+    void detect_ShouldRecognizeSignatures() {
+        assertEquals(Optional.of(ImageFormat.PNG), detect(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}));
+        assertEquals(Optional.of(ImageFormat.JPEG), detect(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDB}));
+        assertEquals(Optional.of(ImageFormat.GIF), detect("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(Optional.of(ImageFormat.WEBP), detect("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void detect_ShouldRejectOtherOrTruncatedContent() {
+        assertFalse(detect("<svg xmlns=".getBytes(StandardCharsets.US_ASCII)).isPresent());
+        assertFalse(detect("RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.US_ASCII)).isPresent());
+        assertFalse(detect(new byte[]{(byte) 0xFF, (byte) 0xD8}).isPresent());
+        assertFalse(detect(new byte[0]).isPresent());
+    }
+
+    private static Optional<ImageFormat> detect(byte[] bytes) {
+        byte[] header = new byte[ImageFormat.HEADER_LENGTH];
+        int length = Math.min(bytes.length, header.length);
+        System.arraycopy(bytes, 0, header, 0, length);
+        return ImageFormat.detect(header, length);
+    }
+}
@@ -0,0 +1,60 @@
+package com.memevote.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashSetTest {
+
+    @Test
+    void addContainsRemove_ShouldBehaveLikeASet() {
+        // Arrange
+        LongHashSet set = new LongHashSet();
+
+        // Act
+        boolean addedFirst = set.add(5L);
+        boolean addedAgain = set.add(5L);
+        set.add(0L);
+        set.add(-7L);
+
+        // Assert
+        assertTrue(addedFirst);
+        assertFalse(addedAgain);
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(-7L));
+        assertTrue(set.remove(0L));
+        assertFalse(set.contains(0L));
+        assertFalse(set.remove(42L));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void randomOperations_ShouldMatchHashSet() {
+        // Arrange
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 20000; i++) {
+            long value = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), set.size());
+        for (long value = 0; value < 2000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertEquals(expected.size(), set.toArray().length);
+    }
+}
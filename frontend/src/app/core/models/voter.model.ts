@@ -3,3 +3,10 @@ export interface Voter {
   username: string;
   profilePicture: string;
 }
+
+export interface VoterPage {
+  content: Voter[];
+  nextCursor: string | null;
+  hasNext: boolean;
+  size: number;
+}
@@ -3,8 +3,8 @@ export interface WebSocketEvent<T> {
   payload: T;
 }
 
+// Latest vote count of a meme, broadcast at most a few times per second
 export interface VoteUpdate {
   memeId: number;
   voteCount: number;
-  userVoted: boolean;
 }
@@ -1,9 +1,10 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 
 import { environment } from '../../../environments/environment';
 import { MessageResponse } from '../models/api-response.model';
+import { VoterPage } from '../models/voter.model';
 
 @Injectable({
   providedIn: 'root'
@@ -16,4 +17,23 @@ export class VoteService {
   toggleVote(memeId: number): Observable<MessageResponse> {
     return this.http.post<MessageResponse>(`${this.apiUrl}/${memeId}/votes`, {});
   }
+
+  /**
+   * Sets the current user's vote to the given state. Idempotent, so a retried or
+   * double-clicked request cannot fail or count twice.
+   */
+  setVote(memeId: number, voted: boolean): Observable<MessageResponse> {
+    const url = `${this.apiUrl}/${memeId}/votes`;
+    return voted
+      ? this.http.put<MessageResponse>(url, {})
+      : this.http.delete<MessageResponse>(url);
+  }
+
+  getVoters(memeId: number, cursor: string | null = null, size = 20): Observable<VoterPage> {
+    let params = new HttpParams().set('size', size.toString());
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<VoterPage>(`${this.apiUrl}/${memeId}/votes`, { params });
+  }
 }
@@ -88,6 +88,6 @@ export class HomeComponent implements OnInit {
   }
 
   getMemeImageUrl(memeUrl: string): string {
-    return `${environment.uploadsUrl}/${memeUrl}`;
+    return `${environment.uploadsUrl}/${memeUrl}?w=640`;
   }
 }
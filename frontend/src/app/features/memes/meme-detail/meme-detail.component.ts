@@ -112,7 +112,6 @@ export class MemeDetailComponent implements OnInit, OnDestroy {
       if (event.type === 'VOTE_UPDATED' && this.meme) {
         console.log('Updating meme vote count:', event.payload.voteCount);
         this.meme.voteCount = event.payload.voteCount;
-        this.meme.userVoted = event.payload.userVoted;
       }
     });
 
@@ -132,10 +131,14 @@ export class MemeDetailComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.voteService.toggleVote(this.memeId).subscribe(
+    const voted = !this.meme?.userVoted;
+    this.voteService.setVote(this.memeId, voted).subscribe(
       response => {
-        console.log('Vote toggled successfully, waiting for WebSocket update');
-        // WebSocket will handle the UI update
+        console.log('Vote set successfully, waiting for WebSocket update');
+        // WebSocket will handle the vote count update
+        if (this.meme) {
+          this.meme.userVoted = voted;
+        }
         this.toastr.success(response.message);
       },
       error => {
@@ -149,19 +152,19 @@ export class MemeDetailComponent implements OnInit, OnDestroy {
     if (!voter.profilePicture || voter.profilePicture === 'default-avatar.png') {
       return 'assets/images/default-avatar.png';
     }
-    return `${this.uploadsUrl}/${voter.profilePicture}`;
+    return `${this.uploadsUrl}/${voter.profilePicture}?w=160`;
   }
 
   getUserImageUrl(profilePicture: string | null | undefined): string {
     if (!profilePicture) {
       return 'assets/images/default-avatar.png';
     }
-    return `${this.uploadsUrl}/${profilePicture}`;
+    return `${this.uploadsUrl}/${profilePicture}?w=160`;
   }
 
   openVotersModal(meme: Meme): void {
     const modalRef = this.modalService.open(VotersModalComponent, { centered: true });
-    modalRef.componentInstance.voters = meme.voters;
+    modalRef.componentInstance.memeId = meme.id;
   }
 
   submitComment(): void {
@@ -148,11 +148,12 @@ export class MemeListComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.voteService.toggleVote(meme.id).subscribe(
+    const voted = !meme.userVoted;
+    this.voteService.setVote(meme.id, voted).subscribe(
       response => {
         // Only update userVoted status for the current user
         // The vote count will be updated via WebSocket
-        meme.userVoted = !meme.userVoted;
+        meme.userVoted = voted;
 
         // Update voters list for current user
         const currentUser = this.authService.getCurrentUser();
@@ -190,22 +191,22 @@ export class MemeListComponent implements OnInit, OnDestroy {
     if (!voter.profilePicture || voter.profilePicture === 'default-avatar.png') {
       return 'assets/images/default-avatar.png';
     }
-    return `${this.uploadsUrl}/${voter.profilePicture}`;
+    return `${this.uploadsUrl}/${voter.profilePicture}?w=160`;
   }
 
   getUserImageUrl(profilePicture: string | null | undefined): string {
     if (!profilePicture) {
       return 'assets/images/default-avatar.png';
     }
-    return `${this.uploadsUrl}/${profilePicture}`;
+    return `${this.uploadsUrl}/${profilePicture}?w=160`;
   }
 
   getMemeImageUrl(memeUrl: string): string {
-    return `${this.uploadsUrl}/${memeUrl}`;
+    return `${this.uploadsUrl}/${memeUrl}?w=640`;
   }
 
   openVotersModal(meme: Meme): void {
     const modalRef = this.modalService.open(VotersModalComponent, { centered: true });
-    modalRef.componentInstance.voters = meme.voters;
+    modalRef.componentInstance.memeId = meme.id;
   }
 }
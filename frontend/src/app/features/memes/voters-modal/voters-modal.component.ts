@@ -1,6 +1,7 @@
-import { Component, Input } from '@angular/core';
+import { Component, Input, OnInit } from '@angular/core';
 import { NgbActiveModal } from '@ng-bootstrap/ng-bootstrap';
 import { Voter } from '../../../core/models/voter.model';
+import { VoteService } from '../../../core/services/vote.service';
 import { environment } from '../../../../environments/environment';
 
 @Component({
@@ -8,15 +9,41 @@ import { environment } from '../../../../environments/environment';
   templateUrl: './voters-modal.component.html',
   styleUrls: ['./voters-modal.component.scss']
 })
-export class VotersModalComponent {
-  @Input() voters: Voter[] = [];
+export class VotersModalComponent implements OnInit {
+  @Input() memeId!: number;
+  voters: Voter[] = [];
+  nextCursor: string | null = null;
+  hasNext = false;
+  loading = false;
 
-  constructor(public activeModal: NgbActiveModal) {}
+  constructor(public activeModal: NgbActiveModal, private voteService: VoteService) {}
+
+  ngOnInit(): void {
+    this.loadMore();
+  }
+
+  loadMore(): void {
+    if (this.loading) {
+      return;
+    }
+    this.loading = true;
+    this.voteService.getVoters(this.memeId, this.nextCursor).subscribe(
+      page => {
+        this.voters = this.voters.concat(page.content);
+        this.nextCursor = page.nextCursor;
+        this.hasNext = page.hasNext;
+        this.loading = false;
+      },
+      () => {
+        this.loading = false;
+      }
+    );
+  }
 
   getVoterImageUrl(voter: Voter): string {
     if (!voter.profilePicture || voter.profilePicture === 'default-avatar.png') {
       return 'assets/images/default-avatar.png';
     }
-    return `${environment.uploadsUrl}/${voter.profilePicture}`;
+    return `${environment.uploadsUrl}/${voter.profilePicture}?w=160`;
   }
 }
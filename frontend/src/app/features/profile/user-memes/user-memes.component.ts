@@ -80,7 +80,7 @@ export class UserMemesComponent implements OnInit, OnDestroy {
   }
 
   getMemeImageUrl(memeUrl: string): string {
-    return `${environment.uploadsUrl}/${memeUrl}`;
+    return `${environment.uploadsUrl}/${memeUrl}?w=640`;
   }
 
   editMeme(meme: Meme): void {
@@ -33,6 +33,6 @@ export class NavbarComponent implements OnInit {
     if (!profilePicture) {
       return 'assets/images/default-avatar.png';
     }
-    return `${environment.uploadsUrl}/${profilePicture}`;
+    return `${environment.uploadsUrl}/${profilePicture}?w=160`;
   }
 }
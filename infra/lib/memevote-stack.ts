@@ -9,6 +9,7 @@ import * as acm from 'aws-cdk-lib/aws-certificatemanager';
 import * as ec2 from 'aws-cdk-lib/aws-ec2';
 import * as ecs from 'aws-cdk-lib/aws-ecs';
 import * as ecsp from 'aws-cdk-lib/aws-ecs-patterns';
+import * as efs from 'aws-cdk-lib/aws-efs';
 import * as rds from 'aws-cdk-lib/aws-rds';
 import * as logs from 'aws-cdk-lib/aws-logs';
 import * as s3deploy from 'aws-cdk-lib/aws-s3-deployment';
@@ -112,6 +113,36 @@ export class MemeVoteStack extends cdk.Stack {
       readers: isProd ? [rds.ClusterInstance.serverlessV2('reader')] : [],
     });
 
+    // Uploaded images live on EFS: the container's own disk is lost on every deploy, restart or scale event
+    const imagesFileSystem = new efs.FileSystem(this, 'MemeVoteImages', {
+      vpc,
+      vpcSubnets: {
+        subnetType: ec2.SubnetType.PUBLIC, // Default VPC only has public subnets
+      },
+      encrypted: true,
+      performanceMode: efs.PerformanceMode.GENERAL_PURPOSE,
+      throughputMode: efs.ThroughputMode.ELASTIC,
+      lifecyclePolicy: efs.LifecyclePolicy.AFTER_30_DAYS, // Rarely viewed images move to infrequent access
+      removalPolicy: isProd ? cdk.RemovalPolicy.RETAIN : cdk.RemovalPolicy.DESTROY,
+    });
+
+    // Allow ECS to mount the file system
+    imagesFileSystem.connections.allowDefaultPortFrom(ecsSecurityGroup, 'Allow ECS service to mount image storage');
+
+    // Access point owned by the container's appuser (uid/gid 1000, see backend/Dockerfile)
+    const imagesAccessPoint = imagesFileSystem.addAccessPoint('ImagesAccessPoint', {
+      path: '/images',
+      createAcl: {
+        ownerUid: '1000',
+        ownerGid: '1000',
+        permissions: '750',
+      },
+      posixUser: {
+        uid: '1000',
+        gid: '1000',
+      },
+    });
+
     // Create the ECS cluster
     const cluster = new ecs.Cluster(this, 'MemeVoteCluster', {
       vpc,
@@ -124,6 +155,19 @@ export class MemeVoteStack extends cdk.Stack {
     const taskDefinition = new ecs.FargateTaskDefinition(this, 'MemeVoteTaskDef', {
       memoryLimitMiB: config.ecsTaskMemory,
       cpu: config.ecsTaskCpu,
+      volumes: [
+        {
+          name: 'images',
+          efsVolumeConfiguration: {
+            fileSystemId: imagesFileSystem.fileSystemId,
+            transitEncryption: 'ENABLED',
+            authorizationConfig: {
+              accessPointId: imagesAccessPoint.accessPointId,
+              iam: 'ENABLED',
+            },
+          },
+        },
+      ],
     });
 
     // Add container to the task definition
@@ -145,9 +189,27 @@ export class MemeVoteStack extends cdk.Stack {
         AWS_REGION: this.region,
         DB_SECRET_NAME: `${config.projectName}-${config.environment}-db-credentials`,
         CORS_ALLOWED_ORIGINS: `https://${config.frontendSubdomain}.${config.domainName}`,
+        MEMEVOTE_IMAGES_FILESYSTEM_ROOT: '/app/data/images',
+        // Copies legacy inline images to EFS; clearing the inline bytes (MEMEVOTE_IMAGES_MIGRATION_CLEAR_INLINE)
+        // is left off until the copies have been checked
+        MEMEVOTE_IMAGES_MIGRATION_ENABLED: 'true',
       },
     });
 
+    // Mount the image storage at the blob store root
+    container.addMountPoints({
+      containerPath: '/app/data/images',
+      sourceVolume: 'images',
+      readOnly: false,
+    });
+
+    // Grant the task permission to mount and write the image storage
+    imagesFileSystem.grant(
+      taskDefinition.taskRole,
+      'elasticfilesystem:ClientMount',
+      'elasticfilesystem:ClientWrite'
+    );
+
     // Add port mapping
     container.addPortMappings({
       containerPort: 8080,